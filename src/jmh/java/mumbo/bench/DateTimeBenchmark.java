@@ -0,0 +1,109 @@
+package mumbo.bench;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mumbo.userinput.DateParseResult;
+import mumbo.userinput.DateTimeUtil;
+
+/**
+ * Measures {@link DateTimeUtil#parseDateTime(String)} for each accepted format, along with a rejected input
+ * and the display and storage conversions. The {@code legacy} benchmarks run the formatter cascade that the
+ * single-pass recogniser replaced, which tried each format in turn and caught an exception per miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DateTimeBenchmark {
+    private static final String INVALID = "next tuesday";
+    private static final DateTimeFormatter[] LEGACY_CANDIDATES = new DateTimeFormatter[] {
+        DateTimeFormatter.ofPattern("yyyy/MM/dd"),
+        DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm"),
+        DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+        DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")
+    };
+
+    /** yyyy/MM/dd, yyyy/MM/dd HH:mm, dd/MM/yyyy, dd/MM/yyyy HH:mm */
+    @Param({"2025/09/30", "2025/09/30 23:59", "30/09/2025", "30/09/2025 23:59"})
+    public String text;
+
+    private LocalDateTime parsed;
+    private String iso;
+
+    @Setup
+    public void setUp() {
+        parsed = DateTimeUtil.parseDateTime(text);
+        iso = DateTimeUtil.iso(parsed);
+    }
+
+    @Benchmark
+    public LocalDateTime parseDateTime() {
+        return DateTimeUtil.parseDateTime(text);
+    }
+
+    @Benchmark
+    public DateParseResult tryParse() {
+        return DateTimeUtil.tryParse(text);
+    }
+
+    @Benchmark
+    public DateParseResult tryParseInvalid() {
+        return DateTimeUtil.tryParse(INVALID);
+    }
+
+    @Benchmark
+    public LocalDateTime legacyParseDateTime() {
+        return legacyParse(text);
+    }
+
+    /**
+     * Input matching no format, which cost the cascade two exceptions for every format tried.
+     */
+    @Benchmark
+    public LocalDateTime legacyParseInvalid() {
+        return legacyParse(INVALID);
+    }
+
+    @Benchmark
+    public String prettify() {
+        return DateTimeUtil.prettify(parsed);
+    }
+
+    @Benchmark
+    public LocalDateTime parseIso() {
+        return DateTimeUtil.parseIso(iso);
+    }
+
+    private static LocalDateTime legacyParse(String s) {
+        for (DateTimeFormatter f : LEGACY_CANDIDATES) {
+            try {
+                return LocalDateTime.parse(s, f);
+            } catch (DateTimeParseException ignore) {
+                try {
+                    return LocalDate.parse(s, f).atStartOfDay();
+                } catch (DateTimeParseException ignore2) {
+                    continue;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,87 @@
+package mumbo.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mumbo.task.Task;
+import mumbo.task.TaskList;
+import mumbo.task.Todo;
+
+/**
+ * Compares {@link TaskList#find(String)} against the linear lowercase-and-contains scan it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FindBenchmark {
+    private static final String[] WORDS = {
+        "buy", "milk", "read", "book", "call", "mum", "submit", "assignment", "review", "draft",
+        "meeting", "notes", "clean", "room", "pay", "bills", "project", "plan", "gym", "lunch"
+    };
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    /** A rare keyword (about 0.1% of tasks) and a common one (about 5%). */
+    @Param({"quarterly report", "assignment"})
+    public String keyword;
+
+    private TaskList tasks;
+
+    /**
+     * Fills the list with random descriptions and builds the index with a first search.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Task> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + i;
+            if (random.nextInt(1000) == 0) {
+                description = "quarterly report " + i;
+            }
+            list.add(new Todo(description));
+        }
+        tasks = new TaskList(list);
+        tasks.find(keyword);
+    }
+
+    @Benchmark
+    public TaskList indexedFind() {
+        return tasks.find(keyword);
+    }
+
+    /**
+     * The previous implementation: lowercase every description and scan the whole list.
+     */
+    @Benchmark
+    public TaskList linearScan() {
+        ArrayList<Task> matchingTasks = new ArrayList<>();
+        String lowerKeyword = keyword.toLowerCase();
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (task.getDescription().toLowerCase().contains(lowerKeyword)) {
+                matchingTasks.add(task);
+            }
+        }
+        return new TaskList(matchingTasks);
+    }
+}
@@ -0,0 +1,60 @@
+package mumbo.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mumbo.userinput.ParsedInput;
+import mumbo.userinput.Parser;
+import mumbo.userinput.Validator;
+
+/**
+ * Measures {@link Parser#parse(String)} for each kind of command, and the event validation it relies on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ParserBenchmark {
+    @Param({
+        "todo buy milk and bread",
+        "deadline submit assignment /by 2025/09/30 23:59",
+        "event hackathon /from 2025/09/01 09:00 /to 2025/09/03 18:00",
+        "mark 42",
+        "delete 7",
+        "find report",
+        "findtag /any work urgent",
+        "tag 3 work urgent",
+        "list /page 2 /size 20",
+        "between 2025/09/01 /to 2025/09/30",
+        "help",
+        "gibberish input"
+    })
+    public String input;
+
+    @Benchmark
+    public ParsedInput parse() {
+        return Parser.parse(input);
+    }
+
+    /**
+     * Event validation parses both dates, making it the most expensive check the parser runs.
+     */
+    @Benchmark
+    public String validateEvent() {
+        String arg = "hackathon /from 2025/09/01 09:00 /to 2025/09/03 18:00";
+        Validator.validateEvent(arg);
+        return arg;
+    }
+}
@@ -0,0 +1,127 @@
+package mumbo.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mumbo.storage.Storage;
+import mumbo.task.Deadline;
+import mumbo.task.Event;
+import mumbo.task.Task;
+import mumbo.task.TaskList;
+import mumbo.task.Todo;
+
+/**
+ * Measures {@link Storage#save(TaskList)} and {@link Storage#load()} in the text and binary formats.
+ *
+ * <p>Files are written under {@code ./data} with a {@code bench-} prefix and deleted afterwards. Loading
+ * a binary store is lazy, so {@link #loadAndReadAll()} also touches every task to include decoding.</p>
+ *
+ * <p>Storage skips writing a list it has already written at the same version, so the save benchmarks mark
+ * or unmark one task first; without that, every save after the first would return at once.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StorageBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"txt", "bin"})
+    public String format;
+
+    private String fileName;
+    private Storage storage;
+    private TaskList tasks;
+
+    /**
+     * Builds a mixed list of tasks and writes it once so that load has a file to read.
+     */
+    @Setup
+    public void setUp() {
+        List<Task> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            switch (i % 3) {
+            case 0:
+                list.add(new Todo("buy groceries for the week " + i));
+                break;
+            case 1:
+                list.add(new Deadline("submit report " + i, BASE.plusHours(i)));
+                break;
+            default:
+                list.add(new Event("team meeting " + i, BASE.plusHours(i), BASE.plusHours(i + 2)));
+                break;
+            }
+        }
+        tasks = new TaskList(list);
+        fileName = "bench-" + size + "." + format;
+        storage = new Storage(fileName);
+        storage.save(tasks);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Path path = Paths.get("./data", fileName);
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(Paths.get(path + ".journal"));
+        Files.deleteIfExists(Paths.get(path + ".journal.old"));
+    }
+
+    @Benchmark
+    public void save() {
+        change();
+        storage.save(tasks);
+    }
+
+    @Benchmark
+    public TaskList load() {
+        return storage.load();
+    }
+
+    @Benchmark
+    public int loadAndReadAll() {
+        TaskList loaded = storage.load();
+        int total = 0;
+        for (int i = 0; i < loaded.size(); i++) {
+            total += loaded.get(i).getDescription().length();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int saveThenLoad() {
+        change();
+        storage.save(tasks);
+        return storage.load().size();
+    }
+
+    /**
+     * Advances the list's version, at the cost of flipping one task's done flag
+     */
+    private void change() {
+        tasks.mark(1, !tasks.getById(1).isDone());
+    }
+}
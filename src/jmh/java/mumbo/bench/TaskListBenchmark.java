@@ -0,0 +1,116 @@
+package mumbo.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mumbo.task.Task;
+import mumbo.task.TaskList;
+import mumbo.task.Todo;
+
+/**
+ * Measures the {@link TaskList} queries at varying list sizes: tag lookups answered from the tag bitmaps,
+ * keyword searches both through the trigram index and through the short-keyword scan, and access and
+ * deletion by id and by position.
+ * {@link FindBenchmark} compares indexed search against the old linear scan in more detail.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TaskListBenchmark {
+    /** Tag frequencies range from about half the tasks (home) down to about one in a thousand (audit). */
+    private static final String[] TAGS = {"home", "work", "urgent", "errand", "audit"};
+    private static final int[] TAG_ODDS = {2, 5, 20, 50, 1000};
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private TaskList tasks;
+    private int cursor;
+
+    /**
+     * Fills the list with tagged todos and builds both indexes with a first query each.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Task> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Todo todo = new Todo("task number " + i + (i % 100 == 0 ? " quarterly report" : ""));
+            for (int t = 0; t < TAGS.length; t++) {
+                if (random.nextInt(TAG_ODDS[t]) == 0) {
+                    todo.tag(TAGS[t]);
+                }
+            }
+            list.add(todo);
+        }
+        tasks = new TaskList(list);
+        tasks.find("report");
+        tasks.findByTag("home");
+    }
+
+    @Benchmark
+    public TaskList findByCommonTag() {
+        return tasks.findByTag("home");
+    }
+
+    @Benchmark
+    public TaskList findByRareTag() {
+        return tasks.findByTag("audit");
+    }
+
+    @Benchmark
+    public TaskList findByAllTags() {
+        return tasks.findByTags(List.of("work", "urgent"), true);
+    }
+
+    @Benchmark
+    public TaskList findByAnyTag() {
+        return tasks.findByTags(List.of("urgent", "errand"), false);
+    }
+
+    @Benchmark
+    public TaskList findIndexed() {
+        return tasks.find("quarterly");
+    }
+
+    /**
+     * Deletes a task from the middle of the list by id and adds a new one at the end, keeping the size.
+     */
+    @Benchmark
+    public Task deleteMiddleAndAdd() {
+        Task middle = tasks.get(tasks.size() / 2);
+        tasks.delete(middle.getId());
+        return tasks.add(new Todo("task number " + (cursor++)));
+    }
+
+    @Benchmark
+    public Task getByPosition() {
+        cursor = (cursor + 7919) % size;
+        return tasks.get(cursor);
+    }
+
+    /**
+     * Keywords shorter than a trigram cannot use the index and scan the list.
+     */
+    @Benchmark
+    public TaskList findShortKeyword() {
+        return tasks.find("99");
+    }
+}
@@ -0,0 +1,146 @@
+package mumbo.bench;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mumbo.task.Deadline;
+import mumbo.task.Event;
+import mumbo.task.Task;
+import mumbo.task.TaskList;
+import mumbo.task.Todo;
+
+/**
+ * Compares the time-indexed queries of {@link TaskList} against scanning every task.
+ *
+ * <p>Tasks are spread over ten years, a third each todos, deadlines and events lasting up to a week.
+ * Queries cover the first week, so each returns a small fraction of the list.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TimeIndexBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int HOURS = 10 * 365 * 24;
+    private static final int UPCOMING = 10;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private TaskList tasks;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    /**
+     * Fills the list with random tasks and builds the index with a first query.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Task> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDateTime start = BASE.plusHours(random.nextInt(HOURS));
+            switch (i % 3) {
+            case 0:
+                list.add(new Todo("todo " + i));
+                break;
+            case 1:
+                list.add(new Deadline("deadline " + i, start));
+                break;
+            default:
+                list.add(new Event("event " + i, start, start.plusHours(random.nextInt(7 * 24))));
+                break;
+            }
+        }
+        tasks = new TaskList(list);
+        from = BASE;
+        to = BASE.plusDays(7);
+        tasks.dueBy(from);
+    }
+
+    @Benchmark
+    public TaskList indexedDueBy() {
+        return tasks.dueBy(to);
+    }
+
+    @Benchmark
+    public List<Task> linearDueBy() {
+        List<Task> matching = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            Task t = tasks.get(i);
+            LocalDateTime start = startOf(t);
+            if (start != null && !start.isAfter(to)) {
+                matching.add(t);
+            }
+        }
+        matching.sort(Comparator.comparing(TimeIndexBenchmark::startOf));
+        return matching;
+    }
+
+    @Benchmark
+    public TaskList indexedBetween() {
+        return tasks.between(from, to);
+    }
+
+    @Benchmark
+    public List<Task> linearBetween() {
+        List<Task> matching = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            Task t = tasks.get(i);
+            LocalDateTime start = startOf(t);
+            if (start != null && !start.isAfter(to) && !endOf(t).isBefore(from)) {
+                matching.add(t);
+            }
+        }
+        matching.sort(Comparator.comparing(TimeIndexBenchmark::startOf));
+        return matching;
+    }
+
+    @Benchmark
+    public TaskList indexedUpcoming() {
+        return tasks.upcoming(to, UPCOMING);
+    }
+
+    @Benchmark
+    public List<Task> linearUpcoming() {
+        List<Task> matching = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            Task t = tasks.get(i);
+            LocalDateTime start = startOf(t);
+            if (start != null && !start.isBefore(to)) {
+                matching.add(t);
+            }
+        }
+        matching.sort(Comparator.comparing(TimeIndexBenchmark::startOf));
+        return matching.subList(0, Math.min(UPCOMING, matching.size()));
+    }
+
+    private static LocalDateTime startOf(Task t) {
+        if (t instanceof Event) {
+            return ((Event) t).getStart();
+        }
+        return t instanceof Deadline ? ((Deadline) t).getDeadline() : null;
+    }
+
+    private static LocalDateTime endOf(Task t) {
+        return t instanceof Event ? ((Event) t).getEnd() : ((Deadline) t).getDeadline();
+    }
+}
@@ -0,0 +1,134 @@
+package mumbo.app;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Runs Mumbo without a window, reading one command per line from a script file or standard input.
+ *
+ * <p>Commands go through the same {@link Mumbo#getResponse(String)} path as the GUI, but inside a batch:
+ * changes are saved once at the end of the script, or once every {@code --every N} commands, rather than
+ * after each command. A summary of commands run, saves made and throughput is printed at the end.</p>
+ *
+ * <pre>
+ * java -cp mumbo.jar mumbo.app.BatchLauncher [--store &lt;file&gt;] [--every &lt;n&gt;] [--quiet] [&lt;script&gt;]
+ * </pre>
+ */
+public class BatchLauncher {
+    private static final String DEFAULT_STORE = "mumbo-tasks.txt";
+    private static final String USAGE =
+            "Usage: BatchLauncher [--store <file>] [--every <n>] [--quiet] [<script>]";
+
+    private final Mumbo mumbo;
+    private final int commitEvery;
+    private final boolean isQuiet;
+    private final PrintStream out;
+
+    private int commandCount = 0;
+    private int saveCount = 0;
+
+    /**
+     * Creates a batch runner
+     * @param mumbo the chatbot to run commands against
+     * @param commitEvery how many commands to run between saves; 0 saves only at the end
+     * @param isQuiet whether to leave out each command's response
+     * @param out where responses and the summary are printed
+     */
+    public BatchLauncher(Mumbo mumbo, int commitEvery, boolean isQuiet, PrintStream out) {
+        assert mumbo != null : "Mumbo must not be null";
+        assert commitEvery >= 0 : "Commit interval must not be negative";
+        this.mumbo = mumbo;
+        this.commitEvery = commitEvery;
+        this.isQuiet = isQuiet;
+        this.out = out;
+    }
+
+    /**
+     * Entry point for batch mode.
+     * @param args command line options, then an optional script path (standard input if absent)
+     */
+    public static void main(String... args) {
+        String store = DEFAULT_STORE;
+        int commitEvery = 0;
+        boolean isQuiet = false;
+        String script = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                case "--store":
+                    store = args[++i];
+                    break;
+                case "--every":
+                    commitEvery = Integer.parseInt(args[++i]);
+                    break;
+                case "--quiet":
+                    isQuiet = true;
+                    break;
+                default:
+                    script = args[i];
+                    break;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            System.out.println(USAGE);
+            return;
+        }
+        if (commitEvery < 0) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        BatchLauncher batch = new BatchLauncher(new Mumbo(store, true), commitEvery, isQuiet, System.out);
+        try (BufferedReader in = script == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)) {
+            batch.run(in);
+        } catch (IOException e) {
+            System.out.println("An error occurred while reading the script.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Runs every command in the script, stopping early if a command exits the application.
+     * Blank lines and lines starting with {@code #} are skipped.
+     * @param in the script, one command per line
+     * @throws IOException if the script cannot be read; changes made so far are still saved
+     */
+    public void run(BufferedReader in) throws IOException {
+        long startNanos = System.nanoTime();
+        mumbo.beginBatch();
+        try {
+            String line;
+            while (!mumbo.shouldExit() && (line = in.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String response = mumbo.getResponse(line);
+                commandCount++;
+                if (!isQuiet) {
+                    out.println(response);
+                }
+                if (commitEvery > 0 && commandCount % commitEvery == 0 && mumbo.commitBatch()) {
+                    saveCount++;
+                }
+            }
+        } finally {
+            if (mumbo.endBatch()) {
+                saveCount++;
+            }
+        }
+        printSummary(System.nanoTime() - startNanos);
+    }
+
+    private void printSummary(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        out.printf("Ran %d command(s) in %.3f s (%.0f commands/s); saved %d time(s).%n",
+                commandCount, seconds, seconds == 0 ? 0.0 : commandCount / seconds, saveCount);
+    }
+}
@@ -0,0 +1,91 @@
+package mumbo.app;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs user commands against a {@link Mumbo} instance on a single background thread.
+ *
+ * <p>Commands execute one at a time in the order they were submitted. Other threads, such as an HTTP API or a
+ * reminder thread, may use the same chatbot meanwhile; {@link Mumbo} does its own locking to keep their
+ * commands apart (see its thread-safety notes). Each response is handed to the callback through
+ * {@code callbackExecutor} (e.g. {@code Platform::runLater} in the GUI), which runs callbacks in the same
+ * order, so the caller's thread stays free while storage is busy.</p>
+ */
+public class CommandRunner implements AutoCloseable {
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    /**
+     * Receives the outcome of a single command.
+     */
+    public interface ResponseHandler {
+        /**
+         * Handles a response
+         * @param response the chatbot's reply
+         * @param shouldExit whether the command asked the application to exit
+         */
+        void handle(String response, boolean shouldExit);
+    }
+
+    private final Mumbo mumbo;
+    private final Executor callbackExecutor;
+    private final ExecutorService worker;
+
+    /**
+     * Creates a runner with its own worker thread
+     * @param mumbo the chatbot to run commands against, which other threads may keep using as well
+     * @param callbackExecutor where responses are delivered, in submission order
+     */
+    public CommandRunner(Mumbo mumbo, Executor callbackExecutor) {
+        assert mumbo != null : "Mumbo must not be null";
+        assert callbackExecutor != null : "Callback executor must not be null";
+        this.mumbo = mumbo;
+        this.callbackExecutor = callbackExecutor;
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "mumbo-worker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Queues a line of user input behind any commands already submitted
+     * @param input raw user input
+     * @param handler receives the response on the callback executor
+     */
+    public void submit(String input, ResponseHandler handler) {
+        assert handler != null : "Response handler must not be null";
+        worker.execute(() -> {
+            String response;
+            boolean shouldExit;
+            try {
+                response = mumbo.getResponse(input);
+                shouldExit = mumbo.shouldExit();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                response = "Terribly sorry - something went wrong while handling that.";
+                shouldExit = false;
+            }
+            String r = response;
+            boolean exit = shouldExit;
+            callbackExecutor.execute(() -> handler.handle(r, exit));
+        });
+    }
+
+    /**
+     * Stops accepting commands and waits for queued ones to finish, so no save is cut short.
+     */
+    @Override
+    public void close() {
+        worker.shutdown();
+        try {
+            if (!worker.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.out.println("Timed out waiting for pending commands to finish.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
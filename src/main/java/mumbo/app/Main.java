@@ -1,32 +1,88 @@
 package mumbo.app;
 
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
 
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
+import mumbo.metrics.Metrics;
+import mumbo.server.HttpApi;
 
 /**
  * A GUI for Mumbo using FXML.
+ *
+ * <p>Setting the system property {@value #SAVE_INTERVAL_PROPERTY} to a number of milliseconds saves changes in
+ * the background at most that often, instead of after every command.</p>
+ *
+ * <p>Setting {@value #HTTP_PORT_PROPERTY} to a port also serves the tasks as JSON on that port of the local
+ * machine, through an {@link HttpApi} sharing the window's Mumbo.</p>
+ *
+ * <p>Setting {@value #METRICS_FILE_PROPERTY} to a path writes how long commands take, and how much is saved,
+ * to that file in the Prometheus text format every few seconds; see {@link Metrics}.</p>
  */
 public class Main extends Application {
+    private static final String SAVE_INTERVAL_PROPERTY = "mumbo.saveIntervalMillis";
+    private static final String HTTP_PORT_PROPERTY = "mumbo.httpPort";
+    private static final String METRICS_FILE_PROPERTY = "mumbo.metricsFile";
+    private static final int HTTP_THREADS = 4;
 
-    private Mumbo mumbo = new Mumbo("mumbo-tasks.txt");
+    private Mumbo mumbo = new Mumbo("mumbo-tasks.txt", true);
+    private MainWindow mainWindow;
+    private HttpApi httpApi;
 
     @Override
     public void start(Stage stage) {
+        long saveInterval = Long.getLong(SAVE_INTERVAL_PROPERTY, 0);
+        if (saveInterval > 0) {
+            mumbo.startWriteBehind(saveInterval);
+        }
+        startHttpApi();
+        String metricsFile = System.getProperty(METRICS_FILE_PROPERTY);
+        if (metricsFile != null) {
+            Metrics.global().startExport(Paths.get(metricsFile), Metrics.DEFAULT_EXPORT_INTERVAL_MILLIS);
+        }
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(Main.class.getResource("/view/MainWindow.fxml"));
             AnchorPane ap = fxmlLoader.load();
             Scene scene = new Scene(ap);
             stage.setScene(scene);
             stage.setTitle("Mumbo");
-            fxmlLoader.<MainWindow>getController().setMumbo(mumbo); // inject the Mumbo instance
+            mainWindow = fxmlLoader.getController();
+            mainWindow.setMumbo(mumbo); // inject the Mumbo instance
             stage.show();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    private void startHttpApi() {
+        Integer port = Integer.getInteger(HTTP_PORT_PROPERTY);
+        if (port == null) {
+            return;
+        }
+        try {
+            httpApi = new HttpApi(mumbo, new InetSocketAddress(InetAddress.getLoopbackAddress(), port), HTTP_THREADS);
+            httpApi.start();
+        } catch (IOException e) {
+            System.out.println("An error occurred while starting the HTTP API.");
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (httpApi != null) {
+            httpApi.close();
+        }
+        if (mainWindow != null) {
+            mainWindow.shutdown(); // let queued commands finish saving
+        }
+        mumbo.shutdown(); // Saves what write-behind held and waits for a compaction still running
+        Metrics.global().stopExport();
+    }
 }
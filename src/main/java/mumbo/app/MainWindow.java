@@ -1,68 +1,108 @@
 package mumbo.app;
 
+import java.util.List;
+
 import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 import mumbo.ui.Ui;
 
 /**
  * Controller for the main GUI.
+ *
+ * <p>The conversation is shown in a {@link ListView}, which only creates cells for the rows on screen and
+ * recycles them while scrolling. Only the most recent {@value #MAX_HISTORY} rows are kept; older ones are
+ * dropped from the top.</p>
  */
 public class MainWindow extends AnchorPane {
+    private static final int MAX_HISTORY = 2000;
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<TranscriptEntry> transcript;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
 
-    private Mumbo mumbo;
+    private CommandRunner runner;
+    private boolean isExiting = false;
 
     private Image userImage = new Image(this.getClass().getResourceAsStream("/images/UserPixelArt.png"));
     private Image mumboImage = new Image(this.getClass().getResourceAsStream("/images/MumboPic.png"));
 
     /**
-     * Initializes the main window and binds the scroll pane to the dialog container height.
+     * Initializes the main window and sets up the transcript cells.
      */
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        transcript.setCellFactory(lv -> new MessageCell(lv, userImage, mumboImage));
+        transcript.setFocusTraversable(false);
 
         // Show welcome message when GUI starts
         String welcomeMessage = new Ui().getWelcomeMessage();
-        dialogContainer.getChildren().add(
-            DialogBox.getDukeDialog(welcomeMessage, mumboImage)
-        );
+        transcript.getItems().addAll(TranscriptEntry.of(welcomeMessage, false));
     }
 
-    /** Injects the Mumbo instance */
+    /**
+     * Injects the Mumbo instance. The window runs its commands on a background worker thread; other threads,
+     * such as the HTTP API, may share the same instance (see {@link Mumbo}'s thread-safety notes).
+     */
     public void setMumbo(Mumbo m) {
-        mumbo = m;
+        runner = new CommandRunner(m, Platform::runLater);
+    }
+
+    /**
+     * Waits for commands still running in the background, so their changes are saved before the app closes.
+     */
+    public void shutdown() {
+        if (runner != null) {
+            runner.close();
+        }
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Mumbo's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Echoes the user input straight away and hands it to the background worker, so the window stays responsive
+     * while the command runs. Mumbo's reply is placed right after the input it answers once it arrives; replies
+     * arrive in the order the inputs were sent. Clears the user input after submitting.
      */
     @FXML
     private void handleUserInput() {
+        if (isExiting) {
+            return;
+        }
         String input = userInput.getText();
-        String response = mumbo.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getDukeDialog(response, mumboImage)
-        );
+        List<TranscriptEntry> echo = TranscriptEntry.of(input, true);
+        ObservableList<TranscriptEntry> items = transcript.getItems();
+        items.addAll(echo);
+        trimHistory();
+        transcript.scrollTo(items.size() - 1);
         userInput.clear();
+        TranscriptEntry lastOfEcho = echo.get(echo.size() - 1);
+        runner.submit(input, (response, shouldExit) -> showResponse(lastOfEcho, response, shouldExit));
+    }
+
+    private void showResponse(TranscriptEntry lastOfEcho, String response, boolean shouldExit) {
+        ObservableList<TranscriptEntry> items = transcript.getItems();
+        int at = items.indexOf(lastOfEcho) + 1;
+        if (at == 0) {
+            at = items.size(); // The echo has already been trimmed away
+        }
+        boolean isNewest = at == items.size();
+        List<TranscriptEntry> reply = TranscriptEntry.of(response, false);
+        items.addAll(at, reply);
+        trimHistory();
+        if (isNewest) {
+            transcript.scrollTo(reply.get(0)); // Show the start of the reply
+        }
 
         // Check if this was a final goodbye message and exit if needed
-        if (mumbo.shouldExit()) {
+        if (shouldExit && !isExiting) {
+            isExiting = true;
             // Delay the exit slightly so the user can see the goodbye message
             new Thread(() -> {
                 try {
@@ -74,4 +114,11 @@ public class MainWindow extends AnchorPane {
             }).start();
         }
     }
+
+    private void trimHistory() {
+        ObservableList<TranscriptEntry> items = transcript.getItems();
+        if (items.size() > MAX_HISTORY) {
+            items.remove(0, items.size() - MAX_HISTORY);
+        }
+    }
 }
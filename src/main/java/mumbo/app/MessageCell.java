@@ -0,0 +1,79 @@
+package mumbo.app;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+
+/**
+ * A transcript cell showing a speaker's picture beside a wrapped label.
+ *
+ * <p>Cells are built once in code and recycled by the {@link ListView} as the transcript scrolls, so
+ * showing a message costs two property updates rather than an FXML parse. User messages sit on the right
+ * with the picture after the text; Mumbo's replies sit on the left with the picture first. Continuation
+ * slices of a long reply leave the picture out and drop the top padding so the slices read as one
+ * message.</p>
+ */
+public class MessageCell extends ListCell<TranscriptEntry> {
+    private static final double PICTURE_SIZE = 99.0;
+    private static final double PADDING = 5.0;
+    private static final double GAP = 15.0;
+    private static final double SCROLL_BAR_ALLOWANCE = 30.0;
+
+    private final Label dialog = new Label();
+    private final ImageView displayPicture = new ImageView();
+    private final HBox box = new HBox(dialog, displayPicture);
+    private final Image userImage;
+    private final Image mumboImage;
+
+    /**
+     * Creates a cell whose text wraps to the width of the transcript
+     * @param listView the transcript this cell belongs to
+     * @param userImage the picture shown beside the user's messages
+     * @param mumboImage the picture shown beside Mumbo's replies
+     */
+    public MessageCell(ListView<TranscriptEntry> listView, Image userImage, Image mumboImage) {
+        this.userImage = userImage;
+        this.mumboImage = mumboImage;
+        dialog.setWrapText(true);
+        dialog.setMinHeight(Label.USE_PREF_SIZE);
+        dialog.maxWidthProperty().bind(listView.widthProperty()
+                .subtract(PICTURE_SIZE + 2 * PADDING + SCROLL_BAR_ALLOWANCE));
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setFitHeight(PICTURE_SIZE);
+        displayPicture.setPreserveRatio(true);
+        displayPicture.setPickOnBounds(true);
+        setPrefWidth(0); // Let the label wrap instead of widening the list
+        setStyle("-fx-background-color: transparent;");
+    }
+
+    @Override
+    protected void updateItem(TranscriptEntry entry, boolean empty) {
+        super.updateItem(entry, empty);
+        if (empty || entry == null) {
+            setGraphic(null);
+            return;
+        }
+        dialog.setText(entry.getText());
+        boolean hasPicture = !entry.isContinuation();
+        displayPicture.setImage(hasPicture ? (entry.isUser() ? userImage : mumboImage) : null);
+        displayPicture.setVisible(hasPicture);
+        displayPicture.setManaged(hasPicture);
+        if (entry.isUser()) {
+            box.getChildren().setAll(dialog, displayPicture);
+            box.setAlignment(Pos.TOP_RIGHT);
+        } else {
+            box.getChildren().setAll(displayPicture, dialog);
+            box.setAlignment(Pos.TOP_LEFT);
+        }
+        // Continuations line up under the text of the slice above, past where its picture sits
+        double indent = entry.isContinuation() ? PICTURE_SIZE + PADDING : PADDING;
+        box.setPadding(new Insets(entry.isContinuation() ? 0 : GAP,
+                entry.isUser() ? indent : PADDING, 0, entry.isUser() ? PADDING : indent));
+        setGraphic(box);
+    }
+}
@@ -1,11 +1,29 @@
 package mumbo.app;
 
-import java.time.format.DateTimeParseException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import mumbo.command.Command;
+import mumbo.command.CommandPlugin;
+import mumbo.command.CommandRegistry;
 import mumbo.exception.MumboException;
+import mumbo.metrics.Metrics;
+import mumbo.metrics.Phase;
+import mumbo.metrics.PhaseTimer;
+import mumbo.storage.JournalEntry;
 import mumbo.storage.Storage;
 import mumbo.task.Deadline;
 import mumbo.task.Event;
+import mumbo.task.Selection;
 import mumbo.task.Task;
 import mumbo.task.TaskList;
 import mumbo.task.Todo;
@@ -29,12 +47,44 @@ import mumbo.userinput.Validator;
  * <p>Usage patterns:</p>
  * <ul>
  *   <li>GUI: call {@link #getResponse(String)} per user input and then check {@link #shouldExit()}.</li>
+ *   <li>Server: give each client a {@link Session} and call {@link #getResponse(Session, String)}.</li>
+ *   <li>Programs: read a {@link #snapshot()}, search with {@link #find(String)} and change tasks with
+ *   {@link #addTask(Task)}, {@link #markTask(int, boolean)} and {@link #deleteTask(int)}, which work with
+ *   tasks instead of chat messages.</li>
  * </ul>
  *
  * <p>Persistence: tasks are loaded from the provided storage file on construction and
- * saved after any state-changing command (e.g., add, mark, delete, clear).</p>
+ * saved after any state-changing command (e.g., add, mark, delete, clear). Each save is
+ * handed the {@link mumbo.storage.JournalEntry} describing the change, so journaled storage
+ * only appends a small record instead of rewriting the file.</p>
  *
- * <p>Thread-safety: this class is not thread-safe.</p>
+ * <p>Commands: each built-in command is dispatched through a table from {@link Command} to its handler.
+ * Further commands can be added without editing Mumbo by implementing {@link CommandPlugin} and listing the
+ * class for {@link ServiceLoader}; plugins are looked up by keyword in a {@link CommandRegistry}.</p>
+ *
+ * <p>Batches: between {@link #beginBatch()} and {@link #endBatch()}, changes are held in memory and
+ * written together by {@link #commitBatch()}, so a script of many commands costs one save.</p>
+ *
+ * <p>Write-behind: after {@link #startWriteBehind(long)}, commands no longer wait for the disk. A background
+ * saver writes the list at most once per interval, the {@code flush} command writes it at once, and it is
+ * written on exit as well.</p>
+ *
+ * <p>Thread-safety: {@link #getResponse(String)} may be called from several threads at once, e.g. the GUI,
+ * a batch importer and a reminder thread sharing one task list. Commands that change the list run one at a
+ * time under the task list's lock, which the write-behind saver also takes while it captures the list.
+ * Commands that only read it ({@code list}, {@code stats} and {@code help}) take no lock: they are answered
+ * from a {@link TaskList#snapshot()} of the list, which is taken again only after the list has changed.
+ * Searches ({@code find}, {@code findtag}, {@code due}, {@code between} and {@code upcoming}) take the lock
+ * only while they look up their matches in the list's search indexes, which are kept up to date by every
+ * change rather than built again for each snapshot; the matches are copied and formatted after the lock is
+ * released. Each command therefore sees the list as it was between two changes, and never a change half
+ * made. Conversation state, such as a pending bye confirmation, lives in a {@link Session}:
+ * {@link #getResponse(String)} uses Mumbo's own session, while {@link #getResponse(Session, String)} lets
+ * each client of a shared Mumbo hold a conversation of its own.</p>
+ *
+ * <p>Metrics: every command is timed phase by phase, from parsing through waiting for the list's lock,
+ * executing and formatting to saving, into {@link Metrics#global()}; the {@code stats} command sums the
+ * figures up.</p>
  *
  * @see mumbo.ui.Ui
  * @see mumbo.storage.Storage
@@ -42,11 +92,21 @@ import mumbo.userinput.Validator;
  * @see mumbo.userinput.Parser
  */
 public class Mumbo {
+    private static final String ANY_TAG_MARKER = "/any";
+    private static final int DEFAULT_UPCOMING_COUNT = 5;
+
     private final Ui ui;
     private final Storage storage;
     private final TaskList tasks;
-    private boolean isAwaitingByeConfirmation = false; // Track if we're waiting for bye confirmation
-    private boolean shouldExit = false; // Track if the application should exit
+    private final Map<Command, Function<ParsedInput, String>> handlers = new EnumMap<>(Command.class);
+    private final Map<Command, BiFunction<TaskList, ParsedInput, String>> readers = new EnumMap<>(Command.class);
+    private final Map<Command, BiFunction<TaskList, ParsedInput, TaskList>> searches =
+            new EnumMap<>(Command.class);
+    private final CommandRegistry<CommandPlugin> plugins = new CommandRegistry<>();
+    private final Session session = new Session(); // The conversation held through getResponse(String)
+    private final Metrics metrics = Metrics.global();
+    private volatile TaskList snapshot; // Read-only copy of the list that reading commands are answered from
+    private volatile long version; // Version of the list after the last completed change
 
     /**
      * Creates a new chatbot backed by the given storage file.
@@ -57,12 +117,36 @@ public class Mumbo {
      * @param fileName path to the persistent storage file
      */
     public Mumbo(String fileName) {
+        this(fileName, false);
+    }
+
+    /**
+     * Creates a new chatbot backed by the given storage file, optionally journaling mutations.
+     *
+     * @param fileName path to the persistent storage file
+     * @param isJournaled whether storage appends a journal record per change instead of rewriting the file
+     */
+    public Mumbo(String fileName, boolean isJournaled) {
+        this(fileName, isJournaled, ServiceLoader.load(CommandPlugin.class));
+    }
+
+    /**
+     * Creates a new chatbot with the given plugin commands in addition to the built-in ones.
+     *
+     * @param fileName path to the persistent storage file
+     * @param isJournaled whether storage appends a journal record per change instead of rewriting the file
+     * @param plugins the extra commands to register; any that clash with an existing command are skipped
+     */
+    public Mumbo(String fileName, boolean isJournaled, Iterable<CommandPlugin> plugins) {
         assert fileName != null && !fileName.isBlank() : "Storage filename must not be null/blank";
         this.ui = new Ui();
-        this.storage = new Storage(fileName);
+        this.storage = new Storage(fileName, isJournaled);
         this.tasks = storage.load();
+        this.version = tasks.getVersion();
         assert this.storage != null : "Storage must be initialised";
         assert this.tasks != null : "Loaded TaskList must not be null";
+        registerHandlers();
+        registerPlugins(plugins);
     }
 
     /**
@@ -71,7 +155,7 @@ public class Mumbo {
      * @return {@code true} if an exit was requested; {@code false} otherwise
      */
     public boolean shouldExit() {
-        return shouldExit;
+        return session.shouldExit();
     }
 
     /**
@@ -81,66 +165,330 @@ public class Mumbo {
      * across calls. After handling an exit flow, consult {@link #shouldExit()} to know
      * whether the host UI should close.</p>
      *
+     * <p>May be called from several threads at once; see the class description.</p>
+     *
      * @param input raw user input
      * @return user-facing response message
      */
     public String getResponse(String input) {
-        if (isAwaitingByeConfirmation) {
-            return handleByeConfirmation(input);
+        String response = getResponse(session, input);
+        if (session.shouldExit()) {
+            storage.stopWriteBehind(tasks);
         }
+        return response;
+    }
 
-        shouldExit = false;
-        ParsedInput in = Parser.parse(input);
+    /**
+     * Processes a single line of input within one of several conversations sharing this chatbot.
+     *
+     * <p>Unlike {@link #getResponse(String)}, ending the conversation does not stop a write-behind saver,
+     * since other conversations may still be using the tasks.</p>
+     *
+     * @param session the conversation the input belongs to
+     * @param input raw user input
+     * @return user-facing response message
+     */
+    public String getResponse(Session session, String input) {
+        assert session != null : "Session must not be null";
+        PhaseTimer timer = PhaseTimer.start(Phase.PARSE);
+        ParsedInput in = session.isAwaitingByeConfirmation() ? null : Parser.parse(input);
+        Command command = in == null ? Command.BYE : in.command; // A reply to the bye query counts as bye
+        try {
+            BiFunction<TaskList, ParsedInput, String> reader = in == null ? null : readers.get(in.command);
+            if (reader != null) {
+                timer.enter(Phase.EXECUTE);
+                session.setShouldExit(false);
+                return reader.apply(snapshot(), in);
+            }
+            BiFunction<TaskList, ParsedInput, TaskList> search = in == null ? null : searches.get(in.command);
+            if (search != null) {
+                session.setShouldExit(false);
+                return handleSearch(timer, search, in);
+            }
+            timer.enter(Phase.WAIT);
+            synchronized (tasks) {
+                timer.enter(Phase.EXECUTE);
+                String response = respond(session, input, in);
+                version = tasks.getVersion();
+                return response;
+            }
+        } finally {
+            timer.stop(metrics, command);
+        }
+    }
+
+    private String respond(Session session, String input, ParsedInput parsed) {
+        if (session.isAwaitingByeConfirmation()) {
+            return handleByeConfirmation(session, input);
+        }
+
+        session.setShouldExit(false);
+        ParsedInput in = parsed == null ? Parser.parse(input) : parsed;
         assert in != null : "ParsedInput must not be null";
 
-        switch (in.command) {
-        case LIST:
-            return handleList();
-        case TODO:
-            return handleTodo(in);
-        case DEADLINE:
-            return handleDeadline(in);
-        case EVENT:
-            return handleEvent(in);
-        case MARK:
-            return handleMark(in);
-        case UNMARK:
-            return handleUnmark(in);
-        case DELETE:
-            return handleDelete(in);
-        case CLEAR:
-            return handleClear();
-        case HELP:
-            return handleHelp();
-        case FIND:
-            return handleFind(in);
-        case FINDTAG:
-            return handleFindTag(in);
-        case TAG:
-            return handleTag(in);
-        case BYE:
-            return handleBye();
-        case ERROR:
-            return in.args[0];
-        default:
-            return "Pardon me; I did not quite catch that.\nYou may type 'help' to see the available commands.";
+        if (in.command == Command.BYE) {
+            return handleBye(session); // The one command that moves the conversation along
+        }
+        Function<ParsedInput, String> handler = handlers.get(in.command);
+        return handler == null ? handlePlugin(in) : handler.apply(in);
+    }
+
+    /**
+     * Gets a snapshot of the list as of the last completed change, taking a new one only if the list has
+     * changed since the last was taken. The snapshot may be read from any thread and must not be changed;
+     * its version tells whether two snapshots hold the same tasks.
+     *
+     * @return a read-only copy of the list
+     */
+    public TaskList snapshot() {
+        TaskList current = snapshot;
+        if (current != null && current.getVersion() == version) {
+            return current;
+        }
+        synchronized (tasks) {
+            current = snapshot;
+            if (current == null || current.getVersion() != tasks.getVersion()) {
+                current = tasks.snapshot();
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Finds the tasks whose descriptions contain a keyword, as the {@code find} command does. The search uses
+     * the list's own index, which is kept up to date as the list changes, so it is quick even right after a
+     * change; it takes the list's lock while it looks up the matches.
+     *
+     * @param keyword the keyword to search for (case-insensitive)
+     * @return copies of the matching tasks, carrying their ids, which later changes do not reach; the result's
+     *         version is that of the list it was searched in
+     */
+    public TaskList find(String keyword) {
+        assert keyword != null : "Search keyword must not be null";
+        PhaseTimer timer = PhaseTimer.start(Phase.WAIT);
+        try {
+            return search(timer, live -> live.find(keyword));
+        } finally {
+            timer.stop(metrics, Command.FIND);
+        }
+    }
+
+    /**
+     * Runs a search on the list under its lock and copies the matches, so that they may be formatted after
+     * the lock is released
+     */
+    private TaskList search(PhaseTimer timer, Function<TaskList, TaskList> query) {
+        timer.enter(Phase.WAIT);
+        synchronized (tasks) {
+            timer.enter(Phase.EXECUTE);
+            return query.apply(tasks).detach();
+        }
+    }
+
+    /**
+     * Adds a task and saves it, as the {@code todo}, {@code deadline} and {@code event} commands do.
+     *
+     * @param task the task to add, which must not belong to a list yet
+     * @return a copy of the task as added, carrying its id
+     */
+    public Task addTask(Task task) {
+        assert task != null : "Task must not be null";
+        Command command = task instanceof Deadline ? Command.DEADLINE
+                : task instanceof Event ? Command.EVENT : Command.TODO;
+        return change(command, () -> add(task).copy());
+    }
+
+    /**
+     * Marks a task as done or not done and saves it, as the {@code mark} and {@code unmark} commands do.
+     *
+     * @param id the task's id
+     * @param done whether the task is done
+     * @return a copy of the task as marked
+     * @throws MumboException if no task has the id
+     */
+    public Task markTask(int id, boolean done) {
+        return change(done ? Command.MARK : Command.UNMARK, () -> markOne(id, done).copy());
+    }
+
+    /**
+     * Deletes a task and saves the list, as the {@code delete} command does.
+     *
+     * @param id the task's id
+     * @return the deleted task
+     * @throws MumboException if no task has the id
+     */
+    public Task deleteTask(int id) {
+        return change(Command.DELETE, () -> deleteOne(id)); // No longer in the list, so nothing changes it
+    }
+
+    /**
+     * Makes a change under the list's lock, timed as the command that would have made it
+     */
+    private <T> T change(Command command, Supplier<T> change) {
+        PhaseTimer timer = PhaseTimer.start(Phase.WAIT);
+        try {
+            synchronized (tasks) {
+                timer.enter(Phase.EXECUTE);
+                T result = change.get();
+                version = tasks.getVersion();
+                return result;
+            }
+        } finally {
+            timer.stop(metrics, command);
+        }
+    }
+
+    /**
+     * Stops saving after every command; a background thread saves changes instead, at most once per interval.
+     * Changes are also saved by the {@code flush} command and on exit.
+     *
+     * @param intervalMillis the shortest time between two saves, in milliseconds
+     */
+    public void startWriteBehind(long intervalMillis) {
+        storage.startWriteBehind(tasks, intervalMillis);
+    }
+
+    /**
+     * Goes back to saving after every command, first saving any changes the write-behind saver holds.
+     * Does nothing if write-behind was not started.
+     */
+    public void stopWriteBehind() {
+        storage.stopWriteBehind(tasks);
+    }
+
+    /**
+     * Saves anything the write-behind saver has not saved yet and stops all of the storage's background
+     * threads, so that the tasks can be dropped from memory and loaded again later by a new Mumbo. Nothing
+     * may be sent to this Mumbo afterwards.
+     *
+     * @return {@code true} if there were unsaved changes, which have now been saved
+     */
+    public boolean shutdown() {
+        return storage.close(tasks);
+    }
+
+    /**
+     * Counts the tasks in the list.
+     *
+     * @return the number of tasks
+     */
+    public int getTaskCount() {
+        synchronized (tasks) {
+            return tasks.size();
         }
     }
 
+    /**
+     * Starts holding back saves until {@link #commitBatch()} or {@link #endBatch()}.
+     */
+    public void beginBatch() {
+        storage.beginBatch();
+    }
+
+    /**
+     * Saves every change made since the batch began or was last committed.
+     *
+     * @return {@code true} if anything was written
+     */
+    public boolean commitBatch() {
+        return storage.commitBatch(tasks);
+    }
+
+    /**
+     * Saves outstanding changes and goes back to saving after every command.
+     *
+     * @return {@code true} if anything was written
+     */
+    public boolean endBatch() {
+        return storage.endBatch(tasks);
+    }
+
+    private void registerHandlers() {
+        readers.put(Command.LIST, this::handleList);
+        readers.put(Command.HELP, (list, in) -> handleHelp());
+        searches.put(Command.FIND, this::handleFind);
+        searches.put(Command.FINDTAG, this::handleFindTag);
+        searches.put(Command.DUE, this::handleDue);
+        searches.put(Command.BETWEEN, this::handleBetween);
+        searches.put(Command.UPCOMING, this::handleUpcoming);
+        readers.put(Command.STATS, (list, in) -> ui.getStatsMessage(metrics));
+        handlers.put(Command.TODO, this::handleTodo);
+        handlers.put(Command.DEADLINE, this::handleDeadline);
+        handlers.put(Command.EVENT, this::handleEvent);
+        handlers.put(Command.MARK, this::handleMark);
+        handlers.put(Command.UNMARK, this::handleUnmark);
+        handlers.put(Command.DELETE, this::handleDelete);
+        handlers.put(Command.CLEAR, in -> handleClear());
+        handlers.put(Command.TAG, this::handleTag);
+        handlers.put(Command.FLUSH, in -> handleFlush());
+        handlers.put(Command.ERROR, in -> in.args[0]);
+    }
+
+    private void registerPlugins(Iterable<CommandPlugin> found) {
+        try {
+            for (CommandPlugin plugin : found) {
+                if (isBuiltIn(plugin)) {
+                    System.out.println("Skipping plugin '" + plugin.getKeyword()
+                            + "': it clashes with a built-in command.");
+                    continue;
+                }
+                try {
+                    plugins.register(plugin, plugin.getKeyword(), plugin.getAliases().toArray(new String[0]));
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Skipping plugin '" + plugin.getKeyword() + "': " + e.getMessage());
+                }
+            }
+        } catch (ServiceConfigurationError e) {
+            System.out.println("An error occurred while loading command plugins.");
+            e.printStackTrace();
+        }
+    }
+
+    private static boolean isBuiltIn(CommandPlugin plugin) {
+        if (Command.from(plugin.getKeyword()) != Command.UNKNOWN) {
+            return true;
+        }
+        for (String alias : plugin.getAliases()) {
+            if (Command.from(alias) != Command.UNKNOWN) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     // Private handler methods for each command:
 
-    private String handleByeConfirmation(String input) {
+    private String handlePlugin(ParsedInput in) {
+        CommandPlugin plugin = plugins.lookup(in.getArgX(1));
+        if (plugin == null) {
+            return "Pardon me; I did not quite catch that.\nYou may type 'help' to see the available commands.";
+        }
+        try {
+            if (!plugin.isMutating()) {
+                return plugin.execute(in.getArgX(2), tasks, ui);
+            }
+            // The plugin may change tasks directly, which the list would not otherwise see
+            String response = tasks.editDirectly(() -> plugin.execute(in.getArgX(2), tasks, ui));
+            storage.save(tasks);
+            return response;
+        } catch (MumboException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String handleByeConfirmation(Session session, String input) {
         try {
             boolean shouldClear = Validator.validateYesNo(input);
             if (shouldClear) {
                 tasks.clear();
-                storage.save(tasks);
-                isAwaitingByeConfirmation = false;
-                shouldExit = true;
+                storage.save(tasks, JournalEntry.clear());
+                session.setAwaitingByeConfirmation(false);
+                session.setShouldExit(true);
                 return ui.getClearedOnExitMessage();
             } else {
-                isAwaitingByeConfirmation = false;
-                shouldExit = true;
+                session.setAwaitingByeConfirmation(false);
+                session.setShouldExit(true);
                 return ui.getByeMessage();
             }
         } catch (MumboException e) {
@@ -148,124 +496,215 @@ public class Mumbo {
         }
     }
 
-    private String handleList() {
-        return ui.getListMessage(tasks);
+    private String handleList(TaskList list, ParsedInput in) {
+        if (in.args.length == 0) {
+            return ui.getListMessage(list, 1, Parser.DEFAULT_PAGE_SIZE);
+        }
+        assert in.getNumberCount() >= 2 : "LIST takes a page and a page size";
+        return ui.getListMessage(list, in.getNumberX(1), in.getNumberX(2));
     }
 
     private String handleTodo(ParsedInput in) {
         assert in.args.length >= 1 : "TODO requires one argument";
-        Task t = tasks.add(new Todo(in.args[0]));
-        storage.save(tasks);
+        Task t = add(new Todo(in.getDescription()));
         return ui.getAddedMessage(t, tasks.size());
     }
 
     private String handleDeadline(ParsedInput in) {
-        try {
-            assert in.args.length >= 2 : "DEADLINE requires two arguments";
-            Task td = tasks.add(new Deadline(in.args[0], DateTimeUtil.parseDateTime(in.args[1])));
-            storage.save(tasks);
-            return ui.getAddedMessage(td, tasks.size());
-        } catch (DateTimeParseException e) {
+        assert in.args.length >= 2 : "DEADLINE requires two arguments";
+        LocalDateTime by = in.getDateTimeX(1);
+        if (by == null) {
             return ui.getDateFormatErrorMessage();
         }
+        Task td = add(new Deadline(in.getDescription(), by));
+        return ui.getAddedMessage(td, tasks.size());
     }
 
     private String handleEvent(ParsedInput in) {
-        try {
-            assert in.args.length >= 3 : "EVENT requires three arguments";
-            Task te = tasks.add(new Event(in.args[0],
-                    DateTimeUtil.parseDateTime(in.args[1]),
-                    DateTimeUtil.parseDateTime(in.args[2])));
-            storage.save(tasks);
-            return ui.getAddedMessage(te, tasks.size());
-        } catch (DateTimeParseException e) {
-            return ui.getDateFormatErrorMessage();
-        }
+        assert in.args.length >= 3 : "EVENT requires three arguments";
+        Task te = add(new Event(in.getDescription(), in.getDateTimeX(1), in.getDateTimeX(2)));
+        return ui.getAddedMessage(te, tasks.size());
+    }
+
+    private Task add(Task task) {
+        Task added = tasks.add(task);
+        storage.save(tasks, JournalEntry.add(added));
+        return added;
     }
 
     private String handleMark(ParsedInput in) {
         assert in.args.length >= 1 : "MARK requires one argument";
-        try {
-            int mIndex = Integer.parseInt(in.args[0]);
-            Validator.validateInRange(mIndex, 1, tasks.size());
-            Task tm = tasks.mark(mIndex, true);
-            storage.save(tasks);
-            return ui.getMarkedMessage(tm, true);
-        } catch (MumboException e) {
-            return e.getMessage();
-        }
+        return mark(in.getSelection(), true);
     }
 
     private String handleUnmark(ParsedInput in) {
         assert in.args.length >= 1 : "UNMARK requires one argument";
+        return mark(in.getSelection(), false);
+    }
+
+    private String mark(Selection selection, boolean done) {
         try {
-            int uIndex = Integer.parseInt(in.args[0]);
-            Validator.validateInRange(uIndex, 1, tasks.size());
-            Task tu = tasks.mark(uIndex, false);
-            storage.save(tasks);
-            return ui.getMarkedMessage(tu, false);
+            if (selection.isSingle()) {
+                return ui.getMarkedMessage(markOne(selection.getSingleId(), done), done);
+            }
+            int[] ids = tasks.select(selection);
+            if (ids.length == 0) {
+                return ui.getNothingSelectedMessage();
+            }
+            List<Task> marked = tasks.markAll(ids, done);
+            List<JournalEntry> entries = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                entries.add(JournalEntry.mark(id, done));
+            }
+            storage.save(tasks, entries);
+            return ui.getMarkedMessage(marked, done);
         } catch (MumboException e) {
             return e.getMessage();
         }
     }
 
+    private Task markOne(int id, boolean done) {
+        Validator.validateTaskId(id, tasks);
+        Task marked = tasks.mark(id, done);
+        storage.save(tasks, JournalEntry.mark(id, done));
+        return marked;
+    }
+
     private String handleDelete(ParsedInput in) {
         assert in.args.length >= 1 : "DELETE requires one argument";
+        Selection selection = in.getSelection();
         try {
-            int idx = Integer.parseInt(in.args[0]);
-            Validator.validateInRange(idx, 1, tasks.size());
-            Task dt = tasks.delete(idx);
-            storage.save(tasks);
-            return ui.getDeletedMessage(dt, tasks.size());
+            if (selection.isSingle()) {
+                return ui.getDeletedMessage(deleteOne(selection.getSingleId()), tasks.size());
+            }
+            int[] ids = tasks.select(selection);
+            if (ids.length == 0) {
+                return ui.getNothingSelectedMessage();
+            }
+            List<Task> deleted = tasks.deleteAll(ids);
+            List<JournalEntry> entries = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                entries.add(JournalEntry.delete(id));
+            }
+            storage.save(tasks, entries);
+            return ui.getDeletedMessage(deleted, tasks.size());
         } catch (MumboException e) {
             return e.getMessage();
         }
     }
 
+    private Task deleteOne(int id) {
+        Validator.validateTaskId(id, tasks);
+        Task deleted = tasks.delete(id);
+        storage.save(tasks, JournalEntry.delete(id));
+        return deleted;
+    }
+
     private String handleClear() {
         tasks.clear();
-        storage.save(tasks);
+        storage.save(tasks, JournalEntry.clear());
         return ui.getClearMessage();
     }
 
     private String handleHelp() {
-        return ui.getHelpMessage();
+        List<String> usages = new ArrayList<>();
+        for (String keyword : plugins.keywords()) {
+            usages.add(plugins.lookup(keyword).getUsage());
+        }
+        return ui.getHelpMessage(usages);
     }
 
-    private String handleFind(ParsedInput in) {
-        assert in.args.length >= 1 : "FIND requires one argument";
-        TaskList matchingTasks = tasks.find(in.args[0]);
+    private String handleSearch(PhaseTimer timer, BiFunction<TaskList, ParsedInput, TaskList> search,
+            ParsedInput in) {
+        TaskList matchingTasks;
+        try {
+            matchingTasks = search(timer, live -> search.apply(live, in));
+        } catch (MumboException e) {
+            return e.getMessage();
+        }
         return ui.getFindMessage(matchingTasks);
     }
 
-    private String handleFindTag(ParsedInput in) {
+    private TaskList handleFind(TaskList list, ParsedInput in) {
+        assert in.args.length >= 1 : "FIND requires one argument";
+        return list.find(in.args[0]);
+    }
+
+    private TaskList handleFindTag(TaskList list, ParsedInput in) {
         assert in.args.length >= 1 : "FINDTAG requires one argument";
-        TaskList matchingTasks = tasks.findByTag(in.args[0]);
-        return ui.getFindMessage(matchingTasks);
+        String query = in.args[0].trim();
+        boolean isMatchAny = query.startsWith(ANY_TAG_MARKER);
+        if (isMatchAny) {
+            query = query.substring(ANY_TAG_MARKER.length()).trim();
+        }
+        if (query.isEmpty()) {
+            throw new MumboException("Do kindly specify a tag to search for.");
+        }
+        return list.findByTags(Arrays.asList(query.split("\\s+")), !isMatchAny);
+    }
+
+    private TaskList handleDue(TaskList list, ParsedInput in) {
+        assert in.args.length >= 1 : "DUE requires one argument";
+        LocalDateTime limit = DateTimeUtil.endOfDay(in.getDateTimeX(1));
+        return list.dueBy(limit);
     }
 
-    private String handleBye() {
+    private TaskList handleBetween(TaskList list, ParsedInput in) {
+        assert in.args.length >= 2 : "BETWEEN requires two arguments";
+        LocalDateTime from = in.getDateTimeX(1);
+        LocalDateTime to = DateTimeUtil.endOfDay(in.getDateTimeX(2));
+        return list.between(from, to);
+    }
+
+    private TaskList handleUpcoming(TaskList list, ParsedInput in) {
+        int count = in.getNumberCount() == 0 ? DEFAULT_UPCOMING_COUNT : in.getNumberX(1);
+        return list.upcoming(LocalDateTime.now(), count);
+    }
+
+    private String handleFlush() {
+        boolean isWritten = storage.flush(tasks);
+        return ui.getFlushMessage(isWritten, storage.getSavesRequested(), storage.getSavesPerformed());
+    }
+
+    private String handleBye(Session session) {
         if (tasks.isEmpty()) {
-            shouldExit = true;
+            session.setShouldExit(true);
             return ui.getByeMessage();
         } else {
-            isAwaitingByeConfirmation = true;
+            session.setAwaitingByeConfirmation(true);
             return ui.getClearCacheQuery(tasks.size());
         }
     }
 
     private String handleTag(ParsedInput in) {
         assert in.args.length >= 2 : "TAG requires two arguments";
+        Selection selection = in.getSelection();
         try {
-            int tIndex = Integer.parseInt(in.args[0]);
-            Validator.validateInRange(tIndex, 1, tasks.size());
-            String tag = in.args[1].trim();
-            if (tag.isEmpty()) {
+            String tagList = in.args[1].trim();
+            if (tagList.isEmpty()) {
                 return "The tag cannot be empty, I'm afraid.";
             }
-            Task tt = tasks.tag(tIndex, tag);
-            storage.save(tasks);
-            return ui.getTaggedMessage(tt, tag);
+            List<String> tags = Arrays.asList(tagList.split("\\s+"));
+            int[] ids;
+            if (selection.isSingle()) {
+                Validator.validateTaskId(selection.getSingleId(), tasks);
+                ids = new int[] {selection.getSingleId()};
+            } else {
+                ids = tasks.select(selection);
+            }
+            if (ids.length == 0) {
+                return ui.getNothingSelectedMessage();
+            }
+            List<Task> tagged = null;
+            List<JournalEntry> entries = new ArrayList<>(ids.length * tags.size());
+            for (String tag : tags) {
+                tagged = tasks.tagAll(ids, tag);
+                for (int tId : ids) {
+                    entries.add(JournalEntry.tag(tId, tag));
+                }
+            }
+            storage.save(tasks, entries);
+            return selection.isSingle() ? ui.getTaggedMessage(tagged.get(0)) : ui.getTaggedMessage(tagged, tags);
         } catch (MumboException e) {
             return e.getMessage();
         }
@@ -0,0 +1,35 @@
+package mumbo.app;
+
+/**
+ * The state of one conversation with Mumbo, kept apart from the tasks so that many conversations can share
+ * one {@link Mumbo}.
+ *
+ * <p>A conversation remembers whether it has asked the user to confirm clearing their tasks on exit, and
+ * whether its last command ended it. Commands of one session are expected to arrive one at a time, though
+ * not necessarily on the same thread.</p>
+ */
+public class Session {
+    private volatile boolean isAwaitingByeConfirmation = false; // Track if we're waiting for bye confirmation
+    private volatile boolean shouldExit = false; // Track if the conversation should end
+
+    /**
+     * Indicates whether the conversation should end after the last processed input.
+     *
+     * @return {@code true} if an exit was requested; {@code false} otherwise
+     */
+    public boolean shouldExit() {
+        return shouldExit;
+    }
+
+    void setShouldExit(boolean shouldExit) {
+        this.shouldExit = shouldExit;
+    }
+
+    boolean isAwaitingByeConfirmation() {
+        return isAwaitingByeConfirmation;
+    }
+
+    void setAwaitingByeConfirmation(boolean isAwaitingByeConfirmation) {
+        this.isAwaitingByeConfirmation = isAwaitingByeConfirmation;
+    }
+}
@@ -0,0 +1,74 @@
+package mumbo.app;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One row of the conversation transcript: a message, or one slice of a long message.
+ *
+ * <p>Long replies (such as {@code list} on thousands of tasks) are split into slices of at most
+ * {@value #LINES_PER_ENTRY} lines, each its own row, so the transcript only ever lays out the slices that
+ * are on screen. A slice keeps a reference to the whole reply plus its bounds and cuts out its text only
+ * when a cell displays it.</p>
+ */
+public class TranscriptEntry {
+    static final int LINES_PER_ENTRY = 40;
+
+    private final boolean isUser;
+    private final String source;
+    private final int from;
+    private final int to;
+    private final boolean isContinuation;
+
+    private TranscriptEntry(boolean isUser, String source, int from, int to, boolean isContinuation) {
+        this.isUser = isUser;
+        this.source = source;
+        this.from = from;
+        this.to = to;
+        this.isContinuation = isContinuation;
+    }
+
+    /**
+     * Splits a message into transcript rows
+     * @param text the message text
+     * @param isUser whether the user (rather than Mumbo) said it
+     * @return the rows in order; the first is never a continuation
+     */
+    public static List<TranscriptEntry> of(String text, boolean isUser) {
+        assert text != null : "Message text must not be null";
+        List<TranscriptEntry> entries = new ArrayList<>();
+        int from = 0;
+        int lines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n' && ++lines == LINES_PER_ENTRY) {
+                entries.add(new TranscriptEntry(isUser, text, from, i, !entries.isEmpty()));
+                from = i + 1;
+                lines = 0;
+            }
+        }
+        if (from < text.length() || entries.isEmpty()) {
+            entries.add(new TranscriptEntry(isUser, text, from, text.length(), !entries.isEmpty()));
+        }
+        return entries;
+    }
+
+    public boolean isUser() {
+        return isUser;
+    }
+
+    /**
+     * Checks whether this row continues the message of the row above it
+     * @return true for every slice of a message except the first
+     */
+    public boolean isContinuation() {
+        return isContinuation;
+    }
+
+    /**
+     * Gets the text of this row
+     * @return this slice of the message
+     */
+    public String getText() {
+        return source.substring(from, to);
+    }
+}
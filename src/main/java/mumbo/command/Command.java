@@ -1,36 +1,62 @@
 package mumbo.command;
 
+import java.util.List;
+
 /**
  * An enum of commands recognised by Mumbo
  */
 public enum Command {
-    LIST, TODO, DEADLINE, EVENT, MARK, UNMARK, DELETE, CLEAR, HELP, BYE, FIND, FINDTAG, TAG, UNKNOWN, ERROR;
+    LIST("ls"), TODO, DEADLINE, EVENT, MARK, UNMARK, DELETE("rm"), CLEAR, HELP, BYE("exit", "quit"), FIND,
+    FINDTAG, TAG, DUE, BETWEEN, UPCOMING, FLUSH("save"), STATS("metrics"), UNKNOWN, ERROR;
+
+    private static final CommandRegistry<Command> KEYWORDS = keywords();
+
+    private final List<String> aliases;
+
+    Command(String... aliases) {
+        this.aliases = List.of(aliases);
+    }
+
+    /**
+     * Gets the other words that may be typed in place of this command's name
+     * @return the aliases, in lower case
+     */
+    public List<String> getAliases() {
+        return aliases;
+    }
 
     /**
      * Converts a string input into its respective command enum
      * @param cmd a String input from the user
      * @return its respective command enum
      */
-    @SuppressWarnings("checkstyle:Indentation")
     public static Command from(String cmd) {
-        if (cmd == null) {
-            return UNKNOWN;
+        Command c = KEYWORDS.lookup(cmd);
+        return c == null ? UNKNOWN : c;
+    }
+
+    /**
+     * Converts the word occupying a region of some text into its respective command enum, without copying it
+     * @param text the text holding the word
+     * @param from the index of the first character of the word
+     * @param to the index after the last character of the word
+     * @return its respective command enum, or UNKNOWN if the word is not a command
+     */
+    public static Command from(CharSequence text, int from, int to) {
+        Command c = KEYWORDS.lookup(text, from, to);
+        return c == null ? UNKNOWN : c;
+    }
+
+    /**
+     * Registers every command that can be typed; UNKNOWN and ERROR are internal results only.
+     */
+    private static CommandRegistry<Command> keywords() {
+        CommandRegistry<Command> registry = new CommandRegistry<>();
+        for (Command c : values()) {
+            if (c != UNKNOWN && c != ERROR) {
+                registry.register(c, c.name(), c.aliases.toArray(new String[0]));
+            }
         }
-        return switch (cmd.toLowerCase()) {
-            case "list" -> LIST;
-            case "todo" -> TODO;
-            case "deadline" -> DEADLINE;
-            case "event" -> EVENT;
-            case "mark" -> MARK;
-            case "unmark" -> UNMARK;
-            case "delete" -> DELETE;
-            case "clear" -> CLEAR;
-            case "help" -> HELP;
-            case "bye" -> BYE;
-            case "find" -> FIND;
-            case "findtag" -> FINDTAG;
-            case "tag" -> TAG;
-            default -> UNKNOWN;
-        };
+        return registry;
     }
 }
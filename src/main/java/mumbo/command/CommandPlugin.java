@@ -0,0 +1,59 @@
+package mumbo.command;
+
+import java.util.List;
+
+import mumbo.exception.MumboException;
+import mumbo.task.TaskList;
+import mumbo.ui.Ui;
+
+/**
+ * A command added to Mumbo from outside its source tree.
+ *
+ * <p>Plugins are found with {@link java.util.ServiceLoader}: list the implementing class in
+ * {@code META-INF/services/mumbo.command.CommandPlugin} on the class path and it is registered when Mumbo
+ * starts. A plugin's keyword and aliases must not clash with a built-in command or with another
+ * plugin; one that does is skipped.</p>
+ */
+public interface CommandPlugin {
+    /**
+     * Gets the word that invokes this command
+     * @return a single word, matched ignoring case
+     */
+    String getKeyword();
+
+    /**
+     * Gets other words that invoke this command
+     * @return the aliases; none by default
+     */
+    default List<String> getAliases() {
+        return List.of();
+    }
+
+    /**
+     * Gets the line describing this command in the help message
+     * @return the usage line, such as {@code "report - sum up your tasks"}
+     */
+    default String getUsage() {
+        return getKeyword();
+    }
+
+    /**
+     * Checks whether this command may change the task list, in which case the list is saved after it runs
+     * @return true if the command changes tasks; false by default
+     */
+    default boolean isMutating() {
+        return false;
+    }
+
+    /**
+     * Runs the command. A mutating command may change the list through its methods, or change the tasks it
+     * gets from the list directly; a command that is not mutating must change neither. The list and its tasks
+     * must not be kept or used once this returns.
+     * @param argument the text typed after the keyword, trimmed; empty if there was none
+     * @param tasks the user's tasks, which the command has to itself until it returns
+     * @param ui the formatter for user-facing messages
+     * @return the response shown to the user
+     * @throws MumboException if the argument is invalid; its message is shown to the user
+     */
+    String execute(String argument, TaskList tasks, Ui ui) throws MumboException;
+}
@@ -0,0 +1,132 @@
+package mumbo.command;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps command keywords and their aliases to handlers of type {@code H}.
+ *
+ * <p>Keywords are held in a trie keyed on lower-case characters, so a lookup walks the typed word once,
+ * ignoring case, and costs the same however many commands are registered. Lookups can be made on a region
+ * of a longer input (such as the first word of a line) without copying it out first.</p>
+ *
+ * @param <H> the type of handler a keyword resolves to
+ */
+public final class CommandRegistry<H> {
+    private final Node<H> root = new Node<>();
+    private final List<String> keywords = new ArrayList<>();
+
+    /**
+     * Registers a handler under a keyword and any number of aliases
+     * @param handler the handler the keyword and aliases resolve to
+     * @param keyword the main keyword
+     * @param aliases other words that resolve to the same handler
+     * @throws IllegalArgumentException if a word is blank, contains whitespace or is already registered, in
+     *         which case none of the words are registered
+     */
+    public void register(H handler, String keyword, String... aliases) {
+        assert handler != null : "Handler must not be null";
+        String[] words = new String[aliases.length + 1];
+        words[0] = keyword;
+        System.arraycopy(aliases, 0, words, 1, aliases.length);
+        for (int w = 0; w < words.length; w++) {
+            check(words, w);
+        }
+        for (String word : words) {
+            insert(word, handler);
+        }
+        keywords.add(keyword.toLowerCase());
+    }
+
+    /**
+     * Looks up a word, ignoring case
+     * @param word the word typed by the user
+     * @return the handler registered under the word, or null if there is none
+     */
+    public H lookup(String word) {
+        return word == null ? null : lookup(word, 0, word.length());
+    }
+
+    /**
+     * Looks up the word occupying a region of some text, ignoring case
+     * @param text the text holding the word
+     * @param from the index of the first character of the word
+     * @param to the index after the last character of the word
+     * @return the handler registered under the word, or null if there is none
+     */
+    public H lookup(CharSequence text, int from, int to) {
+        Node<H> node = root;
+        for (int i = from; i < to && node != null; i++) {
+            node = node.child(Character.toLowerCase(text.charAt(i)));
+        }
+        return node == null ? null : node.handler;
+    }
+
+    /**
+     * Lists the main keywords in the order they were registered, leaving out aliases
+     * @return the registered keywords, in lower case
+     */
+    public List<String> keywords() {
+        return List.copyOf(keywords);
+    }
+
+    /**
+     * Checks that a word may be registered: a single word, neither registered already nor repeated earlier
+     * among the words being registered with it.
+     */
+    private void check(String[] words, int w) {
+        String word = words[w];
+        if (word == null || word.isBlank() || word.chars().anyMatch(c -> c <= ' ')) {
+            throw new IllegalArgumentException("A command keyword must be a single word: '" + word + "'");
+        }
+        boolean isRepeated = false;
+        for (int earlier = 0; earlier < w; earlier++) {
+            isRepeated |= words[earlier].equalsIgnoreCase(word);
+        }
+        if (isRepeated || lookup(word) != null) {
+            throw new IllegalArgumentException("The command '" + word + "' is already registered");
+        }
+    }
+
+    private void insert(String word, H handler) {
+        Node<H> node = root;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.childOrNew(Character.toLowerCase(word.charAt(i)));
+        }
+        assert node.handler == null : "Word must have been checked";
+        node.handler = handler;
+    }
+
+    /**
+     * A trie node; children are kept in small parallel arrays since keywords share few prefixes.
+     */
+    private static final class Node<H> {
+        private char[] keys = new char[0];
+        private Object[] children = new Object[0];
+        private H handler;
+
+        @SuppressWarnings("unchecked")
+        Node<H> child(char c) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    return (Node<H>) children[i];
+                }
+            }
+            return null;
+        }
+
+        Node<H> childOrNew(char c) {
+            Node<H> child = child(c);
+            if (child == null) {
+                child = new Node<>();
+                int n = keys.length;
+                keys = Arrays.copyOf(keys, n + 1);
+                children = Arrays.copyOf(children, n + 1);
+                keys[n] = c;
+                children[n] = child;
+            }
+            return child;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package mumbo.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations in buckets whose width grows with the duration, so that any percentile can be read back
+ * to within {@value #PRECISION_PERCENT}% at a fixed cost in memory, however many durations are recorded.
+ *
+ * <p>Like HdrHistogram, durations below {@code 2^SUB_BITS} nanoseconds each have a bucket of their own, and
+ * every doubling above that is split into {@code 2^(SUB_BITS - 1)} buckets of equal width. Durations longer
+ * than {@link #MAX_NANOS} are counted as that. Recording takes no lock and may be done from any number of
+ * threads; reads made meanwhile see each recording either wholly or not at all, bucket by bucket.</p>
+ */
+public final class LatencyHistogram {
+    /** Worst relative error of a percentile read back, in percent */
+    public static final double PRECISION_PERCENT = 1.6;
+    /** Longest duration told apart from longer ones, about 18 minutes */
+    public static final long MAX_NANOS = (1L << 40) - 1;
+
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF_COUNT = SUB_COUNT / 2;
+    private static final int BUCKET_COUNT = bucketOf(MAX_NANOS) + 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records one duration
+     * @param nanos the duration in nanoseconds; negative durations count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_NANOS);
+        buckets.incrementAndGet(bucketOf(value));
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Counts the durations recorded
+     * @return the number of durations
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Adds up the durations recorded
+     * @return their sum, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Gets the longest duration recorded
+     * @return the longest duration in nanoseconds, or 0 if none has been recorded
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Gets the duration that a given fraction of the recorded durations do not exceed, by the nearest-rank
+     * method
+     * @param fraction between 0 and 1, e.g. 0.99 for the 99th percentile
+     * @return the upper end of the bucket holding that duration, in nanoseconds, but no more than the longest
+     *     duration recorded; 0 if none has been recorded
+     */
+    public long getPercentileNanos(double fraction) {
+        assert fraction >= 0 && fraction <= 1 : "Fraction must be between 0 and 1";
+        long total = 0;
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestOf(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Finds the bucket a duration is counted in
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1); // Leaves value >>> shift in the top half
+        return SUB_COUNT + (shift - 1) * HALF_COUNT + (int) (value >>> shift) - HALF_COUNT;
+    }
+
+    /**
+     * Gets the longest duration counted in a bucket
+     */
+    private static long highestOf(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_COUNT) / HALF_COUNT + 1;
+        long sub = (bucket - SUB_COUNT) % HALF_COUNT + HALF_COUNT;
+        return ((sub + 1) << shift) - 1;
+    }
+}
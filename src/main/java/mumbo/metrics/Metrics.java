@@ -0,0 +1,327 @@
+package mumbo.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import mumbo.command.Command;
+
+/**
+ * Keeps count of how long commands take and how much Mumbo reads and writes.
+ *
+ * <p>For every {@link Command}, a {@link LatencyHistogram} holds how long it took to answer, and one more per
+ * {@link Phase} holds how long it spent in that phase; a phase's histogram only counts the commands that
+ * passed through it, so a command that saved nothing adds nothing to its save times. Histograms are made
+ * when first needed. Alongside are counters of full saves, journal writes, bytes written, loads and search
+ * indexes built from scratch.</p>
+ *
+ * <p>Everything may be recorded and read from any thread. One set of metrics, {@link #global()}, is shared by
+ * every Mumbo in the program, so a server's figures cover all of its users. They can be written out in the
+ * Prometheus text format with {@link #writePrometheus(Writer)}, or to a file every so often with
+ * {@link #startExport(Path, long)}, which suits a node exporter's text file collector.</p>
+ */
+public final class Metrics {
+    /** Time between two exports to a file when no other is given, in milliseconds */
+    public static final long DEFAULT_EXPORT_INTERVAL_MILLIS = 10_000;
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999}; // Given for each histogram in exports
+    private static final Phase[] PHASES = Phase.values();
+    private static final Command[] COMMANDS = Command.values();
+    private static final int SLOTS = PHASES.length + 1; // A histogram per phase, then one for the whole command
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final Metrics GLOBAL = new Metrics(); // Last, as it needs the constants above
+
+    private final AtomicReferenceArray<LatencyHistogram> histograms =
+            new AtomicReferenceArray<>(COMMANDS.length * SLOTS);
+    private final LatencyHistogram loadTimes = new LatencyHistogram();
+    private final LongAdder fullSaves = new LongAdder();
+    private final LongAdder journalWrites = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder loadedTasks = new LongAdder();
+    private final LongAdder indexBuilds = new LongAdder();
+    private final long startMillis = System.currentTimeMillis();
+    private ScheduledExecutorService exporter; // Guarded by this
+    private Path exportFile; // Guarded by this
+
+    /**
+     * Creates an empty set of metrics; most code records into {@link #global()} instead
+     */
+    public Metrics() {
+    }
+
+    /**
+     * Gets the metrics shared by the whole program
+     * @return the shared metrics
+     */
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Records how long a command took, phase by phase
+     * @param command the command
+     * @param phaseNanos the time spent in each phase, indexed by {@link Phase#ordinal()}
+     * @param totalNanos the time taken in all
+     */
+    void recordCommand(Command command, long[] phaseNanos, long totalNanos) {
+        int base = command.ordinal() * SLOTS;
+        for (int p = 0; p < PHASES.length; p++) {
+            if (phaseNanos[p] > 0) {
+                histogram(base + p).record(phaseNanos[p]);
+            }
+        }
+        histogram(base + PHASES.length).record(totalNanos);
+    }
+
+    private LatencyHistogram histogram(int slot) {
+        LatencyHistogram h = histograms.get(slot);
+        if (h == null) {
+            histograms.compareAndSet(slot, null, new LatencyHistogram());
+            h = histograms.get(slot);
+        }
+        return h;
+    }
+
+    /**
+     * Gets how long a command has taken to answer
+     * @param command the command
+     * @return the histogram, or null if the command has not been answered
+     */
+    public LatencyHistogram getLatency(Command command) {
+        return histograms.get(command.ordinal() * SLOTS + PHASES.length);
+    }
+
+    /**
+     * Gets how long a command has spent in one phase
+     * @param command the command
+     * @param phase the phase
+     * @return the histogram, or null if the command has not passed through the phase
+     */
+    public LatencyHistogram getLatency(Command command, Phase phase) {
+        return histograms.get(command.ordinal() * SLOTS + phase.ordinal());
+    }
+
+    /**
+     * Counts a write of a whole task list
+     * @param bytes the size of what was written
+     */
+    public void countFullSave(long bytes) {
+        fullSaves.increment();
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * Counts a write of journal records
+     * @param bytes the size of what was written
+     */
+    public void countJournalWrite(long bytes) {
+        journalWrites.increment();
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * Records the loading of a task list
+     * @param nanos how long it took
+     * @param taskCount how many tasks were loaded
+     */
+    public void recordLoad(long nanos, int taskCount) {
+        loadTimes.record(nanos);
+        loadedTasks.add(taskCount);
+    }
+
+    /**
+     * Counts the building of a search index over a whole task list
+     */
+    public void countIndexBuild() {
+        indexBuilds.increment();
+    }
+
+    /**
+     * Counts the writes of whole task lists, including those made in the background
+     * @return the number of full saves
+     */
+    public long getFullSaves() {
+        return fullSaves.sum();
+    }
+
+    /**
+     * Counts the writes of journal records
+     * @return the number of journal writes
+     */
+    public long getJournalWrites() {
+        return journalWrites.sum();
+    }
+
+    /**
+     * Adds up the bytes of every full save and journal write
+     * @return the number of bytes written
+     */
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * Gets how long task lists have taken to load; its count is the number of lists loaded
+     * @return the histogram of load times
+     */
+    public LatencyHistogram getLoadLatency() {
+        return loadTimes;
+    }
+
+    /**
+     * Counts the tasks loaded, over all lists
+     * @return the number of tasks loaded
+     */
+    public long getLoadedTasks() {
+        return loadedTasks.sum();
+    }
+
+    /**
+     * Counts the search indexes built over whole task lists; once built, an index is kept up to date as its
+     * list changes, so this only grows as lists are loaded and first searched
+     * @return the number of indexes built
+     */
+    public long getIndexBuilds() {
+        return indexBuilds.sum();
+    }
+
+    /**
+     * Gets when counting began
+     * @return the time the metrics were created, in milliseconds since the epoch
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format
+     * @param out where to write them; it is not closed
+     * @throws IOException if writing fails
+     */
+    public void writePrometheus(Writer out) throws IOException {
+        out.write("# HELP mumbo_command_duration_seconds Time taken to answer commands, by command and phase.\n");
+        out.write("# TYPE mumbo_command_duration_seconds summary\n");
+        for (Command command : COMMANDS) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                LatencyHistogram h = histograms.get(command.ordinal() * SLOTS + slot);
+                if (h != null) {
+                    String phase = slot < PHASES.length ? PHASES[slot].label() : "total";
+                    String labels = "command=\"" + command.name().toLowerCase(Locale.ROOT)
+                            + "\",phase=\"" + phase + "\"";
+                    writeSummary(out, "mumbo_command_duration_seconds", labels, h);
+                }
+            }
+        }
+        out.write("# HELP mumbo_load_duration_seconds Time taken to load a task list.\n");
+        out.write("# TYPE mumbo_load_duration_seconds summary\n");
+        writeSummary(out, "mumbo_load_duration_seconds", "", loadTimes);
+        writeCounter(out, "mumbo_loaded_tasks_total", "Tasks loaded, over all task lists.", getLoadedTasks());
+        writeCounter(out, "mumbo_full_saves_total", "Writes of a whole task list.", getFullSaves());
+        writeCounter(out, "mumbo_journal_writes_total", "Writes of journal records.", getJournalWrites());
+        writeCounter(out, "mumbo_written_bytes_total", "Bytes written by saves and journal writes.",
+                getBytesWritten());
+        writeCounter(out, "mumbo_index_builds_total", "Search indexes built over a whole task list.",
+                getIndexBuilds());
+        out.write("# HELP mumbo_start_time_seconds When the counting began, in seconds since the epoch.\n");
+        out.write("# TYPE mumbo_start_time_seconds gauge\n");
+        out.write("mumbo_start_time_seconds " + startMillis / 1000 + "\n");
+    }
+
+    private static void writeSummary(Writer out, String name, String labels, LatencyHistogram h) throws IOException {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        for (double q : QUANTILES) {
+            out.write(name + "{" + prefix + "quantile=\"" + q + "\"} "
+                    + seconds(h.getPercentileNanos(q)) + "\n");
+        }
+        String suffix = labels.isEmpty() ? " " : "{" + labels + "} ";
+        out.write(name + "_sum" + suffix + seconds(h.getTotalNanos()) + "\n");
+        out.write(name + "_count" + suffix + h.getCount() + "\n");
+    }
+
+    private static void writeCounter(Writer out, String name, String help, long value) throws IOException {
+        out.write("# HELP " + name + " " + help + "\n");
+        out.write("# TYPE " + name + " counter\n");
+        out.write(name + " " + value + "\n");
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Writes every metric to a file in the Prometheus text format, replacing the file in one step so that a
+     * reader never sees it half written
+     * @param file the file
+     * @throws IOException if the file cannot be written
+     */
+    public void export(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writePrometheus(out);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Exports the metrics to a file now and then every interval after, from a background thread, until
+     * {@link #stopExport()}
+     * @param file the file
+     * @param intervalMillis the time between two exports, in milliseconds
+     */
+    public synchronized void startExport(Path file, long intervalMillis) {
+        assert file != null : "Export file must not be null";
+        assert intervalMillis > 0 : "Export interval must be positive";
+        assert exporter == null : "Metrics are already being exported";
+        exportFile = file;
+        exporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "mumbo-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        exporter.scheduleWithFixedDelay(() -> {
+            try {
+                export(file);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("An error occurred while exporting metrics.");
+                e.printStackTrace(); // Caught so that later runs are still scheduled
+            }
+        }, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops exporting in the background and exports once more, so the file holds the final figures.
+     * Does nothing if no export was started.
+     */
+    public synchronized void stopExport() {
+        if (exporter == null) {
+            return;
+        }
+        exporter.shutdown();
+        try {
+            exporter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        exporter = null;
+        try {
+            export(exportFile);
+        } catch (IOException e) {
+            System.out.println("An error occurred while exporting metrics.");
+            e.printStackTrace();
+        }
+    }
+}
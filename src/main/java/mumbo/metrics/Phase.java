@@ -0,0 +1,23 @@
+package mumbo.metrics;
+
+import java.util.Locale;
+
+/**
+ * The stages a command passes through while Mumbo answers it.
+ * PARSE: reading the input, which also checks it and reads its dates, all in one pass
+ * WAIT: waiting for other commands to finish changing the list
+ * EXECUTE: carrying the command out on the task list
+ * FORMAT: writing out lists of tasks for the reply
+ * SAVE: writing changes to storage
+ */
+public enum Phase {
+    PARSE, WAIT, EXECUTE, FORMAT, SAVE;
+
+    /**
+     * Returns the name the phase is exported under.
+     * @return the name, in lower case
+     */
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,94 @@
+package mumbo.metrics;
+
+import java.util.Arrays;
+
+import mumbo.command.Command;
+
+/**
+ * Splits the time one thread spends on a command between the {@link Phase}s it passes through.
+ *
+ * <p>Each thread has one timer. The code answering a command starts it, moves it from phase to phase, and
+ * stops it, which records every phase's time and the whole command's in {@link Metrics}. Code deeper down,
+ * such as saving or formatting, marks its own phase with {@link #enterPhase(Phase)} and
+ * {@link #exitPhase(Phase)} without being handed the timer; outside a command these do nothing. A command
+ * started while another is being timed on the same thread, e.g. by a plugin, is counted as part of it.</p>
+ */
+public final class PhaseTimer {
+    private static final ThreadLocal<PhaseTimer> CURRENT = ThreadLocal.withInitial(PhaseTimer::new);
+
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private int depth = 0; // Commands started on this thread and not yet stopped
+    private Phase phase;
+    private long startNanos;
+    private long phaseStartNanos;
+
+    private PhaseTimer() {
+    }
+
+    /**
+     * Starts timing a command on this thread
+     * @param first the phase the command starts in
+     * @return the thread's timer, to be stopped once the command is answered
+     */
+    public static PhaseTimer start(Phase first) {
+        PhaseTimer timer = CURRENT.get();
+        if (timer.depth++ == 0) {
+            Arrays.fill(timer.phaseNanos, 0);
+            timer.phase = first;
+            timer.startNanos = System.nanoTime();
+            timer.phaseStartNanos = timer.startNanos;
+        }
+        return timer;
+    }
+
+    /**
+     * Moves this thread's command into a phase, if a command is being timed
+     * @param next the phase entered
+     * @return the phase left, to be handed to {@link #exitPhase(Phase)}; null if no command is being timed
+     */
+    public static Phase enterPhase(Phase next) {
+        return CURRENT.get().enter(next);
+    }
+
+    /**
+     * Moves this thread's command back into the phase it was in before {@link #enterPhase(Phase)}
+     * @param previous the phase returned by {@link #enterPhase(Phase)}
+     */
+    public static void exitPhase(Phase previous) {
+        if (previous != null) {
+            CURRENT.get().enter(previous);
+        }
+    }
+
+    /**
+     * Moves the command into a phase
+     * @param next the phase entered
+     * @return the phase left, or null if no command is being timed
+     */
+    public Phase enter(Phase next) {
+        if (depth == 0) {
+            return null;
+        }
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] += now - phaseStartNanos;
+        Phase previous = phase;
+        phase = next;
+        phaseStartNanos = now;
+        return previous;
+    }
+
+    /**
+     * Stops timing the command and records its phases, unless it ran within another command
+     * @param metrics where to record the times
+     * @param command the command that was answered
+     */
+    public void stop(Metrics metrics, Command command) {
+        assert depth > 0 : "Timer was not started";
+        if (--depth > 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] += now - phaseStartNanos;
+        metrics.recordCommand(command, phaseNanos, now - startNanos);
+    }
+}
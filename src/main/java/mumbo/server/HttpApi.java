@@ -0,0 +1,497 @@
+package mumbo.server;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import mumbo.app.Mumbo;
+import mumbo.exception.MumboException;
+import mumbo.metrics.Metrics;
+import mumbo.task.Deadline;
+import mumbo.task.Event;
+import mumbo.task.Task;
+import mumbo.task.TaskList;
+import mumbo.task.Todo;
+import mumbo.userinput.DateParseResult;
+import mumbo.userinput.DateTimeUtil;
+import mumbo.userinput.Parser;
+
+/**
+ * Serves one {@link Mumbo}'s tasks as JSON over HTTP, so that other programs can read and change them
+ * without reading chat messages.
+ *
+ * <p>Routes, all under {@value #CONTEXT}:</p>
+ * <ul>
+ *   <li>{@code GET /tasks} lists the tasks in list order; {@code ?find=<keyword>} keeps only those that
+ *   {@code find} would show, and {@code ?page=<n>&size=<n>} picks one page of them. The reply is
+ *   {@code {"version": ..., "count": ..., "tasks": [...]}} and is streamed as it is written, so a long list
+ *   is never held in memory twice.</li>
+ *   <li>{@code GET /tasks/<id>} gets one task.</li>
+ *   <li>{@code POST /tasks} adds a task from {@code {"type": "todo", "description": ...}}, with
+ *   {@code "by"} for a deadline, or {@code "from"} and {@code "to"} for an event. Dates are in ISO-8601 or
+ *   any format the chat accepts. The reply is the task as added, with status 201.</li>
+ *   <li>{@code PATCH /tasks/<id>} with {@code {"done": true}} or {@code {"done": false}} marks or unmarks
+ *   the task, and {@code DELETE /tasks/<id>} deletes it. Both reply with the task.</li>
+ * </ul>
+ *
+ * <p>Tasks are written as {@link Json} describes. Errors are replied to with a status of 400, 404, 405 or
+ * 413 and {@code {"error": <message>}}.</p>
+ *
+ * <p>Caching: every {@code GET} reply carries an ETag naming the version of the list it was read from,
+ * and a request whose {@code If-None-Match} names the list's current version is answered with 304 Not
+ * Modified and no body. A client that polls the list therefore only downloads it again once it has
+ * changed. The ETags also name the time the API started, so they are never reused after a restart.</p>
+ *
+ * <p>Reads are answered from {@link Mumbo#snapshot()} without locking, searches by {@link Mumbo#find(String)}
+ * from the list's up-to-date index, and changes go through {@link Mumbo#addTask(Task)},
+ * {@link Mumbo#markTask(int, boolean)} and {@link Mumbo#deleteTask(int)}, so the API may share its Mumbo
+ * with the GUI or a {@link MumboServer}. Requests are handled on a fixed pool of threads.</p>
+ *
+ * <pre>
+ * java -cp mumbo.jar mumbo.server.HttpApi [--port &lt;n&gt;] [--store &lt;file&gt;] [--threads &lt;n&gt;]
+ *         [--save-interval &lt;ms&gt;] [--metrics-file &lt;path&gt;]
+ * </pre>
+ */
+public class HttpApi implements AutoCloseable {
+    /** Port listened on when none is given */
+    public static final int DEFAULT_PORT = 4322;
+    /** Path the routes are found under */
+    public static final String CONTEXT = "/tasks";
+
+    private static final String USAGE = "Usage: HttpApi [--port <n>] [--store <file>] [--threads <n>] "
+            + "[--save-interval <ms>] [--metrics-file <path>]";
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int WRITE_BUFFER_CHARS = 16 * 1024;
+    private static final int CLOSE_DELAY_SECONDS = 1;
+
+    private final Mumbo mumbo;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36); // Keeps ETags unique per run
+    private boolean isRunning = false;
+
+    /**
+     * Opens the API on a local address; it does not answer requests until {@link #start()}
+     * @param mumbo the chatbot whose tasks are served
+     * @param address the address to listen on; port 0 picks a free port
+     * @param threadCount the number of threads requests are handled on
+     * @throws IOException if the address cannot be bound
+     */
+    public HttpApi(Mumbo mumbo, InetSocketAddress address, int threadCount) throws IOException {
+        assert mumbo != null : "Mumbo must not be null";
+        assert address != null : "Address must not be null";
+        assert threadCount > 0 : "There must be at least one thread";
+        this.mumbo = mumbo;
+        this.server = HttpServer.create(address, 0);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threadCount, r -> {
+            Thread t = new Thread(r, "mumbo-http-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.server.setExecutor(executor);
+        this.server.createContext(CONTEXT, this::handle);
+    }
+
+    /**
+     * Entry point for serving a task list over HTTP without a window; runs until the process is stopped.
+     * @param args command line options
+     */
+    public static void main(String... args) {
+        int port = DEFAULT_PORT;
+        String store = "mumbo-tasks.txt";
+        int threadCount = Runtime.getRuntime().availableProcessors() * 4;
+        long saveInterval = 0;
+        String metricsFile = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--store":
+                    store = args[++i];
+                    break;
+                case "--threads":
+                    threadCount = Integer.parseInt(args[++i]);
+                    break;
+                case "--save-interval":
+                    saveInterval = Long.parseLong(args[++i]);
+                    break;
+                case "--metrics-file":
+                    metricsFile = args[++i];
+                    break;
+                default:
+                    System.out.println(USAGE);
+                    return;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            System.out.println(USAGE);
+            return;
+        }
+        if (port < 0 || store.isBlank() || threadCount < 1 || saveInterval < 0) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        Mumbo mumbo = new Mumbo(store, saveInterval == 0);
+        if (saveInterval > 0) {
+            mumbo.startWriteBehind(saveInterval);
+        }
+        if (metricsFile != null) {
+            Metrics.global().startExport(Paths.get(metricsFile), Metrics.DEFAULT_EXPORT_INTERVAL_MILLIS);
+        }
+        try {
+            HttpApi api = new HttpApi(mumbo, new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                    threadCount);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                api.close();
+                mumbo.shutdown();
+                Metrics.global().stopExport();
+            }, "mumbo-http-close"));
+            api.start();
+            System.out.println("Mumbo is serving " + store + " at http://" + hostAndPort(api.getAddress())
+                    + CONTEXT + ".");
+        } catch (IOException e) {
+            System.out.println("An error occurred while starting the HTTP API.");
+            e.printStackTrace();
+        }
+    }
+
+    private static String hostAndPort(InetSocketAddress address) {
+        return address.getAddress().getHostAddress() + ":" + address.getPort();
+    }
+
+    /**
+     * Starts answering requests
+     */
+    public synchronized void start() {
+        assert !isRunning : "HTTP API is already running";
+        isRunning = true;
+        server.start();
+    }
+
+    /**
+     * Gets the address the API listens on
+     * @return the address, with the port filled in if port 0 was asked for
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops taking requests, gives those being answered a moment to finish, and stops the threads.
+     * The Mumbo is left open.
+     */
+    @Override
+    public synchronized void close() {
+        if (!isRunning) {
+            return;
+        }
+        isRunning = false;
+        server.stop(CLOSE_DELAY_SECONDS);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(CLOSE_DELAY_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String rest = path.substring(CONTEXT.length());
+            if (rest.isEmpty() || rest.equals("/")) {
+                handleTasks(exchange);
+            } else if (rest.matches("/[1-9][0-9]{0,8}/?")) {
+                handleTask(exchange, Integer.parseInt(rest.replace("/", "")));
+            } else {
+                sendError(exchange, 404, "There is nothing at " + path + ", I'm afraid.");
+            }
+        } catch (TooLargeException e) {
+            sendError(exchange, 413, e.getMessage());
+        } catch (MumboException e) {
+            sendError(exchange, 400, e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleTasks(HttpExchange exchange) throws IOException {
+        switch (exchange.getRequestMethod()) {
+        case "GET":
+            listTasks(exchange);
+            break;
+        case "POST":
+            Task added = mumbo.addTask(toTask(readBody(exchange)));
+            exchange.getResponseHeaders().set("Location", CONTEXT + "/" + added.getId());
+            sendTask(exchange, 201, added);
+            break;
+        default:
+            sendNotAllowed(exchange, "GET, POST");
+            break;
+        }
+    }
+
+    private void handleTask(HttpExchange exchange, int id) throws IOException {
+        switch (exchange.getRequestMethod()) {
+        case "GET":
+            TaskList list = mumbo.snapshot();
+            Task task = list.contains(id) ? list.getById(id) : null;
+            if (task == null) {
+                sendNoSuchTask(exchange, id);
+            } else if (!isModified(exchange, list)) {
+                sendNotModified(exchange);
+            } else {
+                exchange.getResponseHeaders().set("ETag", etag(list));
+                exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+                sendTask(exchange, 200, task);
+            }
+            break;
+        case "PATCH":
+            Map<String, Object> body = readBody(exchange);
+            if (!(body.get("done") instanceof Boolean)) {
+                throw new MumboException("Pray say whether the task is done, for example: {\"done\": true}");
+            }
+            try {
+                sendTask(exchange, 200, mumbo.markTask(id, (Boolean) body.get("done")));
+            } catch (MumboException e) {
+                sendNoSuchTask(exchange, id);
+            }
+            break;
+        case "DELETE":
+            try {
+                sendTask(exchange, 200, mumbo.deleteTask(id));
+            } catch (MumboException e) {
+                sendNoSuchTask(exchange, id);
+            }
+            break;
+        default:
+            sendNotAllowed(exchange, "GET, PATCH, DELETE");
+            break;
+        }
+    }
+
+    /**
+     * Streams the tasks, or a page of those matching a keyword, unless the client already has them.
+     */
+    private void listTasks(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI());
+        TaskList list = mumbo.snapshot();
+        if (!isModified(exchange, list)) {
+            sendNotModified(exchange);
+            return;
+        }
+        String keyword = query.get("find");
+        if (keyword != null && keyword.isBlank()) {
+            throw new MumboException("Do kindly specify a keyword to search for.");
+        }
+        // The search may see a later version than the snapshot did; the reply names the version it shows
+        TaskList shown = keyword == null ? list : mumbo.find(keyword);
+        int from = 0;
+        int to = shown.size();
+        if (query.containsKey("page") || query.containsKey("size")) {
+            int page = toPositiveInt(query.getOrDefault("page", "1"));
+            int size = toPositiveInt(query.getOrDefault("size", Integer.toString(Parser.DEFAULT_PAGE_SIZE)));
+            from = (int) Math.min((long) (page - 1) * size, shown.size());
+            to = (int) Math.min((long) from + size, shown.size());
+        }
+
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", JSON_TYPE);
+        headers.set("ETag", etag(shown));
+        headers.set("Cache-Control", "no-cache"); // Always check back, which costs a 304 if nothing changed
+        exchange.sendResponseHeaders(200, 0); // Chunked, written as the tasks are
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(),
+                StandardCharsets.UTF_8), WRITE_BUFFER_CHARS)) {
+            out.write("{\"version\":");
+            out.write(Long.toString(shown.getVersion()));
+            out.write(",\"count\":");
+            out.write(Integer.toString(to - from));
+            out.write(",\"tasks\":[");
+            for (int i = from; i < to; i++) {
+                if (i > from) {
+                    out.write(',');
+                }
+                Json.writeTask(out, shown.get(i));
+            }
+            out.write("]}");
+        }
+    }
+
+    private static int toPositiveInt(String s) {
+        try {
+            int n = Integer.parseInt(s.trim());
+            if (n > 0) {
+                return n;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the message below
+        }
+        throw new MumboException("The page and page size ought to be positive integers (1, 2, 3, ...).");
+    }
+
+    /**
+     * Builds the task a {@code POST} body describes.
+     */
+    private static Task toTask(Map<String, Object> body) {
+        Object type = body.get("type");
+        Object description = body.get("description");
+        if (!(description instanceof String) || ((String) description).isBlank()) {
+            throw new MumboException("I'm afraid the description cannot be empty.");
+        }
+        String text = ((String) description).trim();
+        if ("todo".equals(type)) {
+            return new Todo(text);
+        } else if ("deadline".equals(type)) {
+            return new Deadline(text, toDateTime(body, "by"));
+        } else if ("event".equals(type)) {
+            LocalDateTime start = toDateTime(body, "from");
+            LocalDateTime end = toDateTime(body, "to");
+            if (end.isBefore(start)) {
+                throw new MumboException("The event cannot conclude before it begins, I'm afraid.");
+            }
+            return new Event(text, start, end);
+        }
+        throw new MumboException("Pray give the task's type: \"todo\", \"deadline\" or \"event\".");
+    }
+
+    private static LocalDateTime toDateTime(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof String) || ((String) value).isBlank()) {
+            throw new MumboException("Pray specify \"" + name + "\" as a date, for example: \"2025-12-31T18:00\"");
+        }
+        String s = ((String) value).trim();
+        DateParseResult result = DateTimeUtil.tryParse(s); // The chat's formats first, then ISO-8601
+        if (result.isValid()) {
+            return result.get();
+        }
+        try {
+            return s.indexOf('T') < 0 ? LocalDate.parse(s).atStartOfDay() : LocalDateTime.parse(s);
+        } catch (DateTimeParseException e) {
+            throw new MumboException("That date appears to be invalid: " + s);
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new TooLargeException();
+            }
+            return Json.parseObject(new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Signals a request body larger than {@value #MAX_BODY_BYTES} bytes, which is replied to with 413.
+     */
+    private static final class TooLargeException extends MumboException {
+        private static final long serialVersionUID = 1L;
+
+        TooLargeException() {
+            super("That request is rather too large, I'm afraid.");
+        }
+    }
+
+    private static Map<String, String> parseQuery(URI uri) {
+        Map<String, String> query = new HashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return query;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private String etag(TaskList list) {
+        return "\"" + epoch + "-" + list.getVersion() + "\"";
+    }
+
+    /**
+     * Tells whether the client's copy, named by If-None-Match, is not of the list's current version.
+     */
+    private boolean isModified(HttpExchange exchange, TaskList list) {
+        String etag = etag(list);
+        for (String header : exchange.getRequestHeaders().getOrDefault("If-None-Match", List.of())) {
+            for (String tag : header.split(",")) {
+                String t = tag.trim();
+                if (t.startsWith("W/")) {
+                    t = t.substring(2); // A weak match is enough for a GET
+                }
+                if (t.equals("*") || t.equals(etag)) {
+                    exchange.getResponseHeaders().set("ETag", etag);
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void sendNotModified(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(304, -1);
+    }
+
+    private static void sendTask(HttpExchange exchange, int status, Task task) throws IOException {
+        Writer json = new StringWriter();
+        Json.writeTask(json, task);
+        send(exchange, status, json.toString());
+    }
+
+    private static void sendNoSuchTask(HttpExchange exchange, int id) throws IOException {
+        sendError(exchange, 404, "I'm afraid there is no task numbered " + id + ".");
+    }
+
+    private static void sendNotAllowed(HttpExchange exchange, String allowed) throws IOException {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        sendError(exchange, 405, "That cannot be done to " + exchange.getRequestURI().getPath() + ".");
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        Writer json = new StringWriter();
+        json.write("{\"error\":");
+        Json.writeString(json, message);
+        json.write('}');
+        send(exchange, status, json.toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+}
@@ -0,0 +1,253 @@
+package mumbo.server;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import mumbo.exception.MumboException;
+import mumbo.task.Deadline;
+import mumbo.task.Event;
+import mumbo.task.Task;
+import mumbo.userinput.DateTimeUtil;
+
+/**
+ * Writes tasks as JSON and reads the flat JSON objects that clients send.
+ *
+ * <p>A task is written as an object with its {@code id}, {@code type} ({@code todo}, {@code deadline} or
+ * {@code event}), {@code description}, {@code done} and {@code tags}, and with {@code by}, or {@code from}
+ * and {@code to}, as ISO-8601 date-times for the types that have them. Only objects of strings, numbers,
+ * booleans and nulls are read, which is all a request needs.</p>
+ */
+final class Json {
+    private Json() {
+    }
+
+    /**
+     * Writes a task as a JSON object
+     * @param out where to write it
+     * @param t the task
+     * @throws IOException if writing fails
+     */
+    static void writeTask(Writer out, Task t) throws IOException {
+        out.write("{\"id\":");
+        out.write(Integer.toString(t.getId()));
+        out.write(",\"type\":\"");
+        out.write(t.getType().name().toLowerCase(Locale.ROOT));
+        out.write("\",\"description\":");
+        writeString(out, t.getDescription());
+        out.write(",\"done\":");
+        out.write(Boolean.toString(t.isDone()));
+        out.write(",\"tags\":[");
+        List<String> tags = t.getTags();
+        for (int i = 0; i < tags.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeString(out, tags.get(i));
+        }
+        out.write(']');
+        if (t instanceof Deadline) {
+            out.write(",\"by\":\"");
+            out.write(DateTimeUtil.iso(((Deadline) t).getDeadline()));
+            out.write('"');
+        } else if (t instanceof Event) {
+            out.write(",\"from\":\"");
+            out.write(DateTimeUtil.iso(((Event) t).getStart()));
+            out.write("\",\"to\":\"");
+            out.write(DateTimeUtil.iso(((Event) t).getEnd()));
+            out.write('"');
+        }
+        out.write('}');
+    }
+
+    /**
+     * Writes a string as a JSON string literal, escaping quotes, backslashes and control characters
+     * @param out where to write it
+     * @param s the string
+     * @throws IOException if writing fails
+     */
+    static void writeString(Writer out, String s) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= ' ' && c != '"' && c != '\\') {
+                continue;
+            }
+            out.write(s, start, i - start);
+            switch (c) {
+            case '"':
+                out.write("\\\"");
+                break;
+            case '\\':
+                out.write("\\\\");
+                break;
+            case '\n':
+                out.write("\\n");
+                break;
+            case '\r':
+                out.write("\\r");
+                break;
+            case '\t':
+                out.write("\\t");
+                break;
+            default:
+                out.write(String.format("\\u%04x", (int) c));
+                break;
+            }
+            start = i + 1;
+        }
+        out.write(s, start, s.length() - start);
+        out.write('"');
+    }
+
+    /**
+     * Reads a JSON object whose values are all strings, numbers, booleans or nulls
+     * @param text the JSON text
+     * @return the object's members in the order given; numbers are read as {@link Double}
+     * @throws MumboException if the text is not such an object
+     */
+    static Map<String, Object> parseObject(String text) {
+        return new Reader(text).readObject();
+    }
+
+    /**
+     * Reads one JSON object from a string, left to right.
+     */
+    private static final class Reader {
+        private final String text;
+        private int pos = 0;
+
+        private Reader(String text) {
+            this.text = text;
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> members = new LinkedHashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                pos++;
+            } else {
+                do {
+                    String name = readString();
+                    expect(':');
+                    members.put(name, readValue());
+                } while (next() == ',');
+                pos--;
+                expect('}');
+            }
+            if (peek() != 0) {
+                throw error();
+            }
+            return members;
+        }
+
+        private Object readValue() {
+            char c = peek();
+            if (c == '"') {
+                return readString();
+            }
+            if (text.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            if (text.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            int start = pos;
+            while (pos < text.length() && "+-.0123456789eE".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            try {
+                return Double.valueOf(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error(); // Also an object or array, which requests never need
+            }
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    break;
+                }
+                char e = text.charAt(pos++);
+                switch (e) {
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'u':
+                    if (pos + 4 > text.length()) {
+                        throw error();
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException ex) {
+                        throw error();
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    sb.append(e); // '"', '\\' and '/'
+                    break;
+                }
+            }
+            throw error();
+        }
+
+        private void expect(char c) {
+            if (next() != c) {
+                throw error();
+            }
+        }
+
+        /**
+         * Skips whitespace and returns the next character without taking it, or 0 at the end
+         */
+        private char peek() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private MumboException error() {
+            return new MumboException("That is not a JSON object I can read (near character " + pos + ").");
+        }
+    }
+}
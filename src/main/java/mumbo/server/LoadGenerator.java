@@ -0,0 +1,307 @@
+package mumbo.server;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Measures how quickly a {@link MumboServer} answers many clients at once.
+ *
+ * <p>Opens a number of sessions, signs each in as one of a smaller number of users, and has every session
+ * send its commands one after another, each as soon as the reply to the one before has arrived. Three in
+ * five commands list the first page of tasks, one in five searches them and one in five adds a task. The
+ * time from sending a command to receiving the end of its reply is recorded, and the median (p50) and 99th
+ * percentile (p99) are reported for reads, for writes and overall. All sessions are driven from one thread
+ * with a selector. Without {@code --port} or {@code --socket}, a server is started in this process on a
+ * free port, with the given save interval and limits on the task lists it holds, and how often it had to
+ * load lists is reported as well.</p>
+ *
+ * <p>The users are named {@code load-1}, {@code load-2}, ... and their tasks are kept, like any user's, in
+ * the 'data' directory.</p>
+ *
+ * <pre>
+ * java -cp mumbo.jar mumbo.server.LoadGenerator [--port &lt;n&gt; | --socket &lt;path&gt;] [--sessions &lt;n&gt;]
+ *         [--users &lt;n&gt;] [--commands &lt;n&gt;] [--save-interval &lt;ms&gt;] [--max-users &lt;n&gt;]
+ *         [--max-tasks &lt;n&gt;]
+ * </pre>
+ */
+public class LoadGenerator {
+    private static final String USAGE = "Usage: LoadGenerator [--port <n> | --socket <path>] [--sessions <n>] "
+            + "[--users <n>] [--commands <n>] [--save-interval <ms>] [--max-users <n>] [--max-tasks <n>]";
+    private static final int INITIAL_BUFFER_BYTES = 16 * 1024;
+
+    private final SocketAddress address;
+    private final int sessionCount;
+    private final int userCount;
+    private final int commandCount;
+    private final long[] readNanos;
+    private final long[] writeNanos;
+    private int reads = 0;
+    private int writes = 0;
+    private int finished = 0;
+
+    /**
+     * Creates a load generator
+     * @param address the server's address
+     * @param sessionCount the number of sessions to open at once
+     * @param userCount the number of users the sessions are spread over
+     * @param commandCount the number of commands each session sends
+     */
+    public LoadGenerator(SocketAddress address, int sessionCount, int userCount, int commandCount) {
+        assert address != null : "Address must not be null";
+        assert sessionCount > 0 && userCount > 0 && commandCount > 0 : "Counts must be positive";
+        this.address = address;
+        this.sessionCount = sessionCount;
+        this.userCount = userCount;
+        this.commandCount = commandCount;
+        this.readNanos = new long[sessionCount * commandCount];
+        this.writeNanos = new long[sessionCount * commandCount];
+    }
+
+    /**
+     * Entry point for the load generator.
+     * @param args command line options
+     */
+    public static void main(String... args) {
+        int port = -1;
+        String socket = null;
+        int sessions = 1000;
+        int users = 100;
+        int commands = 20;
+        long saveInterval = 0;
+        int maxUsers = MumboServer.DEFAULT_MAX_USERS;
+        long maxTasks = MumboServer.DEFAULT_MAX_TASKS;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--socket":
+                    socket = args[++i];
+                    break;
+                case "--sessions":
+                    sessions = Integer.parseInt(args[++i]);
+                    break;
+                case "--users":
+                    users = Integer.parseInt(args[++i]);
+                    break;
+                case "--commands":
+                    commands = Integer.parseInt(args[++i]);
+                    break;
+                case "--save-interval":
+                    saveInterval = Long.parseLong(args[++i]);
+                    break;
+                case "--max-users":
+                    maxUsers = Integer.parseInt(args[++i]);
+                    break;
+                case "--max-tasks":
+                    maxTasks = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    System.out.println(USAGE);
+                    return;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            System.out.println(USAGE);
+            return;
+        }
+        if (sessions < 1 || users < 1 || commands < 1 || saveInterval < 0 || maxUsers < 1 || maxTasks < 1) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        MumboServer embedded = null;
+        try {
+            SocketAddress address;
+            if (socket != null) {
+                address = UnixDomainSocketAddress.of(socket);
+            } else if (port >= 0) {
+                address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+            } else {
+                embedded = new MumboServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                        Runtime.getRuntime().availableProcessors() * 4, saveInterval, maxUsers, maxTasks);
+                embedded.start();
+                address = embedded.getAddress();
+            }
+            new LoadGenerator(address, sessions, users, commands).run(System.out);
+            if (embedded != null) {
+                System.out.println("  users  " + embedded.getUsers().describe());
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred while generating load.");
+            e.printStackTrace();
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+
+    /**
+     * Connects every session, runs all their commands and prints the latencies seen
+     * @param out where the summary is printed
+     * @throws IOException if a session cannot connect or loses its connection
+     */
+    public void run(PrintStream out) throws IOException {
+        try (Selector selector = Selector.open()) {
+            Client[] clients = new Client[sessionCount];
+            for (int i = 0; i < sessionCount; i++) {
+                SocketChannel channel = address instanceof UnixDomainSocketAddress
+                        ? SocketChannel.open(StandardProtocolFamily.UNIX)
+                        : SocketChannel.open();
+                channel.connect(address);
+                channel.configureBlocking(false);
+                if (address instanceof InetSocketAddress) {
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                }
+                clients[i] = new Client(i, channel);
+                clients[i].key = channel.register(selector, SelectionKey.OP_READ, clients[i]);
+            }
+            long startNanos = System.nanoTime();
+            while (finished < sessionCount) {
+                selector.select();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    Client client = (Client) key.attachment();
+                    if (key.isValid() && key.isReadable()) {
+                        client.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        client.write();
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+            printSummary(out, System.nanoTime() - startNanos);
+            for (Client client : clients) {
+                client.channel.close();
+            }
+        }
+    }
+
+    private void printSummary(PrintStream out, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        int total = reads + writes;
+        long[] all = Arrays.copyOf(readNanos, total);
+        System.arraycopy(writeNanos, 0, all, reads, writes);
+        out.printf("%d session(s) as %d user(s) ran %d command(s) in %.3f s (%.0f commands/s).%n",
+                sessionCount, Math.min(userCount, sessionCount), total, seconds, total / seconds);
+        printLatencies(out, "reads", Arrays.copyOf(readNanos, reads));
+        printLatencies(out, "writes", Arrays.copyOf(writeNanos, writes));
+        printLatencies(out, "all", all);
+    }
+
+    private static void printLatencies(PrintStream out, String label, long[] nanos) {
+        if (nanos.length == 0) {
+            return;
+        }
+        Arrays.sort(nanos);
+        out.printf("  %-6s p50 %8.3f ms   p99 %8.3f ms   max %8.3f ms%n", label,
+                percentile(nanos, 0.50) / 1e6, percentile(nanos, 0.99) / 1e6, nanos[nanos.length - 1] / 1e6);
+    }
+
+    /**
+     * Picks a percentile from sorted values by the nearest-rank method
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    /**
+     * One session: waits for the greeting, signs in, then sends its commands one at a time.
+     */
+    private final class Client {
+        private final int number;
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private ByteBuffer in = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+        private ByteBuffer out;
+        private int replies = 0; // Including the greeting and the reply to signing in
+        private long sentNanos;
+        private boolean isWrite;
+
+        private Client(int number, SocketChannel channel) {
+            this.number = number;
+            this.channel = channel;
+        }
+
+        private void read() throws IOException {
+            if (channel.read(in) < 0) {
+                throw new IOException("The server closed session " + number + " early.");
+            }
+            int lineStart = 0;
+            int replyEnd = -1;
+            for (int i = 0; i < in.position(); i++) {
+                if (in.get(i) != '\n') {
+                    continue;
+                }
+                if (i - lineStart == 1 && in.get(lineStart) == '.') {
+                    replyEnd = i + 1; // A lone '.' ends a reply; a client sends nothing before the reply comes
+                }
+                lineStart = i + 1;
+            }
+            if (replyEnd < 0) {
+                if (!in.hasRemaining()) {
+                    in = ByteBuffer.allocate(in.capacity() * 2).put(in.flip());
+                }
+                return;
+            }
+            in.clear();
+            onReply();
+        }
+
+        private void onReply() throws IOException {
+            long latency = System.nanoTime() - sentNanos;
+            replies++;
+            if (replies == 1) {
+                send("user load-" + (number % userCount + 1));
+                return;
+            }
+            if (replies > 2) {
+                if (isWrite) {
+                    writeNanos[writes++] = latency;
+                } else {
+                    readNanos[reads++] = latency;
+                }
+            }
+            int step = replies - 2;
+            if (step == commandCount) {
+                key.cancel();
+                finished++;
+                return;
+            }
+            isWrite = step % 5 == 0;
+            if (isWrite) {
+                send("todo load task " + number + "-" + step);
+            } else if (step % 5 == 1) {
+                send("find task " + number + "-");
+            } else {
+                send("list /size 20");
+            }
+        }
+
+        private void send(String command) throws IOException {
+            out = ByteBuffer.wrap((command + "\n").getBytes(StandardCharsets.UTF_8));
+            sentNanos = System.nanoTime();
+            write();
+        }
+
+        private void write() throws IOException {
+            channel.write(out);
+            key.interestOps(out.hasRemaining() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+}
@@ -0,0 +1,585 @@
+package mumbo.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import mumbo.app.Mumbo;
+import mumbo.app.Session;
+import mumbo.metrics.Metrics;
+
+/**
+ * Serves Mumbo to many clients at once over a local socket, without a window.
+ *
+ * <p>Protocol: clients send one command per line, in UTF-8, exactly as they would type it into the GUI.
+ * The first line must be {@code user <name>}, which picks the task list the connection works on; every
+ * user has a list, and a storage file ({@code user-<name>.txt} under 'data'), of their own, shared by all
+ * of that user's connections. Each reply is the response followed by a line holding a single '.'; reply
+ * lines that start with '.' have a second one put in front, which the client drops (as in SMTP). The
+ * server greets every new connection with such a reply, and closes the connection after a {@code bye}
+ * has been answered.</p>
+ *
+ * <p>Threads: a single selector thread accepts connections and does all of the reading and writing;
+ * commands run on a pool of worker threads, so a client waiting on a save never holds up the others.
+ * A connection's commands run one at a time and in the order they were sent, and stop being read while
+ * too many are queued. Each connection has its own {@link Session}, so each client has a conversation of
+ * its own with the {@link Mumbo} of its user.</p>
+ *
+ * <p>Memory: users' task lists are held in a {@link ShardCache}. A user's list is loaded when one of their
+ * commands first arrives, and the lists of the users least recently busy are saved and dropped once more
+ * than {@code --max-users} lists, or {@code --max-tasks} tasks, are held. A dropped list is loaded again
+ * when next needed, and its users' conversations carry on as if it never was.</p>
+ *
+ * <p>Metrics: with {@code --metrics-file}, the timings and counts of {@link Metrics#global()} are written to
+ * the file in the Prometheus text format every few seconds, and once more on close.</p>
+ *
+ * <pre>
+ * java -cp mumbo.jar mumbo.server.MumboServer [--port &lt;n&gt; | --socket &lt;path&gt;] [--workers &lt;n&gt;]
+ *         [--save-interval &lt;ms&gt;] [--max-users &lt;n&gt;] [--max-tasks &lt;n&gt;]
+ *         [--metrics-file &lt;path&gt;]
+ * </pre>
+ */
+public class MumboServer implements AutoCloseable {
+    /** Port listened on when none is given */
+    public static final int DEFAULT_PORT = 4321;
+    /** Number of users' task lists held in memory when no other is given */
+    public static final int DEFAULT_MAX_USERS = 1000;
+    /** Number of tasks, across all users, held in memory when no other is given */
+    public static final long DEFAULT_MAX_TASKS = 1_000_000;
+
+    private static final String USAGE = "Usage: MumboServer [--port <n> | --socket <path>] [--workers <n>] "
+            + "[--save-interval <ms>] [--max-users <n>] [--max-tasks <n>] [--metrics-file <path>]";
+    private static final String STORE_PREFIX = "user-";
+    private static final String STORE_SUFFIX = ".txt";
+    private static final Pattern USER_NAME = Pattern.compile("[a-z0-9_-]{1,32}");
+    private static final int MAX_LINE_BYTES = 8192;
+    private static final int MAX_QUEUED_LINES = 64; // Per connection, before it stops being read
+    private static final int BACKLOG = 4096;
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+    private static final String END_OF_REPLY = ".\n";
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final ExecutorService workers;
+    private final long saveIntervalMillis;
+    private final ShardCache users;
+    private final ConcurrentLinkedQueue<Connection> changed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final Thread selectorThread;
+    private volatile boolean isRunning = false;
+
+    /**
+     * Opens a server on a local address; it does not accept connections until {@link #start()}
+     * @param address a port on the loopback interface ({@link InetSocketAddress}) or a Unix domain socket
+     *     path ({@link UnixDomainSocketAddress}); port 0 picks a free port
+     * @param workerCount the number of threads commands run on
+     * @param saveIntervalMillis how often each user's changes are saved in the background, or 0 to save
+     *     every change as it is made (to a journal)
+     * @throws IOException if the address cannot be bound
+     */
+    public MumboServer(SocketAddress address, int workerCount, long saveIntervalMillis) throws IOException {
+        this(address, workerCount, saveIntervalMillis, DEFAULT_MAX_USERS, DEFAULT_MAX_TASKS);
+    }
+
+    /**
+     * Opens a server that holds at most a given number of users' task lists in memory
+     * @param address a port on the loopback interface ({@link InetSocketAddress}) or a Unix domain socket
+     *     path ({@link UnixDomainSocketAddress}); port 0 picks a free port
+     * @param workerCount the number of threads commands run on
+     * @param saveIntervalMillis how often each user's changes are saved in the background, or 0 to save
+     *     every change as it is made (to a journal)
+     * @param maxUsers the number of users whose task lists may be held at once
+     * @param maxTasks the number of tasks, across all users, that may be held at once
+     * @throws IOException if the address cannot be bound
+     */
+    public MumboServer(SocketAddress address, int workerCount, long saveIntervalMillis, int maxUsers,
+            long maxTasks) throws IOException {
+        assert address != null : "Address must not be null";
+        assert workerCount > 0 : "There must be at least one worker";
+        assert saveIntervalMillis >= 0 : "Save interval must not be negative";
+        this.server = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        this.server.bind(address, BACKLOG);
+        this.server.configureBlocking(false);
+        this.selector = Selector.open();
+        this.server.register(selector, SelectionKey.OP_ACCEPT);
+        AtomicInteger workerNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "mumbo-server-worker-" + workerNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.saveIntervalMillis = saveIntervalMillis;
+        this.users = new ShardCache(this::open, maxUsers, maxTasks);
+        this.selectorThread = new Thread(this::select, "mumbo-server");
+    }
+
+    /**
+     * Entry point for server mode; runs until the process is stopped.
+     * @param args command line options
+     */
+    public static void main(String... args) {
+        int port = DEFAULT_PORT;
+        String socket = null;
+        int workerCount = Runtime.getRuntime().availableProcessors() * 4;
+        long saveInterval = 0;
+        int maxUsers = DEFAULT_MAX_USERS;
+        long maxTasks = DEFAULT_MAX_TASKS;
+        String metricsFile = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--socket":
+                    socket = args[++i];
+                    break;
+                case "--workers":
+                    workerCount = Integer.parseInt(args[++i]);
+                    break;
+                case "--save-interval":
+                    saveInterval = Long.parseLong(args[++i]);
+                    break;
+                case "--max-users":
+                    maxUsers = Integer.parseInt(args[++i]);
+                    break;
+                case "--max-tasks":
+                    maxTasks = Long.parseLong(args[++i]);
+                    break;
+                case "--metrics-file":
+                    metricsFile = args[++i];
+                    break;
+                default:
+                    System.out.println(USAGE);
+                    return;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            System.out.println(USAGE);
+            return;
+        }
+        if (port < 0 || workerCount < 1 || saveInterval < 0 || maxUsers < 1 || maxTasks < 1) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        SocketAddress address = socket == null
+                ? new InetSocketAddress(InetAddress.getLoopbackAddress(), port)
+                : UnixDomainSocketAddress.of(socket);
+        try {
+            MumboServer mumboServer = new MumboServer(address, workerCount, saveInterval, maxUsers, maxTasks);
+            Runtime.getRuntime().addShutdownHook(new Thread(mumboServer::close, "mumbo-server-close"));
+            if (metricsFile != null) {
+                Metrics.global().startExport(Paths.get(metricsFile), Metrics.DEFAULT_EXPORT_INTERVAL_MILLIS);
+            }
+            mumboServer.start();
+            System.out.println("Mumbo is listening on " + mumboServer.getAddress() + ".");
+            mumboServer.selectorThread.join();
+        } catch (IOException e) {
+            System.out.println("An error occurred while starting the server.");
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Starts accepting connections
+     */
+    public void start() {
+        assert !isRunning : "Server is already running";
+        isRunning = true;
+        selectorThread.start();
+    }
+
+    /**
+     * Gets the address the server listens on
+     * @return the address, with the port filled in if port 0 was asked for
+     * @throws IOException if the server has been closed
+     */
+    public SocketAddress getAddress() throws IOException {
+        return server.getLocalAddress();
+    }
+
+    /**
+     * Counts the connections currently open
+     * @return the number of connected clients
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * Counts the users whose task lists are loaded
+     * @return the number of users whose lists are held in memory
+     */
+    public int getUserCount() {
+        return users.getShardCount();
+    }
+
+    /**
+     * Gets the cache of users' task lists, e.g. to read how often lists had to be loaded
+     * @return the cache
+     */
+    public ShardCache getUsers() {
+        return users;
+    }
+
+    /**
+     * Stops accepting connections, closes the open ones once their running commands finish, and saves
+     * every user's outstanding changes.
+     */
+    @Override
+    public void close() {
+        if (!isRunning) {
+            return;
+        }
+        isRunning = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdown();
+        try {
+            workers.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        users.close();
+        Metrics.global().stopExport(); // Once every list is saved, so that the counts include those saves
+        try {
+            SocketAddress address = server.getLocalAddress();
+            server.close();
+            if (address instanceof UnixDomainSocketAddress) {
+                Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred while closing the server.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Runs the selector loop until the server is closed.
+     */
+    private void select() {
+        try {
+            while (isRunning) {
+                selector.select();
+                Connection connection;
+                while ((connection = changed.poll()) != null) {
+                    connection.updateInterest();
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    connection = (Connection) key.attachment();
+                    if (key.isReadable()) {
+                        connection.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.write();
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred in the server; it has stopped.");
+            e.printStackTrace();
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    ((Connection) key.attachment()).close();
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            if (channel.getLocalAddress() instanceof InetSocketAddress) {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true); // Replies are small and awaited
+            }
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            connectionCount.incrementAndGet();
+            connection.send("Mumbo at your service. Pray introduce yourself: user <name>");
+        }
+    }
+
+    /**
+     * Loads a user's tasks into a chatbot of their own, for the cache.
+     */
+    private Mumbo open(String user) {
+        Mumbo mumbo = new Mumbo(STORE_PREFIX + user + STORE_SUFFIX, saveIntervalMillis == 0);
+        if (saveIntervalMillis > 0) {
+            mumbo.startWriteBehind(saveIntervalMillis);
+        }
+        return mumbo;
+    }
+
+    /**
+     * One client: its socket, its buffers and its conversation. Reading, writing and closing happen on the
+     * selector thread; commands are run by one worker at a time.
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(MAX_LINE_BYTES);
+        private final ArrayDeque<String> lines = new ArrayDeque<>(); // Guarded by this
+        private final ArrayDeque<ByteBuffer> out = new ArrayDeque<>(); // Guarded by this
+        private final Session session = new Session();
+        private SelectionKey key;
+        private String user; // Null until the client signs in
+        private boolean isBusy = false; // Whether a worker is running this connection's commands
+        private boolean isEnding = false; // Whether to close once the queued replies are written
+        private boolean isClosed = false;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Reads what has arrived and queues every complete line as a command.
+         */
+        private void read() {
+            int count;
+            try {
+                count = channel.read(in);
+            } catch (IOException e) {
+                close(); // Reset by the client
+                return;
+            }
+            if (count < 0) {
+                close();
+                return;
+            }
+            int start = 0;
+            for (int i = 0; i < in.position(); i++) {
+                if (in.get(i) == '\n') {
+                    int end = i > start && in.get(i - 1) == '\r' ? i - 1 : i;
+                    queue(new String(in.array(), start, end - start, StandardCharsets.UTF_8));
+                    start = i + 1;
+                }
+            }
+            in.flip().position(start);
+            in.compact();
+            if (!in.hasRemaining()) {
+                send("That line is far too long, I'm afraid. Goodbye.");
+                end();
+            }
+            updateInterest(); // Stop reading if too many commands are queued
+        }
+
+        private void queue(String line) {
+            synchronized (this) {
+                if (isEnding) {
+                    return;
+                }
+                lines.add(line);
+                if (isBusy) {
+                    return;
+                }
+                isBusy = true;
+            }
+            workers.execute(this::run);
+        }
+
+        /**
+         * Runs queued commands until there are none left. Called on a worker thread.
+         */
+        private void run() {
+            while (true) {
+                String line;
+                boolean wasFull;
+                synchronized (this) {
+                    wasFull = lines.size() >= MAX_QUEUED_LINES;
+                    line = isEnding ? null : lines.poll();
+                    if (line == null) {
+                        isBusy = false;
+                        break;
+                    }
+                }
+                if (wasFull) {
+                    requestUpdate(); // Reading may resume
+                }
+                send(respond(line));
+                if (session.shouldExit()) {
+                    end();
+                }
+            }
+        }
+
+        private String respond(String line) {
+            if (user == null) {
+                return signIn(line.trim());
+            }
+            try (ShardCache.Lease lease = users.acquire(user)) {
+                return lease.getMumbo().getResponse(session, line);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                return "Terribly sorry - something went wrong while handling that.";
+            }
+        }
+
+        private String signIn(String line) {
+            String[] words = line.split("\\s+");
+            if (words.length != 2 || !words[0].equalsIgnoreCase("user")) {
+                return "Pray introduce yourself first: user <name>";
+            }
+            String name = words[1].toLowerCase(Locale.ROOT);
+            if (!USER_NAME.matcher(name).matches()) {
+                return "A user name may only hold letters, digits, '-' and '_', and at most 32 of them.";
+            }
+            user = name; // Their tasks are loaded with their first command
+            return "Welcome, " + name + ". You may type 'help' to see the available commands.";
+        }
+
+        /**
+         * Queues a reply, ending it with a lone '.' and doubling any '.' that starts one of its lines.
+         */
+        private void send(String reply) {
+            StringBuilder sb = new StringBuilder(reply.length() + 16);
+            for (String line : reply.split("\n", -1)) {
+                if (line.startsWith(".")) {
+                    sb.append('.');
+                }
+                sb.append(line).append('\n');
+            }
+            // One buffer per reply, as a second small write would wait for the client to acknowledge the first
+            byte[] text = sb.append(END_OF_REPLY).toString().getBytes(StandardCharsets.UTF_8);
+            synchronized (this) {
+                if (isClosed) {
+                    return;
+                }
+                out.add(ByteBuffer.wrap(text));
+            }
+            requestUpdate();
+        }
+
+        private void end() {
+            synchronized (this) {
+                isEnding = true;
+                lines.clear();
+            }
+            requestUpdate();
+        }
+
+        /**
+         * Asks the selector thread to look at this connection again, e.g. because there is a reply to write.
+         */
+        private void requestUpdate() {
+            if (Thread.currentThread() == selectorThread) {
+                updateInterest();
+                return;
+            }
+            changed.add(this);
+            selector.wakeup();
+        }
+
+        /**
+         * Writes as much of the queued replies as the socket takes. Called on the selector thread.
+         */
+        private void write() {
+            try {
+                synchronized (this) {
+                    while (!out.isEmpty()) {
+                        ByteBuffer buffer = out.peek();
+                        channel.write(buffer);
+                        if (buffer.hasRemaining()) {
+                            break; // The socket is full; wait until it may be written again
+                        }
+                        out.poll();
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            updateInterest();
+        }
+
+        /**
+         * Watches for reading while few commands are queued and for writing while replies are queued, and
+         * closes the connection once it has ended and its last reply is written. Called on the selector thread.
+         */
+        private void updateInterest() {
+            if (isClosed) {
+                return;
+            }
+            int ops;
+            boolean isDone;
+            synchronized (this) {
+                ops = (isEnding || lines.size() >= MAX_QUEUED_LINES ? 0 : SelectionKey.OP_READ)
+                        | (out.isEmpty() ? 0 : SelectionKey.OP_WRITE);
+                isDone = isEnding && out.isEmpty();
+            }
+            if (isDone) {
+                close();
+                return;
+            }
+            try {
+                key.interestOps(ops);
+            } catch (IllegalStateException e) {
+                close(); // Cancelled key
+            }
+        }
+
+        /**
+         * Closes the socket. Called on the selector thread.
+         */
+        private void close() {
+            synchronized (this) {
+                if (isClosed) {
+                    return;
+                }
+                isClosed = true;
+                isEnding = true;
+                lines.clear();
+                out.clear();
+            }
+            connectionCount.decrementAndGet();
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+    }
+}
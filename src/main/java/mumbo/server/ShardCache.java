@@ -0,0 +1,301 @@
+package mumbo.server;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+
+import mumbo.app.Mumbo;
+
+/**
+ * Keeps the task lists of the users who are busy in memory, and only those.
+ *
+ * <p>Every user's tasks are a shard of their own, kept in a file of their own by a {@link Mumbo} that is
+ * created, loading the file, the first time the user is asked for. Shards are kept in least recently used
+ * order. Once more than a set number of shards, or of tasks across all shards, is held, the least recently
+ * used shards are shut down, which saves whatever their write-behind savers had not saved yet, and
+ * dropped; they are loaded again when next asked for.</p>
+ *
+ * <p>A shard is used through a {@link Lease}, held for as long as one command runs. A leased shard is never
+ * evicted, so a command always finishes on the Mumbo it started on. A shard that is being shut down is not
+ * loaded again until it has been, so no two Mumbos ever hold the same file open at once. Loading and
+ * shutting down happen outside the cache's lock, and the other users carry on meanwhile. A shard that fails
+ * to load is dropped, and every lease already waiting for it fails as well.</p>
+ *
+ * <p>Hits, misses, evictions and the evictions that had changes to save are counted, and
+ * {@link #describe()} sums them up.</p>
+ */
+public class ShardCache implements AutoCloseable {
+    private final Function<String, Mumbo> loader;
+    private final int maxShards;
+    private final long maxTasks;
+    private final LinkedHashMap<String, Shard> shards = new LinkedHashMap<>(16, 0.75f, true); // Eldest first
+    private final Map<String, Shard> closing = new HashMap<>(); // Evicted shards still being shut down
+    private long taskCount = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long dirtyEvictions = 0;
+    private boolean isClosed = false;
+
+    /**
+     * Creates an empty cache
+     * @param loader opens the Mumbo of a shard, given its key
+     * @param maxShards the number of shards that may be held at once
+     * @param maxTasks the number of tasks, across all shards, that may be held at once
+     */
+    public ShardCache(Function<String, Mumbo> loader, int maxShards, long maxTasks) {
+        assert loader != null : "Loader must not be null";
+        assert maxShards > 0 && maxTasks > 0 : "Limits must be positive";
+        this.loader = loader;
+        this.maxShards = maxShards;
+        this.maxTasks = maxTasks;
+    }
+
+    /**
+     * Leases a shard, loading it if it is not held
+     * @param key the shard's key, e.g. a user name
+     * @return the lease, which must be closed once the shard's Mumbo is no longer used
+     */
+    public Lease acquire(String key) {
+        assert key != null : "Key must not be null";
+        Shard shard;
+        synchronized (this) {
+            assert !isClosed : "Cache has been closed";
+            shard = shards.get(key);
+            if (shard == null) {
+                misses++;
+                shard = new Shard(key, closing.get(key));
+                shards.put(key, shard);
+            } else {
+                hits++;
+            }
+            shard.pins++;
+        }
+        try {
+            shard.load();
+        } catch (RuntimeException e) {
+            // The shard stays failed, so acquirers already waiting on it fail too rather than load a Mumbo the
+            // cache no longer holds; the next acquire loads a new shard
+            synchronized (this) {
+                shard.pins--;
+                shards.remove(key, shard);
+            }
+            shard.closed.countDown();
+            throw e;
+        }
+        Lease lease = new Lease(shard);
+        resize(shard);
+        return lease;
+    }
+
+    /**
+     * Counts the shards held
+     * @return the number of shards in memory
+     */
+    public synchronized int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Counts the tasks held, as of the last time each shard was leased
+     * @return the number of tasks in memory
+     */
+    public synchronized long getTaskCount() {
+        return taskCount;
+    }
+
+    /**
+     * Counts the leases of shards that were already held
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Counts the leases of shards that had to be loaded
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Counts the shards dropped to make room
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Counts the evicted shards that had unsaved changes, which were saved as they were dropped
+     * @return the number of evictions that saved
+     */
+    public synchronized long getDirtyEvictions() {
+        return dirtyEvictions;
+    }
+
+    /**
+     * Sums up what the cache holds and how well it has done
+     * @return one line giving the shards and tasks held, the hits, misses and hit rate, and the evictions
+     */
+    public synchronized String describe() {
+        long leases = hits + misses;
+        return String.format("%d shard(s) holding %d task(s); %d hit(s), %d miss(es) (%.1f%% hits); "
+                + "%d eviction(s), %d of them saving changes", shards.size(), taskCount, hits, misses,
+                leases == 0 ? 0.0 : 100.0 * hits / leases, evictions, dirtyEvictions);
+    }
+
+    /**
+     * Shuts down every shard held, saving their changes. Shards still leased are shut down as well, so
+     * this should only be called once nothing uses the cache any more.
+     */
+    @Override
+    public void close() {
+        List<Shard> held;
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            held = new ArrayList<>(shards.values());
+            shards.clear();
+            taskCount = 0;
+        }
+        for (Shard shard : held) {
+            shard.shutDown();
+        }
+    }
+
+    /**
+     * Records a shard's size as it is now, then evicts shards until the cache is within its limits.
+     */
+    private void resize(Shard shard) {
+        int size = shard.mumbo.getTaskCount(); // Outside the cache's lock; it waits for the list's lock
+        List<Shard> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (shards.get(shard.key) == shard) {
+                taskCount += size - shard.size;
+                shard.size = size;
+            }
+            Iterator<Shard> eldestFirst = shards.values().iterator();
+            while ((shards.size() > maxShards || taskCount > maxTasks) && eldestFirst.hasNext()) {
+                Shard eldest = eldestFirst.next();
+                if (eldest.pins > 0) {
+                    continue; // In use; the cache stays over its limits until it is released
+                }
+                eldestFirst.remove();
+                taskCount -= eldest.size;
+                evictions++;
+                closing.put(eldest.key, eldest);
+                evicted.add(eldest);
+            }
+        }
+        for (Shard eldest : evicted) {
+            boolean isDirty = eldest.shutDown();
+            synchronized (this) {
+                dirtyEvictions += isDirty ? 1 : 0;
+                closing.remove(eldest.key, eldest);
+            }
+        }
+    }
+
+    /**
+     * The use of one shard for a while, during which it is not evicted.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Shard shard;
+        private boolean isReleased = false;
+
+        private Lease(Shard shard) {
+            this.shard = shard;
+        }
+
+        /**
+         * Gets the shard's chatbot
+         * @return the Mumbo holding the shard's tasks
+         */
+        public Mumbo getMumbo() {
+            assert !isReleased : "Lease has been released";
+            return shard.mumbo;
+        }
+
+        /**
+         * Releases the shard, which may then be evicted; its size is taken again first, in case the lease
+         * holder changed it.
+         */
+        @Override
+        public void close() {
+            if (isReleased) {
+                return;
+            }
+            isReleased = true;
+            synchronized (ShardCache.this) {
+                shard.pins--;
+            }
+            resize(shard);
+        }
+    }
+
+    /**
+     * One user's tasks and how they are being used. The pin count and size are guarded by the cache.
+     */
+    private final class Shard {
+        private final String key;
+        private final Shard previous; // The same key's last shard, if it was still shutting down
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private volatile Mumbo mumbo; // Null until loaded
+        private RuntimeException failure; // Why loading failed, if it did
+        private int pins = 0;
+        private int size = 0;
+
+        private Shard(String key, Shard previous) {
+            this.key = key;
+            this.previous = previous;
+        }
+
+        /**
+         * Loads the shard, unless it is loaded, once its previous shard has finished shutting down
+         * @throws IllegalStateException if an earlier attempt to load this shard failed
+         */
+        private synchronized void load() {
+            if (mumbo != null) {
+                return;
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Could not load " + key, failure);
+            }
+            try {
+                if (previous != null) {
+                    previous.closed.await();
+                }
+                mumbo = loader.apply(key);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = new IllegalStateException("Interrupted while waiting for " + key + " to be saved", e);
+                throw failure;
+            } catch (RuntimeException e) {
+                failure = e;
+                throw e;
+            }
+        }
+
+        /**
+         * Shuts the shard's Mumbo down
+         * @return whether it had changes to save
+         */
+        private synchronized boolean shutDown() {
+            try {
+                return mumbo != null && mumbo.shutdown();
+            } finally {
+                closed.countDown();
+            }
+        }
+    }
+}
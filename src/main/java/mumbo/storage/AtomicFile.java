@@ -0,0 +1,83 @@
+package mumbo.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replaces a file so that, after a crash at any point, it holds either all of its old contents or all of its
+ * new contents.
+ *
+ * <p>The new contents are written to a temporary file next to the target and forced to the disk, the
+ * temporary file is then renamed over the target in one atomic step, and finally the directory is forced so
+ * that the rename itself survives a crash. The live file is never truncated or written in place.</p>
+ */
+final class AtomicFile {
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Writes the contents of a file to a stream.
+     */
+    interface Contents {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private AtomicFile() {
+    }
+
+    /**
+     * Gets the temporary file a target is written through
+     * @param target the file being replaced
+     * @return the temporary file in the same directory
+     */
+    static Path tempOf(Path target) {
+        return target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+    }
+
+    /**
+     * Replaces a file with new contents
+     * @param target the file to replace
+     * @param contents writes the new contents; the stream is buffered and must not be closed
+     * @throws IOException if the contents could not be written; the target is then left as it was
+     */
+    static void write(Path target, Contents contents) throws IOException {
+        Path tmp = tempOf(target);
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+                contents.writeTo(out);
+                out.flush();
+                channel.force(true);
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        forceDirectory(target.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Forces a directory's entries to the disk. Not every platform can open a directory this way, in which
+     * case the rename is left to the file system's own schedule.
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Unsupported here (e.g. on Windows); the file itself is already on disk
+        }
+    }
+}
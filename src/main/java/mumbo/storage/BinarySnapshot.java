@@ -0,0 +1,296 @@
+package mumbo.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import mumbo.task.Deadline;
+import mumbo.task.Event;
+import mumbo.task.Task;
+import mumbo.task.TaskType;
+import mumbo.task.Todo;
+
+/**
+ * A versioned binary snapshot of a task list, read into memory in one go and decoded task by task.
+ *
+ * <p>Layout (all integers little-endian):</p>
+ * <ul>
+ *   <li>Header, {@value #HEADER_BYTES} bytes: magic {@code MUMB}, version, flags, task count, next task id,
+ *   journal sequence and the offset of the string pool.</li>
+ *   <li>Record table: one {@value #RECORD_BYTES}-byte record per task holding its type, done flag,
+ *   offsets/lengths into the string pool, its id and up to two timestamps as epoch seconds (UTC).</li>
+ *   <li>String pool: the UTF-8 bytes of every description and of each task's space-separated tags.</li>
+ *   <li>Trailer, {@value #TRAILER_BYTES} bytes, if the checksum flag is set: the CRC-32C of everything
+ *   before it.</li>
+ * </ul>
+ *
+ * <p>{@link #verify()} recomputes the checksum to detect a snapshot that was only partly written or has
+ * been damaged since. Snapshots written before the trailer was added have no flags and cannot be checked.</p>
+ *
+ * <p>The file is read into a heap buffer rather than mapped. A mapping cannot be released on demand in Java,
+ * and a mapped file cannot be replaced on Windows, so a mapping held by a lazily loaded list would make
+ * every later save of the same file fail there. Since the checksum reads every byte anyway, one sequential
+ * read costs no more; what stays lazy is decoding, which is where loading spent its time.</p>
+ *
+ * <p>Because records are fixed-width, task {@code i} can be decoded on its own without touching
+ * the rest of the file; {@link #materialize(int)} does exactly that.</p>
+ *
+ * <p>Snapshots written before tasks had ids hold 0 in the id fields, which were reserved until then;
+ * {@link #hasIds()} tells them apart.</p>
+ */
+public class BinarySnapshot {
+    public static final int MAGIC = 0x424D554D; // "MUMB" when read back little-endian
+    public static final short VERSION = 1;
+
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES = 40;
+    static final int TRAILER_BYTES = 4;
+
+    private static final short FLAG_CHECKSUM = 1;
+
+    private static final int FLAG_DONE = 1;
+    private static final int NO_TAG = -1;
+    private static final String TAG_SEPARATOR = " "; // Tags never contain whitespace
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int nextId;
+    private final long journalSeq;
+    private final long poolOffset;
+    private final boolean hasChecksum;
+
+    private BinarySnapshot(Path file, ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a Mumbo binary snapshot");
+        }
+        short version = buffer.getShort(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        this.count = buffer.getInt(8);
+        this.nextId = buffer.getInt(12);
+        this.journalSeq = buffer.getLong(16);
+        this.poolOffset = buffer.getLong(24);
+        this.hasChecksum = (buffer.getShort(6) & FLAG_CHECKSUM) != 0;
+        long end = buffer.limit() - (hasChecksum ? TRAILER_BYTES : 0);
+        if (count < 0 || poolOffset != HEADER_BYTES + (long) count * RECORD_BYTES || poolOffset > end) {
+            throw new DamagedFileException(file); // Cut short, most likely
+        }
+    }
+
+    /**
+     * Checks whether a file starts with the binary snapshot magic number
+     * @param file the file to inspect
+     * @return true if the file looks like a binary snapshot
+     */
+    public static boolean isBinary(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] head = in.readNBytes(4);
+            return head.length == 4
+                    && ByteBuffer.wrap(head).order(ByteOrder.LITTLE_ENDIAN).getInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a snapshot file into memory and validates its header. No task is decoded yet, and the file may be
+     * replaced afterwards without affecting the snapshot.
+     * @param file the snapshot file
+     * @return the opened snapshot
+     * @throws IOException if the file cannot be read or is not a valid snapshot, in particular a
+     *     {@link DamagedFileException} if it is too short for the tasks its header counts
+     */
+    public static BinarySnapshot open(Path file) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        if (data.length < HEADER_BYTES) {
+            throw new DamagedFileException(file);
+        }
+        return new BinarySnapshot(file, ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Checks the snapshot against the checksum in its trailer
+     * @return true if the snapshot is intact, or predates checksums
+     */
+    public boolean verify() {
+        if (!hasChecksum) {
+            return true;
+        }
+        int end = buffer.limit() - TRAILER_BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(0).limit(end));
+        return (int) crc.getValue() == buffer.getInt(end);
+    }
+
+    /**
+     * Writes tasks as a snapshot, followed by its checksum
+     * @param out the destination; it is not closed
+     * @param tasks the tasks to write, in list order
+     * @param nextId the id the list will give its next task
+     * @param journalSeq the journal sequence number the snapshot covers
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(OutputStream out, List<Task> tasks, int nextId, long journalSeq) throws IOException {
+        assert tasks != null : "Tasks must not be null when writing a snapshot";
+        int n = tasks.size();
+        byte[][] descriptions = new byte[n][];
+        byte[][] tags = new byte[n][];
+        long poolBytes = 0;
+        for (int i = 0; i < n; i++) {
+            Task t = tasks.get(i);
+            descriptions[i] = t.getDescription().getBytes(StandardCharsets.UTF_8);
+            poolBytes += descriptions[i].length;
+            if (!t.getTags().isEmpty()) {
+                tags[i] = String.join(TAG_SEPARATOR, t.getTags()).getBytes(StandardCharsets.UTF_8);
+                poolBytes += tags[i].length;
+            }
+        }
+        long poolOffset = HEADER_BYTES + (long) n * RECORD_BYTES;
+        if (poolOffset + poolBytes > Integer.MAX_VALUE) {
+            throw new IOException("Task list is too large for a single snapshot");
+        }
+
+        ByteBuffer table = ByteBuffer.allocate((int) poolOffset).order(ByteOrder.LITTLE_ENDIAN);
+        table.putInt(MAGIC).putShort(VERSION).putShort(FLAG_CHECKSUM)
+                .putInt(n).putInt(nextId)
+                .putLong(journalSeq).putLong(poolOffset);
+        int cursor = 0;
+        for (int i = 0; i < n; i++) {
+            Task t = tasks.get(i);
+            table.put((byte) t.getType().ordinal());
+            table.put((byte) (t.isDone() ? FLAG_DONE : 0));
+            table.putShort((short) 0);
+            table.putInt(cursor).putInt(descriptions[i].length);
+            cursor += descriptions[i].length;
+            if (tags[i] == null) {
+                table.putInt(NO_TAG).putInt(0);
+            } else {
+                table.putInt(cursor).putInt(tags[i].length);
+                cursor += tags[i].length;
+            }
+            table.putInt(t.getId());
+            table.putLong(epochOf(t, 0)).putLong(epochOf(t, 1));
+        }
+        assert table.position() == poolOffset : "Record table size mismatch";
+
+        CRC32C crc = new CRC32C();
+        out.write(table.array());
+        crc.update(table.array());
+        for (int i = 0; i < n; i++) {
+            out.write(descriptions[i]);
+            crc.update(descriptions[i]);
+            if (tags[i] != null) {
+                out.write(tags[i]);
+                crc.update(tags[i]);
+            }
+        }
+        out.write(ByteBuffer.allocate(TRAILER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt((int) crc.getValue()).array());
+    }
+
+    private static long epochOf(Task t, int which) {
+        if (t instanceof Deadline) {
+            return which == 0 ? toEpoch(((Deadline) t).getDeadline()) : 0;
+        }
+        if (t instanceof Event) {
+            Event e = (Event) t;
+            return toEpoch(which == 0 ? e.getStart() : e.getEnd());
+        }
+        return 0;
+    }
+
+    private static long toEpoch(LocalDateTime dt) {
+        return dt.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromEpoch(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * @return the number of tasks in the snapshot
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Checks whether the snapshot records task ids
+     * @return false for snapshots written before tasks had ids
+     */
+    public boolean hasIds() {
+        return nextId > 0;
+    }
+
+    /**
+     * @return the id the list will give its next task, or 0 if the snapshot has no ids
+     */
+    public int getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Reads the id of a task without decoding the task
+     * @param i a 0 based task index
+     * @return the task's id
+     */
+    public int idAt(int i) {
+        assert i >= 0 && i < count : "Snapshot index out of bounds (0-based)";
+        return buffer.getInt(HEADER_BYTES + i * RECORD_BYTES + 20);
+    }
+
+    /**
+     * @return the journal sequence number the snapshot covers
+     */
+    public long getJournalSeq() {
+        return journalSeq;
+    }
+
+    /**
+     * Decodes a single task from its record
+     * @param i a 0 based task index
+     * @return the decoded task
+     */
+    @SuppressWarnings("checkstyle:Indentation")
+    public Task materialize(int i) {
+        assert i >= 0 && i < count : "Snapshot index out of bounds (0-based)";
+        int at = HEADER_BYTES + i * RECORD_BYTES;
+        TaskType type = TaskType.values()[buffer.get(at)];
+        boolean isDone = (buffer.get(at + 1) & FLAG_DONE) != 0;
+        String description = readString(buffer.getInt(at + 4), buffer.getInt(at + 8));
+        int tagOffset = buffer.getInt(at + 12);
+        long time1 = buffer.getLong(at + 24);
+        long time2 = buffer.getLong(at + 32);
+
+        Task t = switch (type) {
+        case TODO -> new Todo(description);
+        case DEADLINE -> new Deadline(description, fromEpoch(time1));
+        case EVENT -> new Event(description, fromEpoch(time1), fromEpoch(time2));
+        };
+        t.mark(isDone);
+        if (tagOffset != NO_TAG) {
+            for (String tag : readString(tagOffset, buffer.getInt(at + 16)).split(TAG_SEPARATOR)) {
+                t.tag(tag);
+            }
+        }
+        return t;
+    }
+
+    private String readString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get((int) poolOffset + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,146 @@
+package mumbo.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import mumbo.task.Task;
+
+/**
+ * Parses the task lines of a text storage file in parallel.
+ *
+ * <p>Every line stands on its own, so the text is cut into chunks of about {@link #CHUNK_BYTES} at line
+ * breaks and each chunk is decoded and parsed by its own {@link TaskLineParser} on the common fork-join
+ * pool. The chunks keep their results until they are all done and are read back in file order, so the
+ * tasks come out exactly as a line-by-line read would give them. Text no longer than one chunk is parsed
+ * on the calling thread.</p>
+ */
+final class ChunkedTextParser {
+    /** Size of the pieces the text is cut into; smaller texts are parsed without other threads */
+    static final int CHUNK_BYTES = 1 << 20;
+
+    private ChunkedTextParser() {
+    }
+
+    /**
+     * Parses the task lines in a range of UTF-8 text. Blank lines and lines starting with '#' are skipped.
+     * @param data the text
+     * @param from the index of the first byte to parse, at the start of a line
+     * @param to the index after the last byte to parse
+     * @param version the version of the format the lines were written in
+     * @return the parsed chunks, in file order
+     */
+    static List<Chunk> parse(byte[] data, int from, int to, int version) {
+        List<Chunk> chunks = new ArrayList<>();
+        int start = from;
+        while (start < to) {
+            int end = Math.min(start + CHUNK_BYTES, to);
+            while (end < to && data[end - 1] != '\n') {
+                end++; // A line break byte never occurs inside a multi-byte UTF-8 character
+            }
+            chunks.add(new Chunk(data, start, end, version));
+            start = end;
+        }
+        if (chunks.size() == 1) {
+            chunks.get(0).compute();
+        } else if (chunks.size() > 1) {
+            ForkJoinTask.invokeAll(chunks);
+        }
+        return chunks;
+    }
+
+    /**
+     * The tasks read from one piece of the text, with the ids their lines were led by.
+     */
+    static final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] data;
+        private final int from;
+        private final int to;
+        private final int version;
+        private int[] ids = new int[64];
+        private Task[] tasks = new Task[64];
+        private int size;
+        private final List<String> unreadable = new ArrayList<>();
+
+        private Chunk(byte[] data, int from, int to, int version) {
+            this.data = data;
+            this.from = from;
+            this.to = to;
+            this.version = version;
+        }
+
+        @Override
+        protected void compute() {
+            String text = new String(data, from, to - from, StandardCharsets.UTF_8);
+            TaskLineParser parser = new TaskLineParser(version);
+            int start = 0;
+            while (start < text.length()) {
+                int end = text.indexOf('\n', start);
+                int next = end < 0 ? text.length() : end + 1;
+                end = end < 0 ? text.length() : end;
+                if (end > start && text.charAt(end - 1) == '\r') {
+                    end--;
+                }
+                if (!isSkipped(text, start, end)) {
+                    Task task = parser.parse(text, start, end);
+                    if (task == null) {
+                        unreadable.add(text.substring(start, end));
+                    } else {
+                        add(parser.getId(), task);
+                    }
+                }
+                start = next;
+            }
+        }
+
+        private static boolean isSkipped(String text, int start, int end) {
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c != ' ' && c != '\t') {
+                    return c == '#';
+                }
+            }
+            return true; // Blank
+        }
+
+        private void add(int id, Task task) {
+            if (size == tasks.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                tasks = Arrays.copyOf(tasks, size * 2);
+            }
+            ids[size] = id;
+            tasks[size] = task;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Gets the id that led a line
+         * @param i the index of the task within this chunk
+         * @return the id, or 0 if the line had none
+         */
+        int idAt(int i) {
+            return ids[i];
+        }
+
+        Task taskAt(int i) {
+            return tasks[i];
+        }
+
+        /**
+         * Gets the lines that held no complete task
+         * @return the lines, in file order
+         */
+        List<String> getUnreadable() {
+            return unreadable;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package mumbo.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Signals that a storage file does not match the checksum written with it, e.g. because a write to it
+ * was torn by a crash or the disk has corrupted it since.
+ */
+class DamagedFileException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final Path file;
+
+    DamagedFileException(Path file) {
+        super(file.getFileName() + " does not match its checksum");
+        this.file = file;
+    }
+
+    Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,203 @@
+package mumbo.storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only log of {@link JournalEntry} records kept next to the snapshot file.
+ *
+ * <p>New entries always go to the active file. Before a snapshot is written, the active file is
+ * rotated aside, under the list's lock, so that appends can carry on while the snapshot is written;
+ * the rotated file is deleted once a snapshot covering every entry in it is safely in place. If a
+ * rotated file is still waiting when the journal is rotated again, the active file's entries are
+ * added to it, and it then waits for a snapshot covering those as well.</p>
+ */
+class Journal {
+    private final Path active;
+    private final Path rotated;
+    private long nextSeq = 1;
+    private long activeBytes;
+    private long rotatedSeq; // Highest sequence number the rotated file may hold
+
+    /**
+     * Creates a journal for the given snapshot file
+     * @param snapshot the path of the snapshot the journal belongs to
+     */
+    Journal(Path snapshot) {
+        assert snapshot != null : "Snapshot path must not be null";
+        this.active = snapshot.resolveSibling(snapshot.getFileName() + ".journal");
+        this.rotated = snapshot.resolveSibling(snapshot.getFileName() + ".journal.old");
+        try {
+            this.activeBytes = Files.exists(active) ? Files.size(active) : 0;
+        } catch (IOException e) {
+            this.activeBytes = 0;
+        }
+        this.rotatedSeq = Files.exists(rotated) ? Long.MAX_VALUE : 0; // Unknown until read
+    }
+
+    /**
+     * Appends one entry to the active journal file
+     * @param entry the mutation to record
+     * @return the sequence number assigned to the entry
+     * @throws IOException if the record could not be written
+     */
+    long append(JournalEntry entry) throws IOException {
+        assert entry != null : "Journal entry must not be null";
+        long seq = nextSeq;
+        byte[] bytes = (entry.toRecord(seq) + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        write(bytes);
+        nextSeq++;
+        activeBytes += bytes.length;
+        return seq;
+    }
+
+    /**
+     * Appends several entries to the active journal file in a single write
+     * @param entries the mutations to record, in the order they were applied
+     * @throws IOException if the records could not be written
+     */
+    void appendAll(List<JournalEntry> entries) throws IOException {
+        assert entries != null : "Journal entries must not be null";
+        StringBuilder records = new StringBuilder();
+        long seq = nextSeq;
+        for (JournalEntry entry : entries) {
+            records.append(entry.toRecord(seq++)).append(System.lineSeparator());
+        }
+        byte[] bytes = records.toString().getBytes(StandardCharsets.UTF_8);
+        write(bytes);
+        nextSeq = seq;
+        activeBytes += bytes.length;
+    }
+
+    /**
+     * Appends bytes to the active file and forces them to the disk before returning, so that an entry is
+     * never reported as saved while it could still be lost. Entries written together share one force.
+     */
+    private void write(byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(active, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Reads every entry in the rotated and active files whose sequence number is greater than {@code afterSeq}.
+     * A torn or malformed trailing record ends the replay of that file. An entry found in both files, as a
+     * rotation that was cut short leaves them, is read once.
+     * @param afterSeq the sequence number already contained in the snapshot
+     * @return the entries to replay, oldest first
+     */
+    synchronized List<JournalEntry> readSince(long afterSeq) {
+        List<JournalEntry> entries = new ArrayList<>();
+        long last = readInto(rotated, afterSeq, entries);
+        if (Files.exists(rotated)) {
+            rotatedSeq = last;
+        }
+        last = readInto(active, last, entries);
+        nextSeq = Math.max(nextSeq, last + 1);
+        return entries;
+    }
+
+    /**
+     * Reads the entries of a file numbered after {@code afterSeq}
+     * @return the sequence number of the last entry read, or {@code afterSeq} if none was
+     */
+    private long readInto(Path file, long afterSeq, List<JournalEntry> out) {
+        long last = afterSeq;
+        if (!Files.exists(file)) {
+            return last;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JournalEntry entry = JournalEntry.parse(line);
+                if (entry.getSeq() > last) {
+                    out.add(entry);
+                    last = entry.getSeq();
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Stopped replaying " + file.getFileName() + " at a damaged record.");
+        }
+        return last;
+    }
+
+    /**
+     * Gets the sequence number of the most recently appended entry
+     * @return the last sequence number, or 0 if nothing has been journaled
+     */
+    long lastSeq() {
+        return nextSeq - 1;
+    }
+
+    /**
+     * Gets the number of bytes currently held in the active journal file
+     * @return size of the active file in bytes
+     */
+    long activeBytes() {
+        return activeBytes;
+    }
+
+    /**
+     * Checks whether a rotated file is still waiting for its compaction to finish
+     * @return true if a rotated journal exists
+     */
+    boolean hasRotated() {
+        return Files.exists(rotated);
+    }
+
+    /**
+     * Moves the active file's entries aside so that subsequent appends start a fresh file, adding them to the
+     * rotated file if one is still waiting. Must be called under the same lock as the appends, so that the
+     * entries moved are exactly those up to {@link #lastSeq()}.
+     * @throws IOException if the entries could not be moved
+     */
+    synchronized void rotate() throws IOException {
+        if (Files.exists(active)) {
+            if (Files.exists(rotated)) {
+                try (FileChannel from = FileChannel.open(active, StandardOpenOption.READ);
+                        FileChannel to = FileChannel.open(rotated, StandardOpenOption.WRITE,
+                                StandardOpenOption.APPEND)) {
+                    long size = from.size();
+                    long copied = 0;
+                    while (copied < size) {
+                        copied += from.transferTo(copied, size - copied, to);
+                    }
+                    to.force(false);
+                }
+                Files.delete(active); // Entries left in both files by a crash here are read once
+            } else {
+                Files.move(active, rotated, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        rotatedSeq = lastSeq();
+        activeBytes = 0;
+    }
+
+    /**
+     * Deletes the rotated file if a snapshot covers every entry in it
+     * @param coveredSeq the sequence number the snapshot on disk covers
+     * @throws IOException if the file could not be deleted
+     */
+    synchronized void dropRotated(long coveredSeq) throws IOException {
+        if (coveredSeq >= rotatedSeq) {
+            Files.deleteIfExists(rotated);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package mumbo.storage;
+
+import mumbo.task.Task;
+
+/**
+ * A single mutation recorded in the storage journal.
+ *
+ * <p>Each entry is written as one line of the form {@code seq | OP | id | payload}, where
+ * {@code id} is the id of the task the mutation applies to (for ADD, the id the new task was given;
+ * 0 when unused) and {@code payload} carries the stored task line for ADD or the tag name for TAG.
+ * Journals written before tasks had ids hold 1-based list positions in that field instead, and 0 for
+ * every ADD.</p>
+ */
+public class JournalEntry {
+
+    /**
+     * The kinds of mutations that can be journaled.
+     */
+    public enum Op {
+        ADD, MARK, UNMARK, DELETE, TAG, CLEAR
+    }
+
+    private final long seq;
+    private final Op op;
+    private final int taskId;
+    private final String payload;
+
+    private JournalEntry(long seq, Op op, int taskId, String payload) {
+        assert op != null : "Journal op must not be null";
+        this.seq = seq;
+        this.op = op;
+        this.taskId = taskId;
+        this.payload = payload == null ? "" : payload;
+    }
+
+    /**
+     * Creates an entry recording that a task was appended to the list
+     * @param t the task that was added, carrying the id the list gave it
+     * @return the journal entry
+     */
+    public static JournalEntry add(Task t) {
+        assert t != null : "Added task must not be null";
+        assert t.getId() > 0 : "Added task must have been given an id";
+        return new JournalEntry(0, Op.ADD, t.getId(), t.toFormattedString());
+    }
+
+    /**
+     * Creates an entry recording that a task was marked or unmarked
+     * @param id the id of the task
+     * @param done whether the task was marked as done
+     * @return the journal entry
+     */
+    public static JournalEntry mark(int id, boolean done) {
+        return new JournalEntry(0, done ? Op.MARK : Op.UNMARK, id, null);
+    }
+
+    /**
+     * Creates an entry recording that a task was deleted
+     * @param id the id of the task
+     * @return the journal entry
+     */
+    public static JournalEntry delete(int id) {
+        return new JournalEntry(0, Op.DELETE, id, null);
+    }
+
+    /**
+     * Creates an entry recording that a task was tagged
+     * @param id the id of the task
+     * @param tag the tag that was applied
+     * @return the journal entry
+     */
+    public static JournalEntry tag(int id, String tag) {
+        assert tag != null && !tag.isBlank() : "Tag must not be null or blank";
+        return new JournalEntry(0, Op.TAG, id, tag);
+    }
+
+    /**
+     * Creates an entry recording that the whole list was cleared
+     * @return the journal entry
+     */
+    public static JournalEntry clear() {
+        return new JournalEntry(0, Op.CLEAR, 0, null);
+    }
+
+    /**
+     * Gets the sequence number this entry was read back with
+     * @return the sequence number, or 0 for entries that have not been written yet
+     */
+    public long getSeq() {
+        return seq;
+    }
+
+    public Op getOp() {
+        return op;
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    /**
+     * Serialises this entry as a single journal line
+     * @param seq the sequence number assigned to this entry
+     * @return a String in the journal record format
+     */
+    public String toRecord(long seq) {
+        return seq + " | " + op + " | " + taskId + " | " + payload;
+    }
+
+    /**
+     * Reads back a line written by {@link #toRecord(long)}
+     * @param line a journal line
+     * @return the entry, carrying the sequence number it was written with
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    static JournalEntry parse(String line) {
+        assert line != null : "Journal line must not be null";
+        String[] parts = line.split(" \\| ", 4);
+        if (parts.length < 3) {
+            throw new IllegalArgumentException("Malformed journal record: " + line);
+        }
+        long seq = Long.parseLong(parts[0].trim());
+        Op op = Op.valueOf(parts[1].trim());
+        int taskId = Integer.parseInt(parts[2].trim());
+        return new JournalEntry(seq, op, taskId, parts.length > 3 ? parts[3] : null);
+    }
+}
@@ -1,34 +1,123 @@
 package mumbo.storage;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
 
-import mumbo.task.Deadline;
-import mumbo.task.Event;
+import mumbo.metrics.Metrics;
+import mumbo.metrics.Phase;
+import mumbo.metrics.PhaseTimer;
 import mumbo.task.Task;
 import mumbo.task.TaskList;
-import mumbo.task.Todo;
-import mumbo.userinput.DateTimeUtil;
 
 /**
  * Handles loading tasks from and saving tasks to persistent storage (a local file).
+ *
+ * <p>In journaled mode, each mutation is appended to a small journal next to the storage file
+ * instead of rewriting the whole file. The journal is replayed on {@link #load()} and folded back
+ * into the storage file in the background once it grows past {@link #COMPACT_THRESHOLD_BYTES}.</p>
+ *
+ * <p>A storage file whose name ends in {@value #BINARY_SUFFIX} is written as a {@link BinarySnapshot}
+ * and loaded lazily, each task decoded when first used. The pipe-delimited text format remains available
+ * through {@link #importText(String)} and {@link #exportText(TaskList, String)}, and an existing
+ * text file of the same name is imported automatically the first time a binary store is opened.</p>
+ *
+ * <p>Tasks are saved with their ids, each text line led by the id and the file headed by the id the list
+ * will hand out next, so ids stay the same from one session to the next. Files and journals written
+ * before tasks had ids are still read, by numbering the tasks in list order, and are rewritten with ids
+ * the first time they are loaded.</p>
+ *
+ * <p>Between {@link #beginBatch()} and {@link #endBatch(TaskList)}, mutations are not written one by one;
+ * the storage is only marked dirty and the whole list is saved once per {@link #commitBatch(TaskList)}.</p>
+ *
+ * <p>Saves are crash-safe: the file is replaced through an {@link AtomicFile}, so it is never left half
+ * written, and both formats carry a CRC-32C checksum so that {@link #load()} can tell if it was damaged
+ * anyway. A damaged file is copied aside and the list recovered from an unfinished save, or from whatever
+ * tasks can still be read. Because each save now waits for the disk, a full save is skipped when the list
+ * has not changed since it was last written, and the mutations of one command share a single journal
+ * write.</p>
+ *
+ * <p>In write-behind mode ({@link #startWriteBehind(TaskList, long)}) mutations are not written as they
+ * happen at all. A background saver writes the whole list at most once per interval, and only if it has
+ * changed; {@link #flush(TaskList)} writes it at once. {@link #getSavesRequested()} and
+ * {@link #getSavesPerformed()} show how many writes this saves.</p>
+ *
+ * <p>Every load, full save and journal write is counted in {@link Metrics#global()}, with the bytes written,
+ * and the time a command spends saving is timed as its {@link Phase#SAVE} phase.</p>
  */
 
 public class Storage {
+    /** Size the active journal may reach before it is compacted into the storage file. */
+    public static final long COMPACT_THRESHOLD_BYTES = 1L << 20;
+
+    /** File name suffix that selects the binary snapshot format. */
+    public static final String BINARY_SUFFIX = ".bin";
+
+    private static final String SEQ_HEADER = "# journal-seq ";
+    private static final String NEXT_ID_HEADER = "# next-id ";
+    private static final String FORMAT_HEADER = "# mumbo-tasks v";
+    private static final String CHECKSUM_HEADER = "# checksum crc32c"; // Led checksummed files before versions
+    private static final String CHECKSUM_FOOTER = "# crc32c ";
+    private static final String DAMAGED_SUFFIX = ".damaged";
+
     private final String path;
+    private final boolean isBinary;
+    private final boolean isJournaled;
+    private final Journal journal;
+    private final Object snapshotLock = new Object();
+    private ExecutorService compactor;
+    private long snapshotSeq = 0;
+    private volatile boolean isBatching = false; // Set and read by whichever threads run commands
+    private volatile boolean isDirty = false;
+    private boolean isLegacyFormat = false; // Whether the last text file read predates task ids
+    private int schemaVersion = TaskLineParser.CURRENT_VERSION; // Format version of the last file read
+    private long loadedSeq = 0; // Journal sequence number recorded in the last file read
+    private volatile TaskList savedList; // The list last written in full, and its version then
+    private volatile long savedVersion;
+    private volatile boolean isWriteBehind = false;
+    private ScheduledExecutorService saver;
+    private Thread shutdownHook;
+    private final AtomicLong savesRequested = new AtomicLong();
+    private final AtomicLong savesPerformed = new AtomicLong();
+    private final Metrics metrics = Metrics.global();
 
     /**
      * Initialises a storage file under 'data' directory if either doesn't exist yet
      * @param fileName a String containing the name of the storage file
      */
     public Storage(String fileName) {
+        this(fileName, false);
+    }
+
+    /**
+     * Initialises a storage file under 'data' directory, optionally journaling mutations
+     * @param fileName a String containing the name of the storage file
+     * @param isJournaled whether mutations are appended to a journal rather than rewriting the file
+     */
+    public Storage(String fileName, boolean isJournaled) {
         assert fileName != null && !fileName.isBlank() : "Storage filename must not be null/blank";
         this.path = "./data/" + fileName;
+        this.isBinary = fileName.endsWith(BINARY_SUFFIX);
+        this.isJournaled = isJournaled;
+        this.journal = new Journal(Paths.get(this.path));
 
         // Check if user has './data' directory & creates if necessary
         File directory = new File("./data");
@@ -45,77 +134,723 @@ public class Storage {
     }
 
     /**
-     * Writes tasks into the storage file
+     * Checks whether this storage journals mutations instead of rewriting the file
+     * @return true if journaled
+     */
+    public boolean isJournaled() {
+        return isJournaled;
+    }
+
+    /**
+     * Writes tasks into the storage file, unless this list has not changed since it was last written.
+     * During a batch the write is left to the next {@link #commitBatch(TaskList)}, and in write-behind mode
+     * to the saver.
      * @param tasks a TaskList which is essentially a list of tasks
      */
     public void save(TaskList tasks) {
         assert tasks != null : "Tasks must not be null when saving";
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(this.path))) {
-            for (Task task : tasks.asList()) {
-                writer.write(task.toFormattedString()); // Convert task to string format
-                writer.newLine(); // Add a new line after each task
+        savesRequested.incrementAndGet();
+        if (isBatching) {
+            isDirty = true; // Written by the next commitBatch
+            return;
+        }
+        if (!isWriteBehind) {
+            Phase previous = PhaseTimer.enterPhase(Phase.SAVE);
+            try {
+                writeList(tasks);
+            } finally {
+                PhaseTimer.exitPhase(previous);
+            }
+        }
+    }
+
+    /**
+     * Writes the whole list unless it has not changed since it was last written. The list is locked while
+     * it is rendered, so that the saver thread captures a consistent state, but not while it goes to disk.
+     * The journal is rotated under the same lock, so entries appended while the list goes to disk stay in
+     * the active file, and only the rotated entries, which the list as rendered covers, are dropped.
+     * @return true if the list was written
+     */
+    private boolean writeList(TaskList tasks) {
+        long version;
+        long seq;
+        byte[] contents;
+        synchronized (tasks) {
+            version = tasks.getVersion();
+            if (tasks == savedList && version == savedVersion) {
+                return false;
+            }
+            seq = journal.lastSeq();
+            try {
+                contents = render(tasks.asList(), tasks.getNextId(), seq);
+                journal.rotate();
+            } catch (IOException e) {
+                System.out.println("An error occurred while saving tasks; the previous save is kept.");
+                e.printStackTrace();
+                return false;
+            }
+        }
+        synchronized (snapshotLock) {
+            if (tasks == savedList && version <= savedVersion) {
+                dropRotated(); // Another thread wrote this state, or a newer one, in the meantime
+                return false;
+            }
+            if (!writeSnapshot(contents, seq)) {
+                return false; // Keep the journal, which still holds the changes
+            }
+            savedList = tasks;
+            savedVersion = version;
+            savesPerformed.incrementAndGet();
+            dropRotated();
+        }
+        return true;
+    }
+
+    /**
+     * Deletes the rotated journal if the snapshot on disk covers it. Called under {@link #snapshotLock}.
+     */
+    private void dropRotated() {
+        try {
+            journal.dropRotated(snapshotSeq);
+        } catch (IOException e) {
+            System.out.println("An error occurred while removing the saved journal.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Persists a single mutation that has already been applied to {@code tasks}.
+     * Journaled storage appends the entry; otherwise the whole file is rewritten.
+     * @param tasks the list after the mutation
+     * @param entry the mutation that was applied
+     */
+    public void save(TaskList tasks, JournalEntry entry) {
+        assert entry != null : "Journal entry must not be null";
+        save(tasks, List.of(entry));
+    }
+
+    /**
+     * Persists several mutations that have already been applied to {@code tasks}, such as those of one bulk
+     * command. Journaled storage appends all the entries in one write; otherwise the file is rewritten once.
+     * @param tasks the list after the mutations
+     * @param entries the mutations that were applied, in order
+     */
+    public void save(TaskList tasks, List<JournalEntry> entries) {
+        Phase previous = PhaseTimer.enterPhase(Phase.SAVE);
+        try {
+            persist(tasks, entries);
+        } finally {
+            PhaseTimer.exitPhase(previous);
+        }
+    }
+
+    private void persist(TaskList tasks, List<JournalEntry> entries) {
+        assert tasks != null : "Tasks must not be null when saving";
+        assert entries != null : "Journal entries must not be null";
+        if (entries.isEmpty()) {
+            return;
+        }
+        savesRequested.incrementAndGet();
+        if (isBatching) {
+            isDirty = true; // Written by the next commitBatch
+            return;
+        }
+        if (isWriteBehind) {
+            return; // Written by the saver, which sees the list's version change
+        }
+        if (!isJournaled) {
+            writeList(tasks);
+            return;
+        }
+        long bytesBefore = journal.activeBytes();
+        try {
+            if (entries.size() == 1) {
+                journal.append(entries.get(0));
+            } else {
+                journal.appendAll(entries);
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred while journaling; saving the full list instead.");
+            e.printStackTrace();
+            writeList(tasks);
+            return;
+        }
+        savesPerformed.incrementAndGet();
+        metrics.countJournalWrite(journal.activeBytes() - bytesBefore);
+        if (journal.activeBytes() >= COMPACT_THRESHOLD_BYTES && !journal.hasRotated()) {
+            compactInBackground(tasks);
+        }
+    }
+
+    /**
+     * Starts a batch: mutations passed to {@link #save(TaskList, JournalEntry)} are held back until the next
+     * {@link #commitBatch(TaskList)} instead of being written one at a time.
+     */
+    public void beginBatch() {
+        isBatching = true;
+    }
+
+    /**
+     * Saves the whole list if anything changed since the batch began or was last committed.
+     * The batch stays open.
+     * @param tasks the current list
+     * @return true if the list was written
+     */
+    public boolean commitBatch(TaskList tasks) {
+        assert isBatching : "No batch is open";
+        if (!isDirty) {
+            return false;
+        }
+        isDirty = false;
+        return writeList(tasks);
+    }
+
+    /**
+     * Commits any outstanding changes and returns to saving every mutation as it happens.
+     * @param tasks the current list
+     * @return true if the list was written
+     */
+    public boolean endBatch(TaskList tasks) {
+        boolean isWritten = commitBatch(tasks);
+        isBatching = false;
+        return isWritten;
+    }
+
+    /**
+     * Switches to write-behind mode: mutations are no longer written as they happen, and instead a background
+     * thread writes the whole list at most once per interval if it has changed. Anything still unwritten is
+     * also written by {@link #flush(TaskList)}, {@link #stopWriteBehind(TaskList)} and, should the program
+     * end without either, a shutdown hook. Whoever changes the list must hold its lock while doing so, as
+     * {@code Mumbo} does, because the saver takes the lock while it captures the list.
+     * @param tasks the list to keep saved
+     * @param intervalMillis the shortest time between two writes, in milliseconds
+     */
+    public synchronized void startWriteBehind(TaskList tasks, long intervalMillis) {
+        assert tasks != null : "Tasks must not be null";
+        assert intervalMillis > 0 : "Save interval must be positive";
+        assert saver == null : "Write-behind is already running";
+        isWriteBehind = true;
+        saver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "mumbo-saver");
+            t.setDaemon(true);
+            return t;
+        });
+        saver.scheduleWithFixedDelay(() -> {
+            try {
+                writeList(tasks);
+            } catch (RuntimeException e) {
+                System.out.println("An error occurred while saving tasks in the background.");
+                e.printStackTrace(); // Caught so that later runs are still scheduled
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        shutdownHook = new Thread(() -> writeList(tasks), "mumbo-flush");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Writes the whole list now if it has changed since it was last written, in any mode. For journaled
+     * storage this also folds the journal into the file.
+     * @param tasks the current list
+     * @return true if the list was written
+     */
+    public boolean flush(TaskList tasks) {
+        assert tasks != null : "Tasks must not be null";
+        Phase previous = PhaseTimer.enterPhase(Phase.SAVE);
+        try {
+            return writeList(tasks);
+        } finally {
+            PhaseTimer.exitPhase(previous);
+        }
+    }
+
+    /**
+     * Stops the background saver, if one is running, and writes anything it had not written yet.
+     * Mutations are then saved as they happen again.
+     * Must not be called while holding the list's lock, since it waits for the saver, which takes that lock.
+     * @param tasks the current list
+     * @return true if the list was written
+     */
+    public synchronized boolean stopWriteBehind(TaskList tasks) {
+        if (saver == null) {
+            return false;
+        }
+        saver.shutdown();
+        try {
+            saver.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down; the hook writes the list as well
+        }
+        saver = null;
+        isWriteBehind = false;
+        return flush(tasks);
+    }
+
+    /**
+     * Writes anything the background saver had not written yet and stops the storage's background threads,
+     * waiting for a compaction in progress to finish, so that another storage may open the same file
+     * afterwards. The list must no longer be changed through this storage. Must not be called while holding
+     * the list's lock.
+     * @param tasks the current list
+     * @return true if the list had unwritten changes, which have now been written
+     */
+    public synchronized boolean close(TaskList tasks) {
+        boolean isWritten = stopWriteBehind(tasks);
+        ExecutorService running;
+        synchronized (tasks) {
+            running = compactor; // Started under the list's lock
+            compactor = null;
+        }
+        if (running != null) {
+            running.shutdown();
+            try {
+                running.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return isWritten;
+    }
+
+    /**
+     * Counts the mutations and explicit saves that asked for the list to be persisted
+     * @return the number of save requests since this storage was created
+     */
+    public long getSavesRequested() {
+        return savesRequested.get();
+    }
+
+    /**
+     * Counts the writes that actually reached the disk, whether of the whole list or of journal entries.
+     * Background compactions are not counted.
+     * @return the number of writes since this storage was created
+     */
+    public long getSavesPerformed() {
+        return savesPerformed.get();
+    }
+
+    /**
+     * Rotates the journal and writes a fresh snapshot off the caller's thread.
+     * The list is copied here so later mutations cannot change what the snapshot covers.
+     */
+    private void compactInBackground(TaskList tasks) {
+        List<Task> copy = tasks.asList();
+        int nextId = tasks.getNextId();
+        long seq = journal.lastSeq();
+        try {
+            journal.rotate();
+        } catch (IOException e) {
+            System.out.println("An error occurred while rotating the journal.");
+            e.printStackTrace();
+            return;
+        }
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "mumbo-compactor");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        compactor.submit(() -> {
+            byte[] contents;
+            try {
+                contents = render(copy, nextId, seq);
+            } catch (IOException e) {
+                System.out.println("An error occurred while compacting the journal.");
+                e.printStackTrace();
+                return;
+            }
+            synchronized (snapshotLock) {
+                if (writeSnapshot(contents, seq)) {
+                    dropRotated();
+                }
             }
+        });
+    }
+
+    /**
+     * Writes a snapshot covering every journal entry up to {@code seq}, unless a newer one already exists.
+     * @param contents the snapshot, as rendered by {@link #render(List, int, long)}
+     * @return true if the snapshot on disk now covers {@code seq}
+     */
+    private boolean writeSnapshot(byte[] contents, long seq) {
+        if (seq < snapshotSeq) {
+            return true;
+        }
+        try {
+            AtomicFile.write(Paths.get(this.path), out -> out.write(contents));
         } catch (IOException e) {
-            System.out.println("An error occurred while saving tasks.");
+            System.out.println("An error occurred while saving tasks; the previous save is kept.");
             e.printStackTrace();
+            return false;
+        }
+        snapshotSeq = seq;
+        metrics.countFullSave(contents.length);
+        return true;
+    }
+
+    /**
+     * Renders the tasks in this storage's format, ready to be written in one go.
+     * @param nextId the id the list will give its next task
+     * @param seq the journal sequence number covered, recorded in the header when journaled
+     * @return the contents of the storage file
+     * @throws IOException if the tasks cannot be represented, e.g. they are too many for a binary snapshot
+     */
+    private byte[] render(List<Task> tasks, int nextId, long seq) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (isBinary) {
+            BinarySnapshot.write(out, tasks, nextId, seq);
+        } else {
+            writeText(out, tasks, nextId, isJournaled ? seq : -1);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes tasks in the pipe-delimited text format, led by its version and each line by the task's id,
+     * and ends with a checksum of everything before it
+     * @param out the destination; it is not closed
+     * @param nextId the id the list will give its next task, recorded as a header
+     * @param seq the journal sequence number to record as a header, or -1 for none
+     */
+    private void writeText(OutputStream out, List<Task> tasks, int nextId, long seq) throws IOException {
+        CRC32C crc = new CRC32C();
+        BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(new CheckedOutputStream(out, crc), StandardCharsets.UTF_8));
+        writer.write(FORMAT_HEADER + TaskLineParser.CURRENT_VERSION);
+        writer.newLine();
+        if (seq >= 0) {
+            writer.write(SEQ_HEADER + seq);
+            writer.newLine();
+        }
+        writer.write(NEXT_ID_HEADER + nextId);
+        writer.newLine();
+        for (Task task : tasks) {
+            writer.write(task.getId() + " | " + task.toFormattedString()); // Convert task to string format
+            writer.newLine(); // Add a new line after each task
+        }
+        writer.flush();
+        String footer = CHECKSUM_FOOTER + String.format("%08x", crc.getValue()) + System.lineSeparator();
+        out.write(footer.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Checks a text file against the checksum it ends with
+     * @param data the whole file
+     * @return the number of bytes the checksum covers, which is the whole file if it predates checksums,
+     *     or -1 if the file does not match its checksum or lost it to a torn write
+     */
+    private static int checkText(byte[] data) {
+        if (!startsWith(data, FORMAT_HEADER) && !startsWith(data, CHECKSUM_HEADER)) {
+            return data.length;
+        }
+        int end = data.length;
+        while (end > 0 && (data[end - 1] == '\n' || data[end - 1] == '\r')) {
+            end--;
+        }
+        int footerStart = end;
+        while (footerStart > 0 && data[footerStart - 1] != '\n') {
+            footerStart--;
+        }
+        String footer = new String(data, footerStart, end - footerStart, StandardCharsets.UTF_8);
+        if (!footer.startsWith(CHECKSUM_FOOTER)) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(data, 0, footerStart);
+        String expected = String.format("%08x", crc.getValue());
+        return footer.substring(CHECKSUM_FOOTER.length()).trim().equals(expected) ? footerStart : -1;
+    }
+
+    private static boolean startsWith(byte[] data, String prefix) {
+        byte[] bytes = prefix.getBytes(StandardCharsets.UTF_8);
+        return data.length >= bytes.length
+                && Arrays.equals(data, 0, bytes.length, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Reads tasks in the pipe-delimited text format, after checking the file's checksum.
+     * Sets {@link #isLegacyFormat} if the file has no next-id header.
+     * @param out the list to append loaded tasks to
+     * @return the journal sequence number recorded in the header, or 0 if there is none
+     * @throws DamagedFileException if the file does not match its checksum
+     */
+    private long readText(Path file, TaskList out) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        int length = checkText(data);
+        if (length < 0) {
+            throw new DamagedFileException(file);
+        }
+        return parseText(data, length, out, false);
+    }
+
+    /**
+     * Parses tasks in the pipe-delimited text format. Tasks keep the ids their lines are led by; lines
+     * written before tasks had ids, or whose ids are out of order, get the list's next id.
+     * The header lines are read first; the task lines after them are parsed in parallel when there are
+     * enough of them (see {@link ChunkedTextParser}).
+     * Sets {@link #isLegacyFormat} if the text has no next-id header, and {@link #schemaVersion} to the
+     * version in its format header, or 0 if it has none.
+     * @param length the number of bytes of {@code data} to parse
+     * @param isSalvaging whether the text is known to be damaged, in which case lines that cannot be read
+     *     are skipped silently rather than reported
+     * @return the journal sequence number recorded in the header, or 0 if there is none
+     * @throws IOException if the text was written by a newer version of Mumbo
+     */
+    private long parseText(byte[] data, int length, TaskList out, boolean isSalvaging) throws IOException {
+        long seq = 0;
+        int nextId = 0;
+        isLegacyFormat = true;
+        schemaVersion = 0;
+        int start = 0;
+        while (start < length && data[start] == '#') {
+            int end = start;
+            while (end < length && data[end] != '\n') {
+                end++;
+            }
+            String line = new String(data, start, end - start, StandardCharsets.UTF_8).trim();
+            if (line.startsWith(FORMAT_HEADER)) {
+                schemaVersion = Integer.parseInt(line.substring(FORMAT_HEADER.length()));
+                if (schemaVersion > TaskLineParser.CURRENT_VERSION) {
+                    throw new IOException("Storage format v" + schemaVersion + " is newer than this version "
+                            + "of Mumbo can read.");
+                }
+            } else if (line.startsWith(SEQ_HEADER)) {
+                seq = Long.parseLong(line.substring(SEQ_HEADER.length()));
+            } else if (line.startsWith(NEXT_ID_HEADER)) {
+                nextId = Integer.parseInt(line.substring(NEXT_ID_HEADER.length()));
+                isLegacyFormat = false;
+            }
+            start = end + 1;
         }
+        for (ChunkedTextParser.Chunk chunk : ChunkedTextParser.parse(data, start, length, schemaVersion)) {
+            if (!isSalvaging) {
+                for (String line : chunk.getUnreadable()) {
+                    System.out.println("Skipping a stored task that could not be read: " + line);
+                }
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                int id = chunk.idAt(i);
+                if (id >= out.getNextId()) {
+                    out.add(id, chunk.taskAt(i));
+                } else {
+                    out.add(chunk.taskAt(i));
+                }
+            }
+        }
+        out.advanceNextId(nextId); // Only now, so that the ids read above are not taken as out of order
+        return seq;
+    }
+
+    /**
+     * Reads a pipe-delimited text file from the 'data' directory
+     * @param fileName a String containing the name of the text file
+     * @return the tasks in the file
+     * @throws IOException if the file cannot be read
+     */
+    public TaskList importText(String fileName) throws IOException {
+        assert fileName != null && !fileName.isBlank() : "Import filename must not be null/blank";
+        TaskList tasks = new TaskList(new ArrayList<>());
+        readText(Paths.get("./data/" + fileName), tasks);
+        return tasks;
     }
 
     /**
-     * Reads the storage file and loads the stored list of tasks
+     * Writes tasks to a pipe-delimited text file in the 'data' directory
+     * @param tasks the tasks to export
+     * @param fileName a String containing the name of the text file
+     * @throws IOException if the file cannot be written
+     */
+    public void exportText(TaskList tasks, String fileName) throws IOException {
+        assert tasks != null : "Tasks must not be null when exporting";
+        assert fileName != null && !fileName.isBlank() : "Export filename must not be null/blank";
+        List<Task> list = tasks.asList();
+        AtomicFile.write(Paths.get("./data/" + fileName), out -> writeText(out, list, tasks.getNextId(), -1));
+    }
+
+    /**
+     * Reads the storage file and loads the stored list of tasks. A damaged file is recovered from as far as
+     * possible and rewritten.
      * @return returns the saved list of tasks
      */
     public TaskList load() {
-        ArrayList<Task> tasks = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(this.path))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                // Parse each line to create the appropriate task
-                Task task = parseTask(line);
-                tasks.add(task);
+        long startNanos = System.nanoTime();
+        Path file = Paths.get(this.path);
+        TaskList list;
+        boolean isLegacy;
+        boolean isRecovered = false;
+        loadedSeq = 0;
+        schemaVersion = TaskLineParser.CURRENT_VERSION;
+        try {
+            if (isBinary && Files.size(file) == 0 && Files.exists(legacyTextPath())) {
+                System.out.println("Importing tasks from " + legacyTextPath().getFileName() + ".");
+                list = new TaskList(new ArrayList<>());
+                readText(legacyTextPath(), list);
+                isLegacy = true; // Rewritten as a binary snapshot below
+            } else {
+                list = read(file);
+                isLegacy = isLegacyFormat;
             }
+        } catch (DamagedFileException e) {
+            list = recover(e.getFile());
+            isLegacy = isLegacyFormat;
+            isRecovered = true;
         } catch (IOException e) {
             System.out.println("An error occurred while loading tasks.");
             e.printStackTrace();
+            list = new TaskList(new ArrayList<>());
+            isLegacy = false;
         }
-        return new TaskList(tasks);
+        long seq = loadedSeq;
+        snapshotSeq = seq;
+        List<JournalEntry> entries = journal.readSince(seq);
+        TaskLineParser parser = new TaskLineParser(schemaVersion); // The journal was written alongside the file
+        for (JournalEntry entry : entries) {
+            replay(list, entry, isLegacy, parser);
+        }
+        if (isLegacy || isRecovered || schemaVersion < TaskLineParser.CURRENT_VERSION
+                || (!isJournaled && !entries.isEmpty()) || journal.hasRotated()) {
+            // Fold a journal left behind by a journaled session into the file, record task ids in a file
+            // written before tasks had them, so that later journal entries can refer to the ids, migrate a
+            // file written in an older format, and replace a damaged file with what was recovered. A rotated
+            // journal left by a compaction that never finished is folded in too, as compaction stays off
+            // while one exists.
+            writeList(list);
+        } else {
+            savedList = list; // The file already holds this list, so there is nothing to save until it changes
+            savedVersion = entries.isEmpty() ? list.getVersion() : -1;
+        }
+        metrics.recordLoad(System.nanoTime() - startNanos, list.size());
+        return list;
     }
 
     /**
-     * A helper function to read the storage file and convert them into the appropriate tasks
-     * @param line a String containing a stored task
-     * @return generates a task
+     * Reads a storage file of either format, checking its checksum.
+     * Sets {@link #loadedSeq}, {@link #isLegacyFormat} and {@link #schemaVersion}.
+     * @throws DamagedFileException if the file does not match its checksum
      */
-    @SuppressWarnings("checkstyle:Indentation")
-    public Task parseTask(String line) {
-        assert line != null : "Stored line must not be null";
-        // Split the line using a delimiter
-        String[] parts = line.split("\\|");
-
-        // Trim each part to remove leading and trailing spaces
-        for (int i = 0; i < parts.length; i++) {
-            parts[i] = parts[i].trim();
+    private TaskList read(Path file) throws IOException {
+        if (!BinarySnapshot.isBinary(file)) {
+            TaskList list = new TaskList(new ArrayList<>());
+            loadedSeq = readText(file, list);
+            return list;
         }
+        BinarySnapshot snapshot = BinarySnapshot.open(file);
+        if (!snapshot.verify()) {
+            throw new DamagedFileException(file);
+        }
+        loadedSeq = snapshot.getJournalSeq();
+        isLegacyFormat = !snapshot.hasIds();
+        schemaVersion = TaskLineParser.CURRENT_VERSION; // Snapshots have always kept done flags and tags
+        int[] ids = new int[snapshot.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = isLegacyFormat ? i + 1 : snapshot.idAt(i);
+        }
+        TaskList list = new TaskList(ids, snapshot::materialize);
+        list.advanceNextId(snapshot.getNextId());
+        return list;
+    }
 
-        // Depending on the task type, create accordingly
-        return switch (parts[0]) {
-        case "T" -> {
-            assert parts.length >= 3 : "Todo storage line must have at least 3 parts";
-            yield new Todo(parts[2]);
+    /**
+     * Rebuilds the list from a damaged storage file, which is first copied aside so that nothing is lost for
+     * good. A complete temporary file, left by a save that stopped just short of its rename, is used if
+     * there is one; otherwise every task that can still be read from a text file is kept.
+     */
+    private TaskList recover(Path file) {
+        Path damaged = file.resolveSibling(file.getFileName() + DAMAGED_SUFFIX);
+        System.out.println("The storage file appears to be damaged; a copy has been kept as "
+                + damaged.getFileName() + ".");
+        try {
+            Files.copy(file, damaged, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.out.println("An error occurred while keeping a copy of the damaged file.");
+            e.printStackTrace();
         }
-        case "D" -> {
-            assert parts.length >= 4 : "Deadline storage line must have at least 4 parts";
-            yield new Deadline(parts[2], DateTimeUtil.parseIso(parts[3]));
+        Path tmp = AtomicFile.tempOf(file);
+        if (Files.exists(tmp)) {
+            try {
+                TaskList list = read(tmp);
+                System.out.println("Recovered the tasks from an unfinished save.");
+                return list;
+            } catch (IOException e) {
+                // Damaged as well; fall back to the main file
+            }
         }
-        case "E" -> {
-            assert parts.length >= 5 : "Event storage line must have at least 5 parts";
-            yield new Event(parts[2], DateTimeUtil.parseIso(parts[3]), DateTimeUtil.parseIso(parts[4]));
+        TaskList list = new TaskList(new ArrayList<>());
+        loadedSeq = 0;
+        isLegacyFormat = false;
+        schemaVersion = TaskLineParser.CURRENT_VERSION;
+        if (!BinarySnapshot.isBinary(file)) {
+            try {
+                byte[] data = Files.readAllBytes(file);
+                loadedSeq = parseText(data, data.length, list, true);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("An error occurred while reading the damaged file.");
+                e.printStackTrace();
+            }
         }
-        default -> {
-            System.out.println("Unknown task type: " + parts[0]);
-            assert false : "Unknown task type in storage";
-            yield null;
+        System.out.println("Recovered " + list.size() + " task(s).");
+        return list;
+    }
+
+    /**
+     * Gets the text file a binary store imports from on first use, e.g. 'tasks.txt' for 'tasks.bin'.
+     */
+    private Path legacyTextPath() {
+        String base = this.path.substring(0, this.path.length() - BINARY_SUFFIX.length());
+        return Paths.get(base + ".txt");
+    }
+
+    /**
+     * Re-applies a journaled mutation. Entries that no longer fit the list are skipped.
+     * @param isPositional whether the entry comes from a journal written before tasks had ids, so that it
+     *     refers to tasks by their 1-based position in the list
+     * @param parser reads added tasks in the format the journal was written in
+     */
+    @SuppressWarnings("checkstyle:Indentation")
+    private void replay(TaskList tasks, JournalEntry entry, boolean isPositional, TaskLineParser parser) {
+        int id = entry.getTaskId();
+        boolean isTargeted = entry.getOp() != JournalEntry.Op.ADD && entry.getOp() != JournalEntry.Op.CLEAR;
+        if (isTargeted && isPositional) {
+            if (id < 1 || id > tasks.size()) {
+                System.out.println("Skipping journal entry " + entry.getSeq() + ": index out of range.");
+                return;
+            }
+            id = tasks.get(id - 1).getId();
+        } else if (isTargeted && !tasks.contains(id)) {
+            System.out.println("Skipping journal entry " + entry.getSeq() + ": no task with id " + id + ".");
+            return;
+        }
+        switch (entry.getOp()) {
+        case ADD -> {
+            String payload = entry.getPayload();
+            Task task = parser.parse(payload, 0, payload.length());
+            if (task != null && id >= tasks.getNextId()) {
+                tasks.add(id, task);
+            } else if (task != null) {
+                tasks.add(task);
+            }
+        }
+        case MARK -> tasks.mark(id, true);
+        case UNMARK -> tasks.mark(id, false);
+        case DELETE -> tasks.delete(id);
+        case TAG -> tasks.tag(id, entry.getPayload());
+        case CLEAR -> tasks.clear();
+        default -> System.out.println("Skipping unknown journal entry " + entry.getSeq() + ".");
         }
-        };
+    }
+
+    /**
+     * A helper function to read the storage file and convert them into the appropriate tasks
+     * @param line a String containing a stored task, in the current format
+     * @return generates a task, or null if the line does not hold one
+     */
+    public Task parseTask(String line) {
+        assert line != null : "Stored line must not be null";
+        return new TaskLineParser(TaskLineParser.CURRENT_VERSION).parse(line, 0, line.length());
     }
 }
@@ -0,0 +1,226 @@
+package mumbo.storage;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+import mumbo.task.Deadline;
+import mumbo.task.Event;
+import mumbo.task.Task;
+import mumbo.task.Todo;
+
+/**
+ * Parses lines of the text storage format without splitting them: the fields are found by scanning for the
+ * bars between them, and only the description and tags are copied out of the line.
+ *
+ * <p>Version 1 lines read {@code id | type | done | description [| date [| date]] [| tags]}. The description
+ * and tags escape backslashes, bars and line breaks as {@link Task#toFormattedString()} does, and the tags
+ * are separated by spaces. Version 0 lines, written before the format was versioned, have no escapes and no
+ * tags, and may lack the leading id.</p>
+ *
+ * <p>A parser keeps scratch state between lines and is not thread-safe.</p>
+ */
+final class TaskLineParser {
+    /** The version of the format written by this version of Mumbo */
+    static final int CURRENT_VERSION = 1;
+
+    private final boolean isEscaped;
+    private final StringBuilder scratch = new StringBuilder();
+    private CharSequence line;
+    private int next; // Where the field after the current one starts, or -1 after the last field
+    private int end;
+    private int fieldStart;
+    private int fieldEnd;
+    private int id;
+
+    /**
+     * Creates a parser for one version of the format
+     * @param version the version the lines were written in
+     */
+    TaskLineParser(int version) {
+        assert version >= 0 && version <= CURRENT_VERSION : "Unknown storage format version " + version;
+        this.isEscaped = version >= 1;
+    }
+
+    /**
+     * Parses one stored line
+     * @param text the text holding the line
+     * @param from the index of the first character of the line
+     * @param to the index after the last character of the line
+     * @return the task, or null if the line does not hold a complete task
+     */
+    Task parse(CharSequence text, int from, int to) {
+        line = text;
+        next = from;
+        end = to;
+        id = 0;
+        if (!nextField()) {
+            return null;
+        }
+        if (isNumber()) {
+            id = toInt();
+            if (!nextField()) {
+                return null;
+            }
+        }
+        if (fieldEnd - fieldStart != 1) {
+            return null;
+        }
+        char type = line.charAt(fieldStart);
+        if (!nextField() || fieldEnd - fieldStart != 1) {
+            return null;
+        }
+        boolean isDone = line.charAt(fieldStart) == '1';
+        if (!nextField() || fieldStart == fieldEnd) {
+            return null;
+        }
+        String description = text();
+
+        Task task;
+        try {
+            switch (type) {
+            case 'T':
+                task = new Todo(description);
+                break;
+            case 'D':
+                task = nextField() ? new Deadline(description, toDateTime()) : null;
+                break;
+            case 'E':
+                LocalDateTime start = nextField() ? toDateTime() : null;
+                task = start != null && nextField() ? new Event(description, start, toDateTime()) : null;
+                break;
+            default:
+                task = null;
+                break;
+            }
+        } catch (DateTimeException e) {
+            return null; // A date cut short, for example
+        }
+        if (task == null) {
+            return null;
+        }
+        task.mark(isDone);
+        if (isEscaped && nextField()) {
+            addTags(task, text());
+        }
+        return task;
+    }
+
+    /**
+     * Gets the id that led the last line parsed
+     * @return the id, or 0 if the line had none
+     */
+    int getId() {
+        return id;
+    }
+
+    /**
+     * Moves to the next field, trimmed of the spaces around it
+     * @return false if the line has no more fields
+     */
+    private boolean nextField() {
+        if (next < 0) {
+            return false;
+        }
+        int i = next;
+        while (i < end && line.charAt(i) != '|') {
+            i += isEscaped && line.charAt(i) == '\\' ? 2 : 1;
+        }
+        i = Math.min(i, end);
+        fieldStart = next;
+        fieldEnd = i;
+        next = i < end ? i + 1 : -1;
+        while (fieldStart < fieldEnd && line.charAt(fieldStart) == ' ') {
+            fieldStart++;
+        }
+        while (fieldEnd > fieldStart && line.charAt(fieldEnd - 1) == ' ') {
+            fieldEnd--;
+        }
+        return true;
+    }
+
+    private boolean isNumber() {
+        if (fieldStart == fieldEnd || fieldEnd - fieldStart > 9) {
+            return false;
+        }
+        for (int i = fieldStart; i < fieldEnd; i++) {
+            if (line.charAt(i) < '0' || line.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int toInt() {
+        int n = 0;
+        for (int i = fieldStart; i < fieldEnd; i++) {
+            n = n * 10 + (line.charAt(i) - '0');
+        }
+        return n;
+    }
+
+    /**
+     * Copies the current field out of the line, undoing its escapes.
+     */
+    private String text() {
+        if (!isEscaped) {
+            return line.subSequence(fieldStart, fieldEnd).toString();
+        }
+        scratch.setLength(0);
+        for (int i = fieldStart; i < fieldEnd; i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < fieldEnd) {
+                char escaped = line.charAt(++i);
+                c = escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped;
+            }
+            scratch.append(c);
+        }
+        return scratch.toString();
+    }
+
+    /**
+     * Reads the current field as a date and time, as written by {@link LocalDateTime#toString()}. The usual
+     * {@code yyyy-MM-ddTHH:mm} and {@code yyyy-MM-ddTHH:mm:ss} forms are read directly; anything else is left
+     * to {@link LocalDateTime#parse(CharSequence)}.
+     */
+    private LocalDateTime toDateTime() {
+        int length = fieldEnd - fieldStart;
+        if ((length == 16 || length == 19) && hasDateTimeShape(length)) {
+            return LocalDateTime.of(digits(0, 4), digits(5, 2), digits(8, 2), digits(11, 2), digits(14, 2),
+                    length == 19 ? digits(17, 2) : 0);
+        }
+        return LocalDateTime.parse(line.subSequence(fieldStart, fieldEnd));
+    }
+
+    private boolean hasDateTimeShape(int length) {
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(fieldStart + i);
+            char expected = i == 4 || i == 7 ? '-' : i == 10 ? 'T' : i == 13 || i == 16 ? ':' : '0';
+            if (expected == '0' ? c < '0' || c > '9' : c != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int digits(int offset, int count) {
+        int n = 0;
+        for (int i = fieldStart + offset; i < fieldStart + offset + count; i++) {
+            n = n * 10 + (line.charAt(i) - '0');
+        }
+        return n;
+    }
+
+    private static void addTags(Task task, String tags) {
+        int i = 0;
+        while (i < tags.length()) {
+            int start = i;
+            while (i < tags.length() && tags.charAt(i) != ' ') {
+                i++;
+            }
+            if (i > start) {
+                task.tag(tags.substring(start, i));
+            }
+            i++;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package mumbo.task;
+
+import java.util.Arrays;
+
+/**
+ * A compressed set of non-negative ints in the style of a roaring bitmap.
+ *
+ * <p>Values are split into a high 16-bit key and a low 16-bit part. Each key owns a container which
+ * is a sorted {@code char[]} while it holds at most {@value #ARRAY_LIMIT} values and a 65536-bit
+ * {@code long[]} bitmap beyond that, so sparse tags stay small and dense tags intersect quickly.</p>
+ */
+class CompactBitmap {
+    static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private char[] keys = new char[4];
+    private Object[] containers = new Object[4]; // char[] (sorted array) or long[] (bitmap)
+    private int[] cardinalities = new int[4];
+    private int size;
+
+    void add(int value) {
+        assert value >= 0 : "Bitmap values must be non-negative";
+        char key = (char) (value >>> 16);
+        char low = (char) value;
+        int k = Arrays.binarySearch(keys, 0, size, key);
+        if (k < 0) {
+            k = insertContainer(-k - 1, key);
+        }
+        Object c = containers[k];
+        if (c instanceof long[]) {
+            long[] bits = (long[]) c;
+            long mask = 1L << low;
+            if ((bits[low >>> 6] & mask) == 0) {
+                bits[low >>> 6] |= mask;
+                cardinalities[k]++;
+            }
+            return;
+        }
+        char[] array = (char[]) c;
+        int n = cardinalities[k];
+        int at = Arrays.binarySearch(array, 0, n, low);
+        if (at >= 0) {
+            return;
+        }
+        at = -at - 1;
+        if (n == ARRAY_LIMIT) {
+            long[] bits = toBitmap(array, n);
+            bits[low >>> 6] |= 1L << low;
+            containers[k] = bits;
+        } else {
+            if (n == array.length) {
+                array = Arrays.copyOf(array, Math.min(ARRAY_LIMIT, n * 2));
+                containers[k] = array;
+            }
+            System.arraycopy(array, at, array, at + 1, n - at);
+            array[at] = low;
+        }
+        cardinalities[k]++;
+    }
+
+    void remove(int value) {
+        char key = (char) (value >>> 16);
+        char low = (char) value;
+        int k = Arrays.binarySearch(keys, 0, size, key);
+        if (k < 0) {
+            return;
+        }
+        Object c = containers[k];
+        if (c instanceof long[]) {
+            long[] bits = (long[]) c;
+            long mask = 1L << low;
+            if ((bits[low >>> 6] & mask) == 0) {
+                return;
+            }
+            bits[low >>> 6] &= ~mask;
+            cardinalities[k]--;
+            if (cardinalities[k] <= ARRAY_LIMIT) {
+                containers[k] = toArray(bits, cardinalities[k]);
+            }
+        } else {
+            char[] array = (char[]) c;
+            int n = cardinalities[k];
+            int at = Arrays.binarySearch(array, 0, n, low);
+            if (at < 0) {
+                return;
+            }
+            System.arraycopy(array, at + 1, array, at, n - at - 1);
+            cardinalities[k]--;
+        }
+        if (cardinalities[k] == 0) {
+            removeContainer(k);
+        }
+    }
+
+    boolean contains(int value) {
+        char key = (char) (value >>> 16);
+        char low = (char) value;
+        int k = Arrays.binarySearch(keys, 0, size, key);
+        if (k < 0) {
+            return false;
+        }
+        Object c = containers[k];
+        if (c instanceof long[]) {
+            return (((long[]) c)[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) c, 0, cardinalities[k], low) >= 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int cardinality() {
+        int total = 0;
+        for (int k = 0; k < size; k++) {
+            total += cardinalities[k];
+        }
+        return total;
+    }
+
+    /**
+     * Returns a new bitmap holding the values present in both bitmaps.
+     */
+    CompactBitmap and(CompactBitmap other) {
+        CompactBitmap out = new CompactBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                long[] bits = andBits(toBits(i), other.toBits(j));
+                out.appendFromBits(keys[i], bits);
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Returns a new bitmap holding the values present in either bitmap.
+     */
+    CompactBitmap or(CompactBitmap other) {
+        CompactBitmap out = new CompactBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                out.appendFromBits(keys[i], toBits(i));
+                i++;
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                out.appendFromBits(other.keys[j], other.toBits(j));
+                j++;
+            } else {
+                long[] bits = toBits(i);
+                long[] theirs = other.toBits(j);
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    bits[w] |= theirs[w];
+                }
+                out.appendFromBits(keys[i], bits);
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Lists every value in increasing order
+     * @return the values as an IntArray
+     */
+    IntArray toIntArray() {
+        IntArray out = new IntArray(Math.max(1, cardinality()));
+        for (int k = 0; k < size; k++) {
+            int high = keys[k] << 16;
+            Object c = containers[k];
+            if (c instanceof long[]) {
+                long[] bits = (long[]) c;
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    long word = bits[w];
+                    while (word != 0) {
+                        out.add(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                char[] array = (char[]) c;
+                for (int i = 0; i < cardinalities[k]; i++) {
+                    out.add(high | array[i]);
+                }
+            }
+        }
+        return out;
+    }
+
+    private int insertContainer(int at, char key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+            cardinalities = Arrays.copyOf(cardinalities, size * 2);
+        }
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        System.arraycopy(containers, at, containers, at + 1, size - at);
+        System.arraycopy(cardinalities, at, cardinalities, at + 1, size - at);
+        keys[at] = key;
+        containers[at] = new char[4];
+        cardinalities[at] = 0;
+        size++;
+        return at;
+    }
+
+    private void removeContainer(int at) {
+        System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+        System.arraycopy(containers, at + 1, containers, at, size - at - 1);
+        System.arraycopy(cardinalities, at + 1, cardinalities, at, size - at - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    /**
+     * Appends a container for a key larger than every key present, choosing its representation by cardinality.
+     */
+    private void appendFromBits(char key, long[] bits) {
+        int cardinality = 0;
+        for (long word : bits) {
+            cardinality += Long.bitCount(word);
+        }
+        if (cardinality == 0) {
+            return;
+        }
+        int k = insertContainer(size, key);
+        containers[k] = cardinality > ARRAY_LIMIT ? bits : toArray(bits, cardinality);
+        cardinalities[k] = cardinality;
+    }
+
+    /**
+     * Gets container {@code k} as a fresh bitmap that the caller may modify.
+     */
+    private long[] toBits(int k) {
+        Object c = containers[k];
+        if (c instanceof long[]) {
+            return ((long[]) c).clone();
+        }
+        return toBitmap((char[]) c, cardinalities[k]);
+    }
+
+    private static long[] andBits(long[] a, long[] b) {
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            a[w] &= b[w];
+        }
+        return a;
+    }
+
+    private static long[] toBitmap(char[] array, int n) {
+        long[] bits = new long[BITMAP_WORDS];
+        for (int i = 0; i < n; i++) {
+            bits[array[i] >>> 6] |= 1L << array[i];
+        }
+        return bits;
+    }
+
+    private static char[] toArray(long[] bits, int cardinality) {
+        char[] array = new char[Math.max(4, cardinality)];
+        int n = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                array[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return array;
+    }
+}
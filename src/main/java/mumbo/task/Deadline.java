@@ -24,9 +24,17 @@ public class Deadline extends Task {
         this.deadline = deadline;
     }
 
+    /**
+     * A getter method to get the Deadline's due date and time
+     * @return a LocalDateTime representing the deadline
+     */
+    public LocalDateTime getDeadline() {
+        return this.deadline;
+    }
+
     @Override
     public String toFormattedString() {
-        return "D | " + (isDone ? "1" : "0") + " | " + task + " | " + deadline;
+        return "D | " + (isDone ? "1" : "0") + " | " + escape(task) + " | " + deadline + formatTags();
     }
 
     @Override
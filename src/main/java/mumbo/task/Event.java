@@ -29,12 +29,29 @@ public class Event extends Task {
         this.end = end;
     }
 
+    /**
+     * A getter method to get the Event's start
+     * @return a LocalDateTime representing the start of the event
+     */
+    public LocalDateTime getStart() {
+        return this.start;
+    }
+
+    /**
+     * A getter method to get the Event's end
+     * @return a LocalDateTime representing the end of the event
+     */
+    public LocalDateTime getEnd() {
+        return this.end;
+    }
+
     @Override
     public String toFormattedString() {
         return "E | " + (isDone ? "1" : "0") + " | "
-                + task + " | "
+                + escape(task) + " | "
                 + start + " | "
-                + end;
+                + end
+                + formatTags();
     }
 
     @Override
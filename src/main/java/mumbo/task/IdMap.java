@@ -0,0 +1,132 @@
+package mumbo.task;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from positive task ids to tasks, without boxing the keys.
+ *
+ * <p>Keys are probed linearly from a multiplicative hash and removal shifts later entries back into the
+ * gap, so the table never fills up with tombstones. An id may be present with a null task, which
+ * {@link TaskList} uses for tasks that have not been loaded yet.</p>
+ */
+class IdMap {
+    private static final int EMPTY = 0; // Ids start from 1
+
+    private int[] keys;
+    private Task[] values;
+    private int mask;
+    private int size;
+
+    IdMap() {
+        this(8);
+    }
+
+    IdMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(8, expected * 2 - 1)) << 1;
+        this.keys = new int[capacity];
+        this.values = new Task[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Copies another map; later changes to either are not seen by the other
+     */
+    IdMap(IdMap other) {
+        this.keys = other.keys.clone();
+        this.values = other.values.clone();
+        this.mask = other.mask;
+        this.size = other.size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(int id) {
+        return keys[find(id)] == id;
+    }
+
+    /**
+     * Gets the task stored under an id
+     * @return the task, or null if the id is absent or its task is not loaded yet
+     */
+    Task get(int id) {
+        int slot = find(id);
+        return keys[slot] == id ? values[slot] : null;
+    }
+
+    void put(int id, Task t) {
+        assert id > EMPTY : "Ids must be positive";
+        int slot = find(id);
+        if (keys[slot] != id) {
+            keys[slot] = id;
+            size++;
+        }
+        values[slot] = t;
+        if (size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Removes an id and its task
+     * @return true if the id was present
+     */
+    boolean remove(int id) {
+        int slot = find(id);
+        if (keys[slot] != id) {
+            return false;
+        }
+        // Shift back any later entry of the probe run whose home slot the gap now cuts it off from
+        int gap = slot;
+        for (int i = (gap + 1) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+            int home = hash(keys[i]);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        size--;
+        return true;
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Finds the slot holding an id, or the empty slot where it would go.
+     */
+    private int find(int id) {
+        int slot = hash(id);
+        while (keys[slot] != EMPTY && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Task[] oldValues = values;
+        keys = new int[capacity];
+        values = new Task[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
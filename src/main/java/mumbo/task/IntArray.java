@@ -0,0 +1,85 @@
+package mumbo.task;
+
+import java.util.Arrays;
+
+/**
+ * A minimal growable array of primitive ints, used for task ids and posting lists
+ * without boxing every element.
+ */
+class IntArray {
+    private int[] values;
+    private int size;
+
+    IntArray() {
+        this(4);
+    }
+
+    IntArray(int capacity) {
+        this.values = new int[Math.max(1, capacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int i) {
+        assert i >= 0 && i < size : "IntArray index out of bounds";
+        return values[i];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    void removeAt(int i) {
+        assert i >= 0 && i < size : "IntArray index out of bounds";
+        System.arraycopy(values, i + 1, values, i, size - i - 1);
+        size--;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Searches a sorted array for a value
+     * @param value the value to look for
+     * @return its index, or a negative number as in {@link Arrays#binarySearch(int[], int, int, int)}
+     */
+    int binarySearch(int value) {
+        return Arrays.binarySearch(values, 0, size, value);
+    }
+
+    /**
+     * Searches part of a sorted array for a value
+     * @param from the first index to search, inclusive
+     * @param to the last index to search, exclusive
+     * @param value the value to look for
+     * @return its index, or a negative number as in {@link Arrays#binarySearch(int[], int, int, int)}
+     */
+    int binarySearch(int from, int to, int value) {
+        assert from >= 0 && from <= to && to <= size : "IntArray search range out of bounds";
+        return Arrays.binarySearch(values, from, to, value);
+    }
+
+    /**
+     * Removes a value from a sorted array if present
+     * @param value the value to remove
+     * @return true if it was present
+     */
+    boolean removeSorted(int value) {
+        int i = binarySearch(value);
+        if (i < 0) {
+            return false;
+        }
+        removeAt(i);
+        return true;
+    }
+}
@@ -0,0 +1,193 @@
+package mumbo.task;
+
+import java.util.Arrays;
+
+/**
+ * The order of the tasks in a list, kept as the set of their ids.
+ *
+ * <p>Ids are handed out in increasing order and tasks are only ever appended, so list order is id order.
+ * The set is a bitmap over a window of ids with a Fenwick tree (binary indexed tree) of counts on top,
+ * which finds the id at a position and the position of an id in O(log n) without shifting anything on
+ * removal. The window starts just below the first id still present and doubles when an id falls past its
+ * end, so ids removed from the front of the list stop costing memory at the next growth.</p>
+ */
+class OrderIndex {
+    private static final int MIN_CAPACITY = 16;
+
+    private int base; // The window covers ids base + 1 .. base + capacity
+    private int capacity;
+    private long[] bits;
+    private int[] tree; // 1-based; tree[i] counts the ids in window slots (i - (i & -i), i]
+    private int size;
+
+    OrderIndex() {
+        this(MIN_CAPACITY);
+    }
+
+    OrderIndex(int expected) {
+        this.capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expected) * 2 - 1);
+        this.bits = new long[(capacity + 63) >>> 6];
+        this.tree = new int[capacity + 1];
+    }
+
+    /**
+     * Copies another index; later changes to either are not seen by the other
+     */
+    OrderIndex(OrderIndex other) {
+        this.base = other.base;
+        this.capacity = other.capacity;
+        this.bits = other.bits.clone();
+        this.tree = other.tree.clone();
+        this.size = other.size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds an id, which must be greater than every id added before it
+     */
+    void add(int id) {
+        assert id > base : "Ids must be added in increasing order";
+        if (id - base > capacity) {
+            grow(id);
+        }
+        int slot = id - base;
+        assert !isSet(slot) : "Id is already present";
+        bits[(slot - 1) >>> 6] |= 1L << (slot - 1);
+        update(slot, 1);
+        size++;
+    }
+
+    void remove(int id) {
+        assert contains(id) : "Id must be present to be removed";
+        int slot = id - base;
+        bits[(slot - 1) >>> 6] &= ~(1L << (slot - 1));
+        update(slot, -1);
+        size--;
+    }
+
+    /**
+     * Removes many ids at once. When there are enough of them, the bits are cleared in one pass and the
+     * tree is rebuilt in linear time rather than updated once per id.
+     * @param ids ids that are all present
+     */
+    void removeAll(int[] ids) {
+        int log = 32 - Integer.numberOfLeadingZeros(capacity);
+        if ((long) ids.length * log < capacity) {
+            for (int id : ids) {
+                remove(id);
+            }
+            return;
+        }
+        for (int id : ids) {
+            assert contains(id) : "Id must be present to be removed";
+            int slot = id - base;
+            bits[(slot - 1) >>> 6] &= ~(1L << (slot - 1));
+        }
+        size -= ids.length;
+        rebuildTree();
+    }
+
+    boolean contains(int id) {
+        long slot = (long) id - base;
+        return slot >= 1 && slot <= capacity && isSet((int) slot);
+    }
+
+    /**
+     * Gets the id at a position in the list
+     * @param position a 0 based position
+     * @return the id of the task at that position
+     */
+    int idAt(int position) {
+        assert position >= 0 && position < size : "Position out of bounds (0-based)";
+        int slot = 0;
+        int remaining = position + 1;
+        for (int step = Integer.highestOneBit(capacity); step > 0; step >>= 1) {
+            if (slot + step <= capacity && tree[slot + step] < remaining) {
+                slot += step;
+                remaining -= tree[slot];
+            }
+        }
+        return base + slot + 1;
+    }
+
+    /**
+     * Counts the ids smaller than the given one, which is the position of that id if present
+     * @param id any id
+     * @return the 0 based position the id has, or would have
+     */
+    int rank(int id) {
+        long slot = Math.min((long) id - base - 1, capacity);
+        int count = 0;
+        for (int i = (int) Math.max(0, slot); i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    /**
+     * Lists every id in order
+     * @return a new array of the ids
+     */
+    int[] toArray() {
+        int[] ids = new int[size];
+        int n = 0;
+        for (int w = 0; w < bits.length; w++) {
+            for (long word = bits[w]; word != 0; word &= word - 1) {
+                ids[n++] = base + (w << 6) + Long.numberOfTrailingZeros(word) + 1;
+            }
+        }
+        assert n == size : "Bitmap and size disagree";
+        return ids;
+    }
+
+    void clear() {
+        Arrays.fill(bits, 0);
+        Arrays.fill(tree, 0);
+        size = 0;
+    }
+
+    private boolean isSet(int slot) {
+        return (bits[(slot - 1) >>> 6] & (1L << (slot - 1))) != 0;
+    }
+
+    private void update(int slot, int delta) {
+        for (int i = slot; i <= capacity; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Moves the window to start at the first id present and widens it to at least twice what reaching
+     * {@code id} needs, then rebuilds the tree.
+     */
+    private void grow(int id) {
+        int[] ids = toArray();
+        base = ids.length == 0 ? id - 1 : ids[0] - 1;
+        capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, id - base) * 2 - 1) * 2;
+        bits = new long[(capacity + 63) >>> 6];
+        tree = new int[capacity + 1];
+        for (int existing : ids) {
+            int slot = existing - base;
+            bits[(slot - 1) >>> 6] |= 1L << (slot - 1);
+        }
+        rebuildTree();
+    }
+
+    /**
+     * Recomputes every count from the bitmap in linear time.
+     */
+    private void rebuildTree() {
+        for (int i = 1; i <= capacity; i++) {
+            tree[i] = isSet(i) ? 1 : 0;
+        }
+        for (int i = 1; i <= capacity; i++) {
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
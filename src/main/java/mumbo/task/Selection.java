@@ -0,0 +1,99 @@
+package mumbo.task;
+
+/**
+ * A set of tasks picked out by a bulk command, such as {@code 3-40}, {@code 1,5,9}, {@code done},
+ * {@code find:report} or {@code tag:work}.
+ *
+ * <p>A selection only describes the tasks; {@link TaskList#select(Selection)} resolves it against a list.
+ * Ids that are listed, or fall in a range, but are not in the list are simply not selected.</p>
+ */
+public final class Selection {
+    /**
+     * The ways a selection can pick tasks.
+     */
+    enum Kind {
+        IDS, DONE, UNDONE, KEYWORD, TAG
+    }
+
+    private final Kind kind;
+    private final int[] ranges; // Inclusive lower and upper id of each range, for IDS
+    private final String text; // Keyword or tag, for KEYWORD and TAG
+
+    private Selection(Kind kind, int[] ranges, String text) {
+        this.kind = kind;
+        this.ranges = ranges;
+        this.text = text;
+    }
+
+    /**
+     * Selects tasks by id
+     * @param ranges the inclusive lower and upper id of each range, one pair after another; a single id is a
+     *     range from itself to itself
+     * @return the selection
+     */
+    public static Selection ofIds(int... ranges) {
+        assert ranges.length > 0 && ranges.length % 2 == 0 : "Ranges come in pairs";
+        for (int i = 0; i < ranges.length; i += 2) {
+            assert ranges[i] >= 1 && ranges[i] <= ranges[i + 1] : "Ranges must be positive and in order";
+        }
+        return new Selection(Kind.IDS, ranges, null);
+    }
+
+    /**
+     * Selects the tasks that are done, or those that are not
+     * @param isDone true to select finished tasks
+     * @return the selection
+     */
+    public static Selection done(boolean isDone) {
+        return new Selection(isDone ? Kind.DONE : Kind.UNDONE, null, null);
+    }
+
+    /**
+     * Selects the tasks that {@code find} would return for a keyword
+     * @param keyword the keyword to search for (case-insensitive)
+     * @return the selection
+     */
+    public static Selection matching(String keyword) {
+        assert keyword != null && !keyword.isBlank() : "Keyword must not be blank";
+        return new Selection(Kind.KEYWORD, null, keyword);
+    }
+
+    /**
+     * Selects the tasks carrying a tag
+     * @param tag the tag (case-insensitive)
+     * @return the selection
+     */
+    public static Selection tagged(String tag) {
+        assert tag != null && !tag.isBlank() : "Tag must not be blank";
+        return new Selection(Kind.TAG, null, tag);
+    }
+
+    /**
+     * Checks whether this selection names exactly one id, as the single-task commands always have
+     * @return true for a lone id such as {@code 7}
+     */
+    public boolean isSingle() {
+        return kind == Kind.IDS && ranges.length == 2 && ranges[0] == ranges[1];
+    }
+
+    /**
+     * Gets the id of a single-task selection
+     * @return the id
+     */
+    public int getSingleId() {
+        assert isSingle() : "Not a single-task selection";
+        return ranges[0];
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    int[] getRanges() {
+        return ranges;
+    }
+
+    String getText() {
+        return text;
+    }
+}
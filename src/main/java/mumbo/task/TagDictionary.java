@@ -0,0 +1,44 @@
+package mumbo.task;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns tag names so that every task sharing a tag holds the same lowercase String instance.
+ * Tags are compared case-insensitively, so "Work" and "work" are the same tag.
+ */
+public class TagDictionary {
+    private static final ConcurrentHashMap<String, String> TAGS = new ConcurrentHashMap<>();
+
+    private TagDictionary() {
+    }
+
+    /**
+     * Gets the canonical instance of a tag
+     * @param tag a tag name in any case
+     * @return the shared lowercase instance of that tag
+     */
+    public static String intern(String tag) {
+        assert tag != null && !tag.isBlank() : "Tag must not be null or blank";
+        String lower = tag.trim().toLowerCase();
+        String existing = TAGS.putIfAbsent(lower, lower);
+        return existing == null ? lower : existing;
+    }
+
+    /**
+     * Gets the canonical instance of a tag without adding it to the dictionary
+     * @param tag a tag name in any case
+     * @return the shared lowercase instance, or null if no task has ever used this tag
+     */
+    public static String lookup(String tag) {
+        assert tag != null : "Tag must not be null";
+        return TAGS.get(tag.trim().toLowerCase());
+    }
+
+    /**
+     * Gets the number of distinct tags seen so far
+     * @return the dictionary size
+     */
+    public static int size() {
+        return TAGS.size();
+    }
+}
@@ -1,15 +1,22 @@
 package mumbo.task;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * A parent task category that all types of tasks fall under
  * Contains minimally a description, a type, and its completion status
  * Handles marking & unmarking of tasks
+ * Once added to a {@link TaskList}, a task carries an id that stays the same for as long as it exists
  */
-public abstract class Task {
+public abstract class Task implements Cloneable {
+    private static final String[] NO_TAGS = new String[0];
+
     protected String task;
     protected boolean isDone;
     protected final TaskType type;
-    protected String tag;
+    protected String[] tags;
+    private int id; // 0 until the task joins a list
 
     /**
      * Creates a task with its necessary details
@@ -22,7 +29,7 @@ public abstract class Task {
         this.task = task;
         this.isDone = false;
         this.type = type;
-        this.tag = null;
+        this.tags = NO_TAGS;
     }
 
     /**
@@ -50,28 +57,118 @@ public abstract class Task {
     }
 
     /**
-     * Represents the task in a specific String format for saving onto the storage file, for easier readability
+     * A getter method to get a Task's id, which its list gave it when it was added
+     * @return the id, or 0 if the task has not been added to a list
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    void setId(int id) {
+        assert id > 0 : "Task ids must be positive";
+        this.id = id;
+    }
+
+    /**
+     * Copies this task, id and all. Tags are never changed in place, so the copy may share them.
+     * @return a task equal to this one that later changes to this one do not reach
+     */
+    public Task copy() {
+        try {
+            return (Task) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e); // Task is Cloneable
+        }
+    }
+
+    /**
+     * A getter method to get a Task's type
+     * @return the TaskType of this task
+     */
+    public TaskType getType() {
+        return this.type;
+    }
+
+    /**
+     * Represents the task in a specific String format for saving onto the storage file, for easier readability.
+     * Fields are separated by bars: the type, the done flag, the description, any dates, and last the tags if
+     * the task has any. The description and tags are escaped with {@link #escape(String)}.
      * @return a String in a specified format
      */
     public abstract String toFormattedString();
 
     /**
-     * A method to tag a task with a specific tag
+     * Escapes text for a stored field, so that a bar or line break in it cannot end the field early
+     * @param s the text
+     * @return the text with backslashes, bars and line breaks preceded by a backslash ({@code \n} and
+     *     {@code \r} for line breaks)
+     */
+    protected static String escape(String s) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c != '\\' && c != '|' && c != '\n' && c != '\r') {
+                if (escaped != null) {
+                    escaped.append(c);
+                }
+                continue;
+            }
+            if (escaped == null) {
+                escaped = new StringBuilder(s.length() + 8).append(s, 0, i);
+            }
+            escaped.append('\\').append(c == '\n' ? 'n' : c == '\r' ? 'r' : c);
+        }
+        return escaped == null ? s : escaped.toString();
+    }
+
+    /**
+     * Formats the tags as the last field of a stored line
+     * @return the tags separated by spaces, after a bar, or an empty String if the task has none
+     */
+    protected String formatTags() {
+        return tags.length == 0 ? "" : " | " + escape(String.join(" ", tags));
+    }
+
+    /**
+     * A method to add a tag to a task. A task holds each tag at most once.
      * @param tag a String that represents the tag to be added
      * @return the Task object itself, for method chaining
      */
     public Task tag(String tag) {
         assert tag != null && !tag.isBlank() : "Tag must not be null or blank";
-        this.tag = tag;
+        String interned = TagDictionary.intern(tag);
+        if (!holds(interned)) {
+            tags = Arrays.copyOf(tags, tags.length + 1);
+            tags[tags.length - 1] = interned;
+        }
         return this;
     }
 
     /**
-     * A getter method to get a Task's tag
-     * @return a String that represents the task's tag
+     * Checks whether the task carries a tag
+     * @param tag a tag name in any case
+     * @return true if the task has this tag
+     */
+    public boolean hasTag(String tag) {
+        String interned = TagDictionary.lookup(tag);
+        return interned != null && holds(interned);
+    }
+
+    private boolean holds(String interned) {
+        for (String t : tags) {
+            if (t == interned) { // Tags are interned, so identity is equality
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A getter method to get a Task's tags, in the order they were added
+     * @return an unmodifiable list of lowercase tag names
      */
-    public String getTag() {
-        return this.tag;
+    public List<String> getTags() {
+        return List.of(tags);
     }
 
     @Override
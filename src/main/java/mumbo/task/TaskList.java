@@ -1,29 +1,259 @@
 package mumbo.task;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
- 
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import mumbo.metrics.Metrics;
+
 /**
  * Encapsulates a list of tasks and provides operations such as add, delete, mark, and clear.
+ *
+ * <p>Every task is given an id when it enters the list. Ids are handed out in increasing order, are never
+ * reused (not even after {@link #clear()}) and are saved with the tasks, so a task keeps its number for
+ * as long as it exists and commands can address it by id. Tasks are held in an {@link IdMap} from id to
+ * task, which makes mark, tag and delete by id constant time, and their order in an {@link OrderIndex},
+ * which finds the task at a position in O(log n) and removes one without shifting the rest.</p>
+ *
+ * <p>A list may be created lazily from a loader (e.g. a binary snapshot); slots are then
+ * only decoded into {@link Task} objects the first time they are accessed.</p>
+ *
+ * <p>Because ids increase along the list, {@link #find(String)} can answer from an inverted index of
+ * description trigrams and still return matches in list order. The index is built on the first search and
+ * kept up to date by add, delete and clear. Tags are indexed the same way, each tag mapping to a
+ * {@link CompactBitmap} of task ids, so tag queries are bitmap intersections and unions rather than scans.
+ * Deadlines and events are likewise kept in a {@link TimeIndex} ordered by time, so date range queries
+ * visit only the tasks they return.</p>
+ *
+ * <p>Every change made through this class advances {@link #getVersion()}, which lets storage tell whether
+ * the list has changed since it was last written. Changes made directly on a {@link Task} are not seen,
+ * unless they are made within {@link #editDirectly(Supplier)}.</p>
+ *
+ * <p>{@link #snapshot()} takes a read-only copy of the list that other threads may read, without locking,
+ * while the list goes on changing. The copy shares the tasks themselves: once a snapshot has been taken,
+ * marking or tagging a task through this class first replaces it here with a copy of its own, so the
+ * snapshot keeps seeing the task as it was. A snapshot does not share the list's search indexes, which go on
+ * changing with the list, and builds its own on its first search, under the snapshot's lock; searches that
+ * should not pay for that can instead be made on the list itself, under its lock, and their results
+ * {@link #detach()}ed. Every index built over a whole list is counted in {@link Metrics#global()}.</p>
+ *
+ * <p>Search results are lists of their own, numbered 1, 2, 3... internally in the order the matches were
+ * found; the tasks in them keep the ids they have in the list they came from, and their version is that of
+ * the list when it was searched.</p>
  */
 
 public class TaskList {
-    private final ArrayList<Task> tasks;
+    private final IdMap tasks; // Id to task; null while a lazily loaded task is not decoded yet
+    private final OrderIndex order;
+    private int nextId = 1;
+    private long version;
+    private volatile TokenIndex index; // Volatile so that a snapshot's readers see it fully built
+    private volatile HashMap<String, CompactBitmap> tagIndex; // Interned tag to ids of the tasks carrying it
+    private volatile TimeIndex timeIndex;
+    private IntFunction<Task> loader;
+    private int[] loaderIds; // Id of the task at each loader index, ascending
+    private int pending;
+    private boolean isFrozen; // Whether this is a snapshot, which is never changed
+    private BitSet unshared; // Ids whose tasks were copied since the last snapshot; null before the first
 
     /**
-     * Creates a TaskList object, which is a list of tasks with additional methods
+     * Creates a TaskList object, which is a list of tasks with additional methods.
+     * The tasks are given the ids 1, 2, 3... in order.
      * @param existing a List of Task objects
      */
     public TaskList(List<Task> existing) {
+        this(existing == null ? 0 : existing.size());
         assert existing != null : "Existing tasks list must not be null";
-        this.tasks = new ArrayList<>(existing);
+        for (Task t : existing) {
+            add(t);
+        }
+    }
+
+    private TaskList(int expected) {
+        this.tasks = new IdMap(expected);
+        this.order = new OrderIndex(expected);
+    }
+
+    private TaskList(IdMap tasks, OrderIndex order) {
+        this.tasks = tasks;
+        this.order = order;
+    }
+
+    /**
+     * Wraps search results without renumbering the tasks in them.
+     */
+    private static TaskList ofResults(List<Task> matches, long version) {
+        TaskList results = new TaskList(matches.size());
+        for (Task t : matches) {
+            results.put(results.nextId++, t);
+        }
+        results.version = version;
+        return results;
+    }
+
+    /**
+     * Creates a TaskList whose tasks are produced on first access, with the ids 1, 2, 3...
+     * @param size the number of tasks in the list
+     * @param loader a function producing the task at a 0 based index
+     */
+    public TaskList(int size, IntFunction<Task> loader) {
+        this(sequence(size), loader);
+    }
+
+    /**
+     * Creates a TaskList whose tasks are produced on first access
+     * @param ids the id of each task, in increasing order
+     * @param loader a function producing the task at a 0 based index into {@code ids}
+     */
+    public TaskList(int[] ids, IntFunction<Task> loader) {
+        this(ids.length);
+        assert loader != null : "Loader must not be null";
+        for (int id : ids) {
+            assert id >= nextId : "Ids must be positive and increasing";
+            put(id, null);
+            nextId = id + 1;
+        }
+        if (ids.length > 0) {
+            this.loader = loader;
+            this.loaderIds = ids;
+            this.pending = ids.length;
+        }
+    }
+
+    private static int[] sequence(int size) {
+        assert size >= 0 : "Size must be non-negative";
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = i + 1;
+        }
+        return ids;
+    }
+
+    private void put(int id, Task t) {
+        tasks.put(id, t);
+        order.add(id);
+    }
+
+    /**
+     * Gets the task with an id, decoding it first if it has not been loaded yet. A snapshot decodes the task
+     * again on every access instead of keeping it, so that its readers never write to it.
+     */
+    private Task materialize(int id) {
+        Task t = tasks.get(id);
+        if (t == null && loader != null) {
+            int i = Arrays.binarySearch(loaderIds, id);
+            assert i >= 0 : "Unloaded tasks must come from the loader";
+            t = loader.apply(i);
+            assert t != null : "Loader must not produce null tasks";
+            t.setId(id);
+            if (isFrozen) {
+                return t;
+            }
+            tasks.put(id, t);
+            if (--pending == 0) {
+                releaseLoader(); // Every task is loaded; release the backing source
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Gets a task that is about to be changed, first replacing it with a copy if a snapshot may share it.
+     */
+    private Task writable(int id) {
+        Task t = materialize(id);
+        if (unshared != null && !unshared.get(id)) {
+            t = t.copy();
+            tasks.put(id, t);
+            unshared.set(id);
+        }
+        return t;
+    }
+
+    /**
+     * Takes a read-only copy of the list as it is now. The copy may be read by any number of threads at once
+     * without locking, as long as it was handed to them safely (e.g. through a volatile field), and it does
+     * not see later changes to this list. Taking it costs a copy of the id map and order index, not of the
+     * tasks; a lazily loaded list lends the copy its loader, which must then allow calls from several
+     * threads.
+     * @return the snapshot, which must not be changed
+     */
+    public TaskList snapshot() {
+        assert !isFrozen : "Snapshots are read-only";
+        TaskList copy = new TaskList(new IdMap(tasks), new OrderIndex(order));
+        copy.nextId = nextId;
+        copy.version = version;
+        copy.loader = loader;
+        copy.loaderIds = loaderIds;
+        copy.pending = pending;
+        copy.isFrozen = true;
+        if (unshared == null) {
+            unshared = new BitSet();
+        } else {
+            unshared.clear();
+        }
+        return copy;
+    }
+
+    /**
+     * Runs code that may change tasks directly, through {@link Task#mark(boolean)} or {@link Task#tag(String)},
+     * rather than through this list. Tasks a snapshot may share are first replaced here with copies of their
+     * own, so the snapshot does not see the changes. Afterwards the version is advanced, since this list
+     * cannot tell whether anything changed, and the tag index is dropped, to be built again by the next tag
+     * search. Unloaded tasks are not copied: a snapshot decodes its own.
+     * @param edit the code making the changes
+     * @param <T> the type of result {@code edit} returns
+     * @return what {@code edit} returned
+     */
+    public <T> T editDirectly(Supplier<T> edit) {
+        assert edit != null : "Edit must not be null";
+        assert !isFrozen : "Snapshots are read-only";
+        if (unshared != null) {
+            for (int id : order.toArray()) {
+                Task t = tasks.get(id);
+                if (t != null && !unshared.get(id)) {
+                    tasks.put(id, t.copy());
+                    unshared.set(id);
+                }
+            }
+        }
+        try {
+            return edit.get();
+        } finally {
+            tagIndex = null;
+            version++;
+        }
+    }
+
+    /**
+     * Copies search results so that they may be read while the list they came from goes on changing. Every
+     * task is copied and keeps its id, and the copy keeps the results' version.
+     * @return a list of copies of this list's tasks, in the same order
+     */
+    public TaskList detach() {
+        List<Task> copies = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            copies.add(get(i).copy());
+        }
+        return ofResults(copies, version);
+    }
+
+    private void releaseLoader() {
+        loader = null;
+        loaderIds = null;
+        pending = 0;
     }
 
     /**
      * @return Returns the size of the list of tasks
      */
     public int size() {
-        return tasks.size();
+        return order.size();
     }
 
     /**
@@ -32,8 +262,55 @@ public class TaskList {
      * @return returns specified task
      */
     public Task get(int i) {
-        assert i >= 0 && i < tasks.size() : "Index out of bounds (0-based)";
-        return tasks.get(i);
+        assert i >= 0 && i < size() : "Index out of bounds (0-based)";
+        return materialize(order.idAt(i));
+    }
+
+    /**
+     * Gets the task with an id
+     * @param id the task's id
+     * @return the task, or null if no task in the list has this id
+     */
+    public Task getById(int id) {
+        return tasks.containsKey(id) ? materialize(id) : null;
+    }
+
+    /**
+     * Checks whether a task with an id is in the list
+     * @param id the task's id
+     * @return true if the list holds a task with this id
+     */
+    public boolean contains(int id) {
+        return tasks.containsKey(id);
+    }
+
+    /**
+     * Gets the id the next added task will be given
+     * @return an id greater than that of any task ever added to this list
+     */
+    public int getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Makes sure ids below the given one are never handed out, e.g. after loading a list whose last tasks
+     * had been deleted
+     * @param nextId the smallest id that may be handed out next
+     */
+    public void advanceNextId(int nextId) {
+        assert !isFrozen : "Snapshots are read-only";
+        if (nextId > this.nextId) {
+            this.nextId = nextId;
+            version++;
+        }
+    }
+
+    /**
+     * Gets a number that changes whenever the list is changed through this class
+     * @return the current version; equal versions of the same list mean it has not been changed in between
+     */
+    public long getVersion() {
+        return version;
     }
 
     /**
@@ -41,65 +318,248 @@ public class TaskList {
      * @return returns a List of Tasks
      */
     public List<Task> asList() {
-        return new ArrayList<>(tasks);
+        int[] ids = order.toArray();
+        List<Task> list = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            list.add(materialize(id));
+        }
+        return list;
     }
 
     /**
-     * Adds a task to the list
+     * Adds a task to the end of the list, giving it the next id
      * @param t Task to be added
      * @return returns the task for later use
      */
     public Task add(Task t) {
+        return add(nextId, t);
+    }
+
+    /**
+     * Adds a task to the end of the list under an id it was given before, e.g. when loading a saved list
+     * @param id the task's id, at least {@link #getNextId()}
+     * @param t Task to be added
+     * @return returns the task for later use
+     */
+    public Task add(int id, Task t) {
         assert t != null : "Task to add must not be null";
-        tasks.add(t);
+        assert id >= nextId : "Ids must increase along the list";
+        assert !isFrozen : "Snapshots are read-only";
+        t.setId(id);
+        put(id, t);
+        if (index != null) {
+            index.add(id, t.getDescription());
+        }
+        if (tagIndex != null) {
+            for (String tag : t.getTags()) {
+                tagIndex.computeIfAbsent(tag, k -> new CompactBitmap()).add(id);
+            }
+        }
+        if (timeIndex != null) {
+            timeIndex.add(id, t);
+        }
+        nextId = id + 1;
+        version++;
         return t;
     }
 
     /**
-     * Tags a specified task from the list with a specified tag
-     * @param index1Based a 1 based integer index
+     * Adds a tag to a specified task from the list
+     * @param id the id of the task
      * @param tag a String representing the tag to be added
-     * @return
+     * @return the tagged task
      */
-    public Task tag(int index1Based, String tag) {
-        assert index1Based >= 1 && index1Based <= tasks.size() : "Index out of range (1-based)";
-        Task t = tasks.get(index1Based - 1);
+    public Task tag(int id, String tag) {
+        assert contains(id) : "No task with this id";
+        assert !isFrozen : "Snapshots are read-only";
+        Task t = writable(id);
         t.tag(tag);
+        version++;
+        if (tagIndex != null) {
+            tagIndex.computeIfAbsent(TagDictionary.intern(tag), k -> new CompactBitmap()).add(id);
+        }
         return t;
     }
 
     /**
      * Deletes a specified task from the list
-     * @param index1Based a 1 based integer index
+     * @param id the id of the task
      * @return returns the deleted task
      */
-    public Task delete(int index1Based) {
-        assert index1Based >= 1 && index1Based <= tasks.size() : "Index out of range (1-based)";
-        return tasks.remove(index1Based - 1);
+    public Task delete(int id) {
+        assert contains(id) : "No task with this id";
+        assert !isFrozen : "Snapshots are read-only";
+        Task t = materialize(id);
+        tasks.remove(id);
+        order.remove(id);
+        unindex(id, t);
+        version++;
+        return t;
+    }
+
+    /**
+     * Removes a deleted task from whichever search indexes have been built.
+     */
+    private void unindex(int id, Task t) {
+        if (index != null) {
+            index.remove(id, t.getDescription());
+        }
+        if (tagIndex != null) {
+            for (String tag : t.getTags()) {
+                CompactBitmap bitmap = tagIndex.get(tag);
+                bitmap.remove(id);
+                if (bitmap.isEmpty()) {
+                    tagIndex.remove(tag);
+                }
+            }
+        }
+        if (timeIndex != null) {
+            timeIndex.remove(id, t);
+        }
     }
 
     /**
      * Marks/unmarks a specified task from the list
-     * @param index1Based a 1 based integer index
+     * @param id the id of the task
      * @param done boolean to determine whether to mark or unmark
      * @return returns the marked/unmarked task
      */
-    public Task mark(int index1Based, boolean done) {
-        assert index1Based >= 1 && index1Based <= tasks.size() : "Index out of range (1-based)";
-        Task t = tasks.get(index1Based - 1);
+    public Task mark(int id, boolean done) {
+        assert contains(id) : "No task with this id";
+        assert !isFrozen : "Snapshots are read-only";
+        Task t = writable(id);
         t.mark(done);
+        version++;
         return t;
     }
 
     /**
-     * Clears all tasks from the list
+     * Resolves a selection against this list
+     * @param selection the tasks to pick
+     * @return the ids of the selected tasks, in list order
+     */
+    @SuppressWarnings("checkstyle:Indentation")
+    public int[] select(Selection selection) {
+        assert selection != null : "Selection must not be null";
+        return switch (selection.getKind()) {
+        case IDS -> selectIds(selection.getRanges());
+        case DONE, UNDONE -> selectDone(selection.getKind() == Selection.Kind.DONE);
+        case KEYWORD -> idsOf(find(selection.getText()));
+        case TAG -> idsOf(findByTag(selection.getText()));
+        };
+    }
+
+    /**
+     * Collects the ids present in any of the ranges. Each range is located by rank in the order index,
+     * so its cost depends on the tasks it holds rather than on how wide it is.
+     */
+    private int[] selectIds(int[] ranges) {
+        IntArray selected = new IntArray();
+        for (int r = 0; r < ranges.length; r += 2) {
+            int to = order.rank(ranges[r + 1] == Integer.MAX_VALUE ? Integer.MAX_VALUE : ranges[r + 1] + 1);
+            for (int position = order.rank(ranges[r]); position < to; position++) {
+                selected.add(order.idAt(position));
+            }
+        }
+        return sortedDistinct(selected.toArray());
+    }
+
+    private int[] selectDone(boolean isDone) {
+        IntArray selected = new IntArray();
+        for (int id : order.toArray()) {
+            if (materialize(id).isDone() == isDone) {
+                selected.add(id);
+            }
+        }
+        return selected.toArray();
+    }
+
+    private static int[] idsOf(TaskList results) {
+        int[] ids = new int[results.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = results.get(i).getId();
+        }
+        return ids;
+    }
+
+    private static int[] sortedDistinct(int[] ids) {
+        Arrays.sort(ids);
+        int n = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (n == 0 || ids[i] != ids[n - 1]) {
+                ids[n++] = ids[i];
+            }
+        }
+        return n == ids.length ? ids : Arrays.copyOf(ids, n);
+    }
+
+    /**
+     * Marks/unmarks many tasks
+     * @param ids the ids of the tasks, as returned by {@link #select(Selection)}
+     * @param done boolean to determine whether to mark or unmark
+     * @return the marked/unmarked tasks
+     */
+    public List<Task> markAll(int[] ids, boolean done) {
+        List<Task> marked = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            marked.add(mark(id, done));
+        }
+        return marked;
+    }
+
+    /**
+     * Adds a tag to many tasks
+     * @param ids the ids of the tasks, as returned by {@link #select(Selection)}
+     * @param tag a String representing the tag to be added
+     * @return the tagged tasks
+     */
+    public List<Task> tagAll(int[] ids, String tag) {
+        List<Task> tagged = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            tagged.add(tag(id, tag));
+        }
+        return tagged;
+    }
+
+    /**
+     * Deletes many tasks in one pass. The order index drops them all together and, for a large batch,
+     * rebuilds itself once instead of updating per task.
+     * @param ids the ids of the tasks, as returned by {@link #select(Selection)}
+     * @return the deleted tasks
+     */
+    public List<Task> deleteAll(int[] ids) {
+        assert !isFrozen : "Snapshots are read-only";
+        List<Task> deleted = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            assert contains(id) : "No task with this id";
+            Task t = materialize(id);
+            tasks.remove(id);
+            unindex(id, t);
+            deleted.add(t);
+        }
+        order.removeAll(ids);
+        version++;
+        return deleted;
+    }
+
+    /**
+     * Clears all tasks from the list. Ids handed out so far are not reused.
      */
     public void clear() {
+        assert !isFrozen : "Snapshots are read-only";
         tasks.clear();
+        order.clear();
+        index = null;
+        tagIndex = null;
+        timeIndex = null;
+        releaseLoader();
+        version++;
     }
 
     /**
      * Finds all tasks that contain the specified keyword in their description.
+     * Keywords of at least three characters are answered from the trigram index;
+     * shorter ones fall back to scanning the list.
      * @param keyword the keyword to search for (case-insensitive)
      * @return a new TaskList containing all matching tasks
      */
@@ -108,34 +568,165 @@ public class TaskList {
         ArrayList<Task> matchingTasks = new ArrayList<>();
         String lowerKeyword = keyword.toLowerCase();
 
-        for (Task task : tasks) {
-            if (task.getDescription().toLowerCase().contains(lowerKeyword)) {
-                matchingTasks.add(task);
+        TokenIndex tokens = lowerKeyword.length() >= TokenIndex.GRAM ? tokenIndex() : null;
+        IntArray candidates = tokens == null ? null : tokens.candidates(lowerKeyword);
+        if (candidates == null) {
+            for (int id : order.toArray()) {
+                Task task = materialize(id);
+                if (task.getDescription().toLowerCase().contains(lowerKeyword)) {
+                    matchingTasks.add(task);
+                }
+            }
+        } else {
+            for (int c = 0; c < candidates.size(); c++) {
+                assert contains(candidates.get(c)) : "Indexed id must be present in the list";
+                Task task = materialize(candidates.get(c));
+                if (task.getDescription().toLowerCase().contains(lowerKeyword)) {
+                    matchingTasks.add(task);
+                }
             }
         }
 
-        return new TaskList(matchingTasks);
+        return ofResults(matchingTasks, version);
+    }
+
+    private TokenIndex tokenIndex() {
+        TokenIndex built = index;
+        if (built == null) {
+            synchronized (this) {
+                built = index;
+                if (built == null) {
+                    built = new TokenIndex();
+                    for (int id : order.toArray()) {
+                        built.add(id, materialize(id).getDescription());
+                    }
+                    index = built;
+                    Metrics.global().countIndexBuild();
+                }
+            }
+        }
+        return built;
     }
 
     /**
-     * Finds all tasks that have a tag matching the specified keyword.
+     * Finds all tasks that carry the specified tag.
      * Matching is case-insensitive and ignores tasks without a tag.
      * @param tag the tag to search for (case-insensitive)
      * @return a new TaskList containing all matching tasks
      */
     public TaskList findByTag(String tag) {
         assert tag != null : "Search tag must not be null";
-        ArrayList<Task> matchingTasks = new ArrayList<>();
-        String lowerTag = tag.toLowerCase();
+        return findByTags(List.of(tag), true);
+    }
 
-        for (Task task : tasks) {
-            String t = task.getTag();
-            if (t != null && t.toLowerCase().contains(lowerTag)) {
-                matchingTasks.add(task);
+    /**
+     * Finds all tasks carrying all (or any) of the specified tags, answered from the tag bitmaps.
+     * @param tags the tags to search for (case-insensitive)
+     * @param isMatchAll true to require every tag, false to accept any of them
+     * @return a new TaskList containing all matching tasks, in list order
+     */
+    public TaskList findByTags(List<String> tags, boolean isMatchAll) {
+        assert tags != null && !tags.isEmpty() : "Search tags must not be null or empty";
+        HashMap<String, CompactBitmap> bitmaps = tagIndex();
+        CompactBitmap result = null;
+        for (String tag : tags) {
+            String interned = TagDictionary.lookup(tag);
+            CompactBitmap bitmap = interned == null ? null : bitmaps.get(interned);
+            if (bitmap == null) {
+                bitmap = new CompactBitmap();
+            }
+            if (result == null) {
+                result = bitmap;
+            } else {
+                result = isMatchAll ? result.and(bitmap) : result.or(bitmap);
             }
         }
 
-        return new TaskList(matchingTasks);
+        return byIds(result.toIntArray());
+    }
+
+    private HashMap<String, CompactBitmap> tagIndex() {
+        HashMap<String, CompactBitmap> built = tagIndex;
+        if (built == null) {
+            synchronized (this) {
+                built = tagIndex;
+                if (built == null) {
+                    built = new HashMap<>();
+                    for (int id : order.toArray()) {
+                        for (String tag : materialize(id).getTags()) {
+                            built.computeIfAbsent(tag, k -> new CompactBitmap()).add(id);
+                        }
+                    }
+                    tagIndex = built;
+                    Metrics.global().countIndexBuild();
+                }
+            }
+        }
+        return built;
+    }
+
+    /**
+     * Finds all deadlines due, and events starting, at or before the specified time.
+     * @param limit the latest time to include
+     * @return a new TaskList containing all matching tasks, earliest first
+     */
+    public TaskList dueBy(LocalDateTime limit) {
+        assert limit != null : "Time limit must not be null";
+        return byIds(timeIndex().startingBy(TimeIndex.epochSecond(limit)));
+    }
+
+    /**
+     * Finds all deadlines and events that fall within, or overlap, the specified period.
+     * @param from the start of the period
+     * @param to the end of the period, not before {@code from}
+     * @return a new TaskList containing all matching tasks, earliest first
+     */
+    public TaskList between(LocalDateTime from, LocalDateTime to) {
+        assert from != null && to != null : "Period bounds must not be null";
+        assert !to.isBefore(from) : "Period must not end before it starts";
+        return byIds(timeIndex().overlapping(TimeIndex.epochSecond(from), TimeIndex.epochSecond(to)));
+    }
+
+    /**
+     * Finds the next few deadlines and events at or after the specified time.
+     * @param from the earliest time to include
+     * @param count the maximum number of tasks to return
+     * @return a new TaskList containing at most {@code count} tasks, earliest first
+     */
+    public TaskList upcoming(LocalDateTime from, int count) {
+        assert from != null : "Start time must not be null";
+        assert count > 0 : "Count must be positive";
+        return byIds(timeIndex().upcoming(TimeIndex.epochSecond(from), count));
+    }
+
+    private TimeIndex timeIndex() {
+        TimeIndex built = timeIndex;
+        if (built == null) {
+            synchronized (this) {
+                built = timeIndex;
+                if (built == null) {
+                    built = new TimeIndex();
+                    for (int id : order.toArray()) {
+                        built.add(id, materialize(id));
+                    }
+                    timeIndex = built;
+                    Metrics.global().countIndexBuild();
+                }
+            }
+        }
+        return built;
+    }
+
+    /**
+     * Collects the tasks with the given ids, in the order given.
+     */
+    private TaskList byIds(IntArray matchingIds) {
+        ArrayList<Task> matchingTasks = new ArrayList<>(matchingIds.size());
+        for (int m = 0; m < matchingIds.size(); m++) {
+            assert contains(matchingIds.get(m)) : "Indexed id must be present in the list";
+            matchingTasks.add(materialize(matchingIds.get(m)));
+        }
+        return ofResults(matchingTasks, version);
     }
 
     /**
@@ -143,6 +734,6 @@ public class TaskList {
      * @return returns a boolean
      */
     public boolean isEmpty() {
-        return tasks.isEmpty();
+        return order.size() == 0;
     }
 }
@@ -0,0 +1,256 @@
+package mumbo.task;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * A time-ordered index over deadlines and events, answering range queries without scanning the list.
+ *
+ * <p>Each timed task is an interval in epoch seconds: a deadline is the single instant it is due and an
+ * event runs from its start to its end. Intervals are kept in a treap (a binary search tree balanced by
+ * random priorities) ordered by start time and then id. Every node also records the latest end time in
+ * its subtree, which makes it an interval tree: a search skips any subtree that ends before the range of
+ * interest. Todos have no time and are not indexed.</p>
+ */
+class TimeIndex {
+    private static final class Node {
+        final long start;
+        final long end;
+        final int id;
+        final int priority;
+        long maxEnd;
+        Node left;
+        Node right;
+
+        Node(long start, long end, int id, int priority) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node root;
+    private int size;
+    private int seed = 0x2545F491;
+
+    /**
+     * Indexes a task if it is a deadline or an event
+     * @param id the task's id
+     * @param t the task
+     */
+    void add(int id, Task t) {
+        if (!isTimed(t)) {
+            return;
+        }
+        Node node = new Node(startOf(t), endOf(t), id, nextPriority());
+        Node[] parts = split(root, node.start, id);
+        root = merge(merge(parts[0], node), parts[1]);
+        size++;
+    }
+
+    /**
+     * Removes a task from the index if it is a deadline or an event
+     * @param id the task's id
+     * @param t the task, whose times are used to locate it
+     */
+    void remove(int id, Task t) {
+        if (!isTimed(t)) {
+            return;
+        }
+        int before = size;
+        root = remove(root, startOf(t), id);
+        assert size == before - 1 : "Timed task must be present in the index";
+    }
+
+    void clear() {
+        root = null;
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the latest end time of any indexed task, as recorded at the root of the tree
+     * @return the time in epoch seconds, or {@link Long#MIN_VALUE} if nothing is indexed
+     */
+    long latestEnd() {
+        return root == null ? Long.MIN_VALUE : root.maxEnd;
+    }
+
+    /**
+     * Finds the ids of tasks starting (or, for deadlines, due) at or before a time
+     * @param limit the latest time to include, in epoch seconds
+     * @return matching ids in time order
+     */
+    IntArray startingBy(long limit) {
+        IntArray out = new IntArray();
+        startingBy(root, limit, out);
+        return out;
+    }
+
+    /**
+     * Finds the ids of tasks whose interval overlaps {@code [from, to]}
+     * @param from the start of the range, in epoch seconds
+     * @param to the end of the range, in epoch seconds
+     * @return matching ids in time order
+     */
+    IntArray overlapping(long from, long to) {
+        IntArray out = new IntArray();
+        overlapping(root, from, to, out);
+        return out;
+    }
+
+    /**
+     * Finds the ids of the first few tasks starting at or after a time
+     * @param from the earliest time to include, in epoch seconds
+     * @param count the maximum number of ids to return
+     * @return matching ids in time order
+     */
+    IntArray upcoming(long from, int count) {
+        IntArray out = new IntArray(Math.min(count, Math.max(1, size)));
+        upcoming(root, from, count, out);
+        return out;
+    }
+
+    static boolean isTimed(Task t) {
+        return t instanceof Deadline || t instanceof Event;
+    }
+
+    static long epochSecond(LocalDateTime dt) {
+        return dt.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long startOf(Task t) {
+        return epochSecond(t instanceof Event ? ((Event) t).getStart() : ((Deadline) t).getDeadline());
+    }
+
+    private static long endOf(Task t) {
+        return epochSecond(t instanceof Event ? ((Event) t).getEnd() : ((Deadline) t).getDeadline());
+    }
+
+    private static boolean isBefore(Node node, long start, int id) {
+        return node.start < start || (node.start == start && node.id < id);
+    }
+
+    /**
+     * Splits a subtree into the nodes ordered before {@code (start, id)} and the rest.
+     */
+    private static Node[] split(Node node, long start, int id) {
+        if (node == null) {
+            return new Node[2];
+        }
+        Node[] parts;
+        if (isBefore(node, start, id)) {
+            parts = split(node.right, start, id);
+            node.right = parts[0];
+            parts[0] = node;
+        } else {
+            parts = split(node.left, start, id);
+            node.left = parts[1];
+            parts[1] = node;
+        }
+        update(node);
+        return parts;
+    }
+
+    /**
+     * Joins two subtrees where every node of {@code a} is ordered before every node of {@code b}.
+     */
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private Node remove(Node node, long start, int id) {
+        if (node == null) {
+            return null;
+        }
+        if (node.id == id && node.start == start) {
+            size--;
+            return merge(node.left, node.right);
+        }
+        if (isBefore(node, start, id)) {
+            node.right = remove(node.right, start, id);
+        } else {
+            node.left = remove(node.left, start, id);
+        }
+        update(node);
+        return node;
+    }
+
+    private static void update(Node node) {
+        long maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd > maxEnd) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > maxEnd) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static void startingBy(Node node, long limit, IntArray out) {
+        if (node == null) {
+            return;
+        }
+        startingBy(node.left, limit, out);
+        if (node.start > limit) {
+            return; // The right subtree starts later still
+        }
+        out.add(node.id);
+        startingBy(node.right, limit, out);
+    }
+
+    private static void overlapping(Node node, long from, long to, IntArray out) {
+        if (node == null || node.maxEnd < from) {
+            return; // Everything below ends before the range begins
+        }
+        overlapping(node.left, from, to, out);
+        if (node.start > to) {
+            return;
+        }
+        if (node.end >= from) {
+            out.add(node.id);
+        }
+        overlapping(node.right, from, to, out);
+    }
+
+    private static void upcoming(Node node, long from, int count, IntArray out) {
+        if (node == null || out.size() >= count) {
+            return;
+        }
+        if (node.start >= from) {
+            upcoming(node.left, from, count, out);
+            if (out.size() < count) {
+                out.add(node.id);
+            }
+        }
+        upcoming(node.right, from, count, out);
+    }
+
+    /**
+     * Draws a pseudo-random priority with a xorshift generator, so rebuilding the same list gives the same tree.
+     */
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+}
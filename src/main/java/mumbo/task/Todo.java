@@ -16,6 +16,6 @@ public class Todo extends Task {
 
     @Override
     public String toFormattedString() {
-        return "T | " + (isDone ? "1" : "0") + " | " + task;
+        return "T | " + (isDone ? "1" : "0") + " | " + escape(task) + formatTags();
     }
 }
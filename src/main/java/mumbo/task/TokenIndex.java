@@ -0,0 +1,124 @@
+package mumbo.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * An inverted index from lowercase character trigrams to the ids of tasks whose description contains them.
+ *
+ * <p>A substring query of at least {@value #GRAM} characters can only match a task that contains every
+ * trigram of the query, so intersecting their posting lists yields a small candidate set which the caller
+ * then confirms with {@link String#contains(CharSequence)}. Ids are handed out in increasing order, so
+ * posting lists stay sorted simply by appending.</p>
+ */
+class TokenIndex {
+    static final int GRAM = 3;
+
+    private final HashMap<Long, IntArray> postings = new HashMap<>();
+
+    /**
+     * Indexes a task description
+     * @param id the task's id, greater than every id indexed so far
+     * @param description the task description
+     */
+    void add(int id, String description) {
+        for (long gram : gramsOf(description.toLowerCase())) {
+            postings.computeIfAbsent(gram, k -> new IntArray()).add(id);
+        }
+    }
+
+    /**
+     * Removes a task description from the index
+     * @param id the task's id
+     * @param description the description it was indexed with
+     */
+    void remove(int id, String description) {
+        for (long gram : gramsOf(description.toLowerCase())) {
+            IntArray list = postings.get(gram);
+            if (list != null && list.removeSorted(id) && list.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    void clear() {
+        postings.clear();
+    }
+
+    /**
+     * Finds the ids of tasks that may contain the given keyword
+     * @param lowerKeyword a lowercase keyword
+     * @return candidate ids in increasing order, or null if the keyword is too short to use the index
+     */
+    IntArray candidates(String lowerKeyword) {
+        if (lowerKeyword.length() < GRAM) {
+            return null;
+        }
+        long[] grams = gramsOf(lowerKeyword);
+        List<IntArray> lists = new ArrayList<>(grams.length);
+        for (long gram : grams) {
+            IntArray list = postings.get(gram);
+            if (list == null) {
+                return new IntArray(1);
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        IntArray result = lists.get(0);
+        for (int j = 1; j < lists.size() && result.size() > 0; j++) {
+            result = intersect(result, lists.get(j));
+        }
+        return result;
+    }
+
+    /**
+     * Intersects a small sorted list with a larger one, galloping through the larger list.
+     */
+    private static IntArray intersect(IntArray small, IntArray large) {
+        IntArray out = new IntArray(small.size());
+        int from = 0;
+        for (int i = 0; i < small.size() && from < large.size(); i++) {
+            int id = small.get(i);
+            int step = 1;
+            int hi = from;
+            while (hi < large.size() && large.get(hi) < id) {
+                from = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            int found = large.binarySearch(from, Math.min(hi + 1, large.size()), id);
+            if (found >= 0) {
+                out.add(id);
+                from = found + 1;
+            } else {
+                from = -found - 1;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Gets the distinct trigrams of a lowercase string, each packed into a long.
+     */
+    private static long[] gramsOf(String s) {
+        int n = s.length() - GRAM + 1;
+        if (n <= 0) {
+            return new long[0];
+        }
+        long[] grams = new long[n];
+        for (int i = 0; i < n; i++) {
+            grams[i] = ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+}
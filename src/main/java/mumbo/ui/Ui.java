@@ -1,13 +1,31 @@
 package mumbo.ui;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+
+import mumbo.command.Command;
+import mumbo.metrics.LatencyHistogram;
+import mumbo.metrics.Metrics;
+import mumbo.metrics.Phase;
+import mumbo.metrics.PhaseTimer;
 import mumbo.task.Task;
 import mumbo.task.TaskList;
 
 /**
  * Handles interactions with the user such as displaying messages and reading commands.
  * Responsible for input/output logic and message formatting.
+ *
+ * <p>Task listings are written straight into an {@link Appendable} a line at a time, so a caller
+ * printing to a stream never holds the whole listing in memory, and {@code list} renders one page
+ * at a time. Writing a listing is timed as the command's {@link Phase#FORMAT} phase.</p>
  */
 public class Ui {
+    /** Number of tasks named in the reply to a bulk command before the rest are only counted */
+    public static final int BULK_PREVIEW_SIZE = 10;
+
+    private static final double NANOS_PER_MILLI = 1e6;
 
     /**
      * Gets the welcome message.
@@ -63,6 +81,68 @@ public class Ui {
         return action + "\n  " + t;
     }
 
+    /**
+     * Gets the message for when a bulk command marks/unmarks several tasks.
+     * @param marked The tasks that were marked or unmarked.
+     * @param done True if the tasks were marked as done, false if unmarked.
+     * @return the formatted message
+     */
+    public String getMarkedMessage(List<Task> marked, boolean done) {
+        assert !marked.isEmpty() : "At least one task must have been marked";
+        String action = done
+                ? "Splendid. I have marked " + marked.size() + " task(s) as complete:"
+                : "Very well. I have marked " + marked.size() + " task(s) as not yet complete:";
+        return action + getPreview(marked);
+    }
+
+    /**
+     * Gets the message for when a bulk command deletes several tasks.
+     * @param deleted The tasks that were deleted.
+     * @param size The current number of tasks in the list.
+     * @return the formatted message
+     */
+    public String getDeletedMessage(List<Task> deleted, int size) {
+        assert !deleted.isEmpty() : "At least one task must have been deleted";
+        assert size >= 0 : "Task count must be non-negative";
+        return "As you wish. I have removed " + deleted.size() + " task(s):" + getPreview(deleted)
+                + "\nYou now have " + size + " task(s) remaining.";
+    }
+
+    /**
+     * Gets the message for when a bulk command tags several tasks.
+     * @param tagged The tasks that were tagged.
+     * @param tags The tags that were added to each of them.
+     * @return the formatted message
+     */
+    public String getTaggedMessage(List<Task> tagged, List<String> tags) {
+        assert !tagged.isEmpty() : "At least one task must have been tagged";
+        return "Very good. I have tagged " + tagged.size() + " task(s) with " + String.join(", ", tags) + ":"
+                + getPreview(tagged);
+    }
+
+    /**
+     * Gets the message for when a bulk command selects no tasks.
+     * @return the formatted message
+     */
+    public String getNothingSelectedMessage() {
+        return "I could not locate any tasks matching that selection; nothing has been changed.";
+    }
+
+    /**
+     * Lists the first few tasks of a bulk command's result, one per line, and counts the rest.
+     */
+    private static String getPreview(List<Task> tasks) {
+        StringBuilder preview = new StringBuilder();
+        int shown = Math.min(tasks.size(), BULK_PREVIEW_SIZE);
+        for (int i = 0; i < shown; i++) {
+            preview.append('\n').append(tasks.get(i).getId()).append(". ").append(tasks.get(i));
+        }
+        if (tasks.size() > shown) {
+            preview.append("\n...and ").append(tasks.size() - shown).append(" more.");
+        }
+        return preview.toString();
+    }
+
     /**
      * Gets the formatted list of tasks.
      * @param tasks The list of tasks to be displayed.
@@ -70,14 +150,83 @@ public class Ui {
      */
     public String getListMessage(TaskList tasks) {
         assert tasks != null : "TaskList must not be null";
-        if (tasks.isEmpty()) {
-            return "You presently have no tasks upon your list.";
-        } else {
-            StringBuilder sb = new StringBuilder("Here are the tasks currently on your list:\n");
-            for (int i = 0; i < tasks.size(); i++) {
-                sb.append((i + 1)).append(". ").append(tasks.get(i)).append("\n");
+        return getListMessage(tasks, 1, Math.max(1, tasks.size()));
+    }
+
+    /**
+     * Gets one page of the list of tasks.
+     * @param tasks The list of tasks to be displayed.
+     * @param page The 1 based page number.
+     * @param pageSize The number of tasks per page.
+     * @return the formatted page
+     */
+    public String getListMessage(TaskList tasks, int page, int pageSize) {
+        StringBuilder sb = new StringBuilder();
+        writeListPage(tasks, page, pageSize, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Writes one page of the list of tasks, each numbered by its id.
+     * When there is more than one page, a footer says which page this is and how to see the next.
+     * @param tasks The list of tasks to be displayed.
+     * @param page The 1 based page number.
+     * @param pageSize The number of tasks per page.
+     * @param out Where to write the page.
+     * @throws UncheckedIOException if {@code out} fails to accept the text
+     */
+    public void writeListPage(TaskList tasks, int page, int pageSize, Appendable out) {
+        assert tasks != null : "TaskList must not be null";
+        assert page >= 1 && pageSize >= 1 : "Page and page size must be positive";
+        Phase previous = PhaseTimer.enterPhase(Phase.FORMAT);
+        try {
+            if (tasks.isEmpty()) {
+                out.append("You presently have no tasks upon your list.");
+                return;
+            }
+            int pages = getPageCount(tasks.size(), pageSize);
+            if (page > pages) {
+                out.append("I'm afraid there is no page ").append(String.valueOf(page))
+                        .append("; your list has only ").append(String.valueOf(pages)).append(" page(s).");
+                return;
             }
-            return sb.toString().trim();
+            int from = (page - 1) * pageSize;
+            int to = Math.min(tasks.size(), from + pageSize);
+            out.append("Here are the tasks currently on your list:");
+            writeTasks(tasks, from, to, out);
+            if (pages > 1) {
+                out.append("\n(Page ").append(String.valueOf(page)).append(" of ").append(String.valueOf(pages));
+                if (page < pages) {
+                    out.append("; type 'list /page ").append(String.valueOf(page + 1))
+                            .append(" /size ").append(String.valueOf(pageSize)).append("' for more");
+                }
+                out.append(".)");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            PhaseTimer.exitPhase(previous);
+        }
+    }
+
+    /**
+     * Gets the number of pages needed to show a list.
+     * @param taskCount The number of tasks in the list.
+     * @param pageSize The number of tasks per page.
+     * @return the page count, at least 1
+     */
+    public static int getPageCount(int taskCount, int pageSize) {
+        assert pageSize >= 1 : "Page size must be positive";
+        return Math.max(1, (int) ((taskCount + (long) pageSize - 1) / pageSize));
+    }
+
+    /**
+     * Writes tasks {@code from} (inclusive) to {@code to} (exclusive), each on a new line and numbered by id.
+     */
+    private static void writeTasks(TaskList tasks, int from, int to, Appendable out) throws IOException {
+        for (int i = from; i < to; i++) {
+            Task t = tasks.get(i);
+            out.append('\n').append(String.valueOf(t.getId())).append(". ").append(t.toString());
         }
     }
 
@@ -114,15 +263,31 @@ public class Ui {
      * @return the formatted find message
      */
     public String getFindMessage(TaskList tasks) {
+        StringBuilder sb = new StringBuilder();
+        writeFindMessage(tasks, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Writes the message for find results.
+     * @param tasks a TaskList of matching tasks
+     * @param out where to write the message
+     * @throws UncheckedIOException if {@code out} fails to accept the text
+     */
+    public void writeFindMessage(TaskList tasks, Appendable out) {
         assert tasks != null : "TaskList must not be null";
-        if (tasks.isEmpty()) {
-            return "I could not locate any matching tasks.";
-        } else {
-            StringBuilder sb = new StringBuilder("Here are the tasks that match your query:\n");
-            for (int i = 0; i < tasks.size(); i++) {
-                sb.append((i + 1)).append(". ").append(tasks.get(i)).append("\n");
+        Phase previous = PhaseTimer.enterPhase(Phase.FORMAT);
+        try {
+            if (tasks.isEmpty()) {
+                out.append("I could not locate any matching tasks.");
+                return;
             }
-            return sb.toString().trim();
+            out.append("Here are the tasks that match your query:");
+            writeTasks(tasks, 0, tasks.size(), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            PhaseTimer.exitPhase(previous);
         }
     }
 
@@ -131,20 +296,95 @@ public class Ui {
      * @return the formatted help message
      */
     public String getHelpMessage() {
+        return getHelpMessage(List.of());
+    }
+
+    /**
+     * Gets the help message listing all available commands, followed by commands added by plugins.
+     * @param pluginUsages one usage line per plugin command
+     * @return the formatted help message
+     */
+    public String getHelpMessage(List<String> pluginUsages) {
         String bullet = "\u2022 ";
-        return "Allow me to be of assistance. Here are the available commands:\n"
-                + bullet + "list - show all tasks\n"
+        StringBuilder help = new StringBuilder("Allow me to be of assistance. Here are the available commands:\n"
+                + bullet + "list [/page <number>] [/size <number>] - show your tasks, a page at a time (or ls)\n"
                 + bullet + "todo <description> - add a todo task\n"
                 + bullet + "deadline <description> /by <date> - add a deadline\n"
                 + bullet + "event <description> /from <start> /to <end> - add an event\n"
-                + bullet + "mark <number> - mark task as done\n"
-                + bullet + "unmark <number> - mark task as not done\n"
-                + bullet + "delete <number> - delete a task\n"
+                + bullet + "mark <tasks> - mark tasks as done\n"
+                + bullet + "unmark <tasks> - mark tasks as not done\n"
+                + bullet + "delete <tasks> - delete tasks (or rm)\n"
                 + bullet + "find <keyword> - find tasks containing keyword\n"
-                + bullet + "findtag <tag> - find tasks by tag\n"
-                + bullet + "tag <index> <tag> - tags a task with a tag\n"
+                + bullet + "findtag <tag> [<tag>...] - find tasks carrying all of the tags\n"
+                + bullet + "findtag /any <tag> [<tag>...] - find tasks carrying any of the tags\n"
+                + bullet + "tag <tasks> <tag> [<tag>...] - adds one or more tags to tasks\n"
+                + bullet + "due <date> - list deadlines and events up to a date\n"
+                + bullet + "between <start> /to <end> - list deadlines and events within a period\n"
+                + bullet + "upcoming [<count>] - list the next deadlines and events (5 by default)\n"
                 + bullet + "clear - clear all tasks\n"
-                + bullet + "bye - exit the program";
+                + bullet + "flush - save all changes to disk now (or save)\n"
+                + bullet + "stats - show how long commands take and how much has been saved (or metrics)\n"
+                + bullet + "bye - exit the program (or exit, quit)");
+        for (String usage : pluginUsages) {
+            help.append('\n').append(bullet).append(usage);
+        }
+        help.append("\n<tasks> is a number (3), a range (3-40), a list (1,5,9-12), done, undone, ")
+                .append("find:<keyword> or tag:<tag>");
+        return help.toString();
+    }
+
+    /**
+     * Gets the message for when the user asks for everything to be saved.
+     * @param isWritten whether anything had to be written
+     * @param requested the number of saves requested so far
+     * @param performed the number of writes made so far
+     * @return the formatted message
+     */
+    public String getFlushMessage(boolean isWritten, long requested, long performed) {
+        assert requested >= 0 && performed >= 0 : "Save counts must be non-negative";
+        return (isWritten ? "Very good. Every change has been written to disk."
+                : "Nothing needed saving; every change was already on disk.")
+                + "\n(" + requested + " save(s) requested, " + performed + " write(s) made so far.)";
+    }
+
+    /**
+     * Gets the message summing up how long commands have taken and how much has been saved and loaded.
+     * @param metrics the metrics to sum up
+     * @return the formatted message, with one line per command answered so far
+     */
+    public String getStatsMessage(Metrics metrics) {
+        assert metrics != null : "Metrics must not be null";
+        StringBuilder sb = new StringBuilder("Here is how long each command has taken, in milliseconds:");
+        for (Command command : Command.values()) {
+            LatencyHistogram total = metrics.getLatency(command);
+            if (total == null) {
+                continue;
+            }
+            sb.append(String.format("\n\u2022 %s: %d answered; median %.3f, p99 %.3f, max %.3f",
+                    command.name().toLowerCase(Locale.ROOT), total.getCount(), millis(total.getPercentileNanos(0.5)),
+                    millis(total.getPercentileNanos(0.99)), millis(total.getMaxNanos())));
+            String separator = " (median ";
+            for (Phase phase : Phase.values()) {
+                LatencyHistogram h = metrics.getLatency(command, phase);
+                if (h != null) {
+                    sb.append(separator).append(String.format("%s %.3f", phase.label(),
+                            millis(h.getPercentileNanos(0.5))));
+                    separator = ", ";
+                }
+            }
+            sb.append(separator.equals(", ") ? ")" : "");
+        }
+        LatencyHistogram loads = metrics.getLoadLatency();
+        sb.append(String.format("\n%d full save(s) and %d journal write(s) made, %d byte(s) in all.",
+                metrics.getFullSaves(), metrics.getJournalWrites(), metrics.getBytesWritten()));
+        sb.append(String.format("\n%d list(s) loaded, holding %d task(s); median load %.3f ms.",
+                loads.getCount(), metrics.getLoadedTasks(), millis(loads.getPercentileNanos(0.5))));
+        sb.append("\n").append(metrics.getIndexBuilds()).append(" search index(es) built.");
+        return sb.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
     }
 
     /**
@@ -170,12 +410,11 @@ public class Ui {
     /**
      * Gets the message for when a task is tagged.
      * @param t the task that was tagged
-     * @param tag the tag that was added
      * @return the formatted tag message
      */
-    public String getTaggedMessage(Task t, String tag) {
+    public String getTaggedMessage(Task t) {
         assert t != null : "Tagged task must not be null";
-        assert tag != null && !tag.isBlank() : "Tag must not be null or blank";
-        return "Very good. I have tagged this task accordingly:\n  " + t + " Tag: " + t.getTag();
+        assert !t.getTags().isEmpty() : "Tagged task must carry at least one tag";
+        return "Very good. I have tagged this task accordingly:\n  " + t + " Tags: " + String.join(", ", t.getTags());
     }
 }
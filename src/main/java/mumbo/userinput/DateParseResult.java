@@ -0,0 +1,49 @@
+package mumbo.userinput;
+
+import java.time.LocalDateTime;
+
+/**
+ * The outcome of recognising a date/time string: either the parsed value or a failure.
+ *
+ * <p>Returned by {@link DateTimeUtil#tryParse(String)} so that callers checking many inputs, or only
+ * checking validity, do not pay for an exception per rejected input. Every failure is the same shared
+ * instance.</p>
+ */
+public final class DateParseResult {
+    private static final DateParseResult INVALID = new DateParseResult(null);
+
+    private final LocalDateTime dateTime;
+
+    private DateParseResult(LocalDateTime dateTime) {
+        this.dateTime = dateTime;
+    }
+
+    static DateParseResult of(LocalDateTime dateTime) {
+        assert dateTime != null : "Parsed date/time must not be null";
+        return new DateParseResult(dateTime);
+    }
+
+    static DateParseResult invalid() {
+        return INVALID;
+    }
+
+    /**
+     * Checks whether the input was a recognised date/time
+     * @return true if {@link #get()} holds a value
+     */
+    public boolean isValid() {
+        return dateTime != null;
+    }
+
+    /**
+     * Gets the parsed date/time
+     * @return the parsed value
+     * @throws IllegalStateException if the input was not recognised
+     */
+    public LocalDateTime get() {
+        if (dateTime == null) {
+            throw new IllegalStateException("Date/time was not recognised");
+        }
+        return dateTime;
+    }
+}
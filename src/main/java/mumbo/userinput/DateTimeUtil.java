@@ -1,8 +1,9 @@
 package mumbo.userinput;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.Month;
+import java.time.Year;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.Locale;
@@ -18,41 +19,115 @@ public class DateTimeUtil {
     private static final DateTimeFormatter PRETTY_DATE_TIME =
             DateTimeFormatter.ofPattern("d MMM yyyy, HH:mm", Locale.ENGLISH);
 
-    private static final DateTimeFormatter[] CANDIDATES = new DateTimeFormatter[] {
-            DateTimeFormatter.ofPattern("yyyy/MM/dd"),
-            DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm"),
-            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")
-    };
+    private static final int DATE_LENGTH = 10; // yyyy/MM/dd or dd/MM/yyyy
+    private static final int DATE_TIME_LENGTH = 16; // the same followed by " HH:mm"
 
     /**
      * Parse a date/time string into a LocalDateTime.
-     * Accepts a few common formats (see CANDIDATES).
+     * Accepts yyyy/MM/dd and dd/MM/yyyy, each optionally followed by HH:mm.
      * @param s the input string
      * @return the parsed LocalDateTime
+     * @throws DateTimeParseException if the input is in none of the accepted formats
      */
     public static LocalDateTime parseDateTime(String s) {
         assert s != null : "Date/time string must not be null";
-        s = s.trim();
-        assert !s.isEmpty() : "Date/time string must not be blank";
-        for (DateTimeFormatter f : CANDIDATES) {
-            try {
-                // Try as LocalDateTime
-                return LocalDateTime.parse(s, f);
-            } catch (DateTimeParseException ignore) {
-                try {
-                    // Try as LocalDate next
-                    LocalDate d = LocalDate.parse(s, f);
-                    return d.atStartOfDay();
-                } catch (DateTimeParseException ignore2) {
-                    continue;
-                }
+        assert !s.isBlank() : "Date/time string must not be blank";
+        DateParseResult result = tryParse(s);
+        if (!result.isValid()) {
+            throw new DateTimeParseException("Unrecognised date/time: " + s, s, 0);
+        }
+        return result.get();
+    }
+
+    /**
+     * Recognises a date/time string in a single pass without throwing.
+     *
+     * <p>The input shape is classified from its length and the positions of its separators, and the fields
+     * are read digit by digit. Values are resolved the way {@link java.time.format.ResolverStyle#SMART}
+     * formatters resolve them: a day past the end of the month becomes its last day (2025/02/30 is
+     * 28 Feb), and 24:00 is midnight at the start of the next day.</p>
+     *
+     * @param s the input string; surrounding whitespace is ignored
+     * @return the parsed value, or an invalid result if the input is in none of the accepted formats
+     */
+    public static DateParseResult tryParse(String s) {
+        if (s == null) {
+            return DateParseResult.invalid();
+        }
+        int start = 0;
+        int end = s.length();
+        while (start < end && s.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int length = end - start;
+        if (length != DATE_LENGTH && length != DATE_TIME_LENGTH) {
+            return DateParseResult.invalid();
+        }
+
+        int year;
+        int month;
+        int day;
+        if (s.charAt(start + 4) == '/' && s.charAt(start + 7) == '/') {
+            year = digits(s, start, 4);
+            month = digits(s, start + 5, 2);
+            day = digits(s, start + 8, 2);
+        } else if (s.charAt(start + 2) == '/' && s.charAt(start + 5) == '/') {
+            day = digits(s, start, 2);
+            month = digits(s, start + 3, 2);
+            year = digits(s, start + 6, 4);
+        } else {
+            return DateParseResult.invalid();
+        }
+
+        int hour = 0;
+        int minute = 0;
+        if (length == DATE_TIME_LENGTH) {
+            if (s.charAt(start + 10) != ' ' || s.charAt(start + 13) != ':') {
+                return DateParseResult.invalid();
             }
+            hour = digits(s, start + 11, 2);
+            minute = digits(s, start + 14, 2);
         }
-        throw new DateTimeParseException("Unrecognised date/time: " + s, s, 0);
+
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31
+                || hour < 0 || hour > 24 || minute < 0 || minute > 59 || (hour == 24 && minute != 0)) {
+            return DateParseResult.invalid(); // digits() returns -1 for a non-digit, failing these checks too
+        }
+        day = Math.min(day, Month.of(month).length(Year.isLeap(year)));
+        LocalDateTime dt = LocalDateTime.of(year, month, day, hour % 24, minute);
+        return DateParseResult.of(hour == 24 ? dt.plusDays(1) : dt);
     }
 
+    /**
+     * Reads {@code count} ASCII digits starting at {@code from}.
+     * @return their value, or -1 if any of them is not a digit
+     */
+    private static int digits(String s, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
 
+    /**
+     * Widens a date typed without a time to cover the whole of that day, for use as the end of a range.
+     * @param dt the date/time
+     * @return the last second of the day if {@code dt} is at midnight, otherwise {@code dt} itself
+     */
+    public static LocalDateTime endOfDay(LocalDateTime dt) {
+        assert dt != null : "Date/time must not be null";
+        return dt.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? dt.plusDays(1).minusSeconds(1)
+                : dt;
+    }
 
     /**
      * Prettify a LocalDateTime for display to the user.
@@ -0,0 +1,151 @@
+package mumbo.userinput;
+
+import mumbo.command.Command;
+
+/**
+ * A single-pass scanner over one line of user input, used in place of regular expressions.
+ *
+ * <p>The lexer walks the input by index: it recognises the command word by looking it up in place in the
+ * command keyword trie, and only copies text out of the input when a caller asks for a word or the rest of
+ * the line. Markers such as {@code /by}, {@code /from} and {@code /to} are found with
+ * {@link #splitAt(String, String)}, which trims both sides by index before copying them. Any character up
+ * to and including a space counts as whitespace, as for {@link String#trim()}.</p>
+ */
+class Lexer {
+    private final String input;
+    private final int end;
+    private int pos;
+    private int wordStart;
+    private int wordEnd;
+
+    /**
+     * Creates a lexer positioned at the first non-whitespace character of the input
+     * @param input one line of user input
+     */
+    Lexer(String input) {
+        assert input != null : "Input must not be null";
+        this.input = input;
+        int e = input.length();
+        while (e > 0 && isSpace(input.charAt(e - 1))) {
+            e--;
+        }
+        this.end = e;
+        skipSpaces();
+    }
+
+    /**
+     * Checks whether any words remain
+     * @return true if the lexer has not reached the end of the input
+     */
+    boolean hasNext() {
+        return pos < end;
+    }
+
+    /**
+     * Reads the next word as a command, without copying it
+     * @return the matching command (case-insensitive), or UNKNOWN if the word is not a command
+     */
+    Command command() {
+        wordStart = pos;
+        skipWord();
+        wordEnd = pos;
+        skipSpaces();
+        return Command.from(input, wordStart, wordEnd);
+    }
+
+    /**
+     * Gets the word last read by {@link #command()}, such as one naming a plugin command
+     * @return the word as typed
+     */
+    String commandWord() {
+        return input.substring(wordStart, wordEnd);
+    }
+
+    /**
+     * Reads the next whitespace-delimited word
+     * @return the word, or null if none remain
+     */
+    String nextWord() {
+        if (!hasNext()) {
+            return null;
+        }
+        int start = pos;
+        skipWord();
+        String word = input.substring(start, pos);
+        skipSpaces();
+        return word;
+    }
+
+    /**
+     * Reads everything after the current position, with surrounding whitespace removed
+     * @return the rest of the input, or null if nothing remains
+     */
+    String rest() {
+        if (!hasNext()) {
+            return null;
+        }
+        String rest = input.substring(pos, end);
+        pos = end;
+        return rest;
+    }
+
+    /**
+     * Counts the words from the current position onwards without consuming them
+     * @return the number of remaining words
+     */
+    int countWords() {
+        int count = 0;
+        int i = pos;
+        while (i < end) {
+            count++;
+            while (i < end && !isSpace(input.charAt(i))) {
+                i++;
+            }
+            while (i < end && isSpace(input.charAt(i))) {
+                i++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Splits a string around the first occurrence of a marker such as {@code /by}, trimming both sides.
+     * Each side is trimmed by index and copied once.
+     * @param s the string to split
+     * @param marker the marker to split at
+     * @return the text before and after the marker, or null if the marker does not occur
+     */
+    static String[] splitAt(String s, String marker) {
+        int at = s.indexOf(marker);
+        if (at < 0) {
+            return null;
+        }
+        return new String[] {trimmed(s, 0, at), trimmed(s, at + marker.length(), s.length())};
+    }
+
+    private static String trimmed(String s, int from, int to) {
+        while (from < to && isSpace(s.charAt(from))) {
+            from++;
+        }
+        while (to > from && isSpace(s.charAt(to - 1))) {
+            to--;
+        }
+        return s.substring(from, to);
+    }
+
+    private void skipWord() {
+        while (pos < end && !isSpace(input.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private void skipSpaces() {
+        while (pos < end && isSpace(input.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private static boolean isSpace(char c) {
+        return c <= ' ';
+    }
+}
@@ -1,16 +1,28 @@
 package mumbo.userinput;
 
+import java.time.LocalDateTime;
+
 import mumbo.command.Command;
+import mumbo.task.Selection;
 
 /**
  * Mumbo.ParsedInput class
  *
- * An input that has been separated into its command and arguments
+ * An input that has been separated into its command and arguments.
+ * Besides the argument strings, it carries the values already converted while validating them
+ * (task indexes and other numbers, dates and times), so handlers never parse the same text twice.
+ * Commands that can act on many tasks at once also carry the {@link Selection} naming them.
  */
 
 public class ParsedInput {
+    private static final int[] NO_NUMBERS = new int[0];
+    private static final LocalDateTime[] NO_DATE_TIMES = new LocalDateTime[0];
+
     public final Command command;
     public final String[] args;
+    private final int[] numbers;
+    private final LocalDateTime[] dateTimes;
+    private final Selection selection;
 
     /**
      * Creates a parsed input with the specified characteristics
@@ -18,9 +30,41 @@ public class ParsedInput {
      * @param args a set of organised strings for a number of arguments
      */
     ParsedInput(Command command, String... args) {
+        this(command, NO_NUMBERS, NO_DATE_TIMES, args);
+    }
+
+    /**
+     * Creates a parsed input carrying converted values alongside its arguments
+     * @param command an Enum of different commands accepted by Mumbo
+     * @param numbers the numeric arguments, in the order they were given
+     * @param dateTimes the date/time arguments, in the order they were given
+     * @param args a set of organised strings for a number of arguments
+     */
+    ParsedInput(Command command, int[] numbers, LocalDateTime[] dateTimes, String... args) {
+        this(command, null, numbers, dateTimes, args);
+    }
+
+    /**
+     * Creates a parsed input for a command acting on a selection of tasks. A selection of a single id
+     * also carries that id as its first number, so {@link #getIndex()} works as for any one-task command.
+     * @param command an Enum of different commands accepted by Mumbo
+     * @param selection the tasks the command acts on
+     * @param args a set of organised strings for a number of arguments
+     */
+    ParsedInput(Command command, Selection selection, String... args) {
+        this(command, selection, selection.isSingle() ? new int[] {selection.getSingleId()} : NO_NUMBERS,
+                NO_DATE_TIMES, args);
+    }
+
+    private ParsedInput(Command command, Selection selection, int[] numbers, LocalDateTime[] dateTimes,
+            String... args) {
         assert command != null : "Command must not be null";
+        assert numbers != null && dateTimes != null : "Converted values must not be null";
         this.command = command;
         this.args = args == null ? new String[0] : args;
+        this.numbers = numbers;
+        this.dateTimes = dateTimes;
+        this.selection = selection;
         assert this.args != null : "Args array must not be null";
         for (int i = 0; i < this.args.length; i++) {
             assert this.args[i] != null : "Arg at index " + i + " must not be null";
@@ -46,4 +90,63 @@ public class ParsedInput {
         }
         return args[index - 1];
     }
+
+    /**
+     * Gets the description of a todo, deadline or event
+     * @return the description, or null for other commands
+     */
+    public String getDescription() {
+        switch (command) {
+        case TODO:
+        case DEADLINE:
+        case EVENT:
+            return args[0];
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Gets the task number of a command that acts on one task (mark, unmark, delete, tag)
+     * @return the id of the task, as shown by list
+     */
+    public int getIndex() {
+        return getNumberX(1);
+    }
+
+    /**
+     * Gets the tasks a command such as mark, unmark, delete or tag acts on
+     * @return the selection, or null for commands that do not take one
+     */
+    public Selection getSelection() {
+        return selection;
+    }
+
+    /**
+     * Checks how many numeric arguments were given
+     * @return the number of numeric arguments
+     */
+    public int getNumberCount() {
+        return numbers.length;
+    }
+
+    /**
+     * Gets the numeric argument at the specified position (1-based)
+     * @param index the position of the number among the numeric arguments (1-based)
+     * @return the number
+     */
+    public int getNumberX(int index) {
+        assert index >= 1 && index <= numbers.length : "No numeric argument at position " + index;
+        return numbers[index - 1];
+    }
+
+    /**
+     * Gets the date/time argument at the specified position (1-based)
+     * @param index the position of the value among the date/time arguments (1-based)
+     * @return the date/time, or null if the text given was not a recognised date
+     */
+    public LocalDateTime getDateTimeX(int index) {
+        assert index >= 1 && index <= dateTimes.length : "No date/time argument at position " + index;
+        return dateTimes[index - 1];
+    }
 }
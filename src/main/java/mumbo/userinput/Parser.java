@@ -1,12 +1,52 @@
 package mumbo.userinput;
 
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
 import mumbo.command.Command;
 import mumbo.exception.MumboException;
 
 /**
- * Parsers raw user input into an acceptable format for internal processing
+ * Parsers raw user input into an acceptable format for internal processing.
+ * The command word is recognised by a {@link Lexer} without regular expressions, and its arguments are
+ * handed to the parser registered for that command in a table rather than a switch. Each argument is
+ * validated and converted once, by {@link Validator}, and the typed values travel in the
+ * {@link ParsedInput} so that command handlers do not parse the text again.
  */
 public class Parser {
+    /** Number of tasks shown per page by {@code list} when no {@code /size} is given */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    private static final Map<Command, ArgumentParser> PARSERS = new EnumMap<>(Command.class);
+
+    static {
+        PARSERS.put(Command.TODO, (cmd, arg) -> parseTodo(arg));
+        PARSERS.put(Command.DEADLINE, (cmd, arg) -> parseDeadline(arg));
+        PARSERS.put(Command.EVENT, (cmd, arg) -> parseEvent(arg));
+        PARSERS.put(Command.MARK, Parser::parseSelection);
+        PARSERS.put(Command.UNMARK, Parser::parseSelection);
+        PARSERS.put(Command.DELETE, Parser::parseSelection);
+        PARSERS.put(Command.FIND, Parser::parseFind);
+        PARSERS.put(Command.FINDTAG, Parser::parseFind);
+        PARSERS.put(Command.TAG, (cmd, arg) -> parseTag(arg));
+        PARSERS.put(Command.LIST, (cmd, arg) -> arg == null ? new ParsedInput(cmd) : parseList(arg));
+        PARSERS.put(Command.DUE, (cmd, arg) -> parseDue(arg));
+        PARSERS.put(Command.BETWEEN, (cmd, arg) -> parseBetween(arg));
+        PARSERS.put(Command.UPCOMING, (cmd, arg) -> parseUpcoming(arg));
+        PARSERS.put(Command.CLEAR, (cmd, arg) -> new ParsedInput(cmd));
+        PARSERS.put(Command.HELP, (cmd, arg) -> new ParsedInput(cmd));
+        PARSERS.put(Command.BYE, (cmd, arg) -> new ParsedInput(cmd));
+        PARSERS.put(Command.FLUSH, (cmd, arg) -> new ParsedInput(cmd));
+        PARSERS.put(Command.STATS, (cmd, arg) -> new ParsedInput(cmd));
+    }
+
+    /**
+     * Turns the argument text of one command into a parsed input.
+     */
+    private interface ArgumentParser {
+        ParsedInput parse(Command cmd, String arg);
+    }
 
     /**
      * Parsing method for most inputs
@@ -17,34 +57,16 @@ public class Parser {
         if (raw == null || raw.isBlank()) {
             return new ParsedInput(Command.UNKNOWN);
         }
-        String[] parts = raw.trim().split("\\s+", 2);
-        Command cmd = Command.from(parts[0]);
-        String arg = parts.length > 1 ? parts[1].trim() : null;
-
-        switch (cmd) {
-        case TODO:
-            return parseTodo(arg);
-        case DEADLINE:
-            return parseDeadline(arg);
-        case EVENT:
-            return parseEvent(arg);
-        case MARK:
-        case UNMARK:
-        case DELETE:
-            return parseIntCommand(cmd, arg);
-        case FIND:
-        case FINDTAG:
-            return parseFind(cmd, arg);
-        case TAG:
-            return parseTag(arg);
-        case LIST:
-        case CLEAR:
-        case HELP:
-        case BYE:
-            return new ParsedInput(cmd);
-        default:
-            return new ParsedInput(Command.UNKNOWN);
+        Lexer lexer = new Lexer(raw);
+        Command cmd = lexer.command();
+        String arg = lexer.rest();
+
+        ArgumentParser parser = PARSERS.get(cmd);
+        if (parser == null) {
+            // Not a built-in command; keep the word so that a plugin registered under it can be found
+            return new ParsedInput(Command.UNKNOWN, lexer.commandWord(), arg == null ? "" : arg);
         }
+        return parser.parse(cmd, arg);
     }
 
     // Private parser methods for each command:
@@ -61,57 +83,74 @@ public class Parser {
 
     private static ParsedInput parseDeadline(String arg) {
         try {
-            Validator.validateDeadline(arg);
+            return Validator.toDeadline(arg);
         } catch (MumboException e) {
             return new ParsedInput(Command.ERROR, e.getMessage());
         }
-        String[] segments = arg.split("\\s*/by\\s*", 2);
-        assert segments.length == 2 : "Deadline must split into description and /by part";
-        assert !segments[0].trim().isEmpty() && !segments[1].trim().isEmpty()
-                : "Deadline description and /by must be non-blank";
-        return new ParsedInput(Command.DEADLINE, segments[0].trim(), segments[1].trim());
     }
 
     private static ParsedInput parseTag(String arg) {
         try {
-            Validator.validateTag(arg);
+            return Validator.toTag(arg);
         } catch (MumboException e) {
             return new ParsedInput(Command.ERROR, e.getMessage());
         }
-        String[] segments = arg.split("\\s+", 2);
-        assert segments.length == 2 : "Tag must split into index and tag parts";
-        assert !segments[0].trim().isEmpty() && !segments[1].trim().isEmpty()
-                : "Tag index and tag name must be non-blank";
+    }
+
+    private static ParsedInput parseEvent(String arg) {
         try {
-            Validator.validateInt(segments[0]);
+            return Validator.toEvent(arg);
         } catch (MumboException e) {
             return new ParsedInput(Command.ERROR, e.getMessage());
         }
-        return new ParsedInput(Command.TAG, segments[0].trim(), segments[1].trim());
     }
 
-    private static ParsedInput parseEvent(String arg) {
+    private static ParsedInput parseList(String arg) {
+        try {
+            return Validator.toList(arg, DEFAULT_PAGE_SIZE);
+        } catch (MumboException e) {
+            return new ParsedInput(Command.ERROR, e.getMessage());
+        }
+    }
+
+    private static ParsedInput parseDue(String arg) {
         try {
-            Validator.validateEvent(arg);
+            return Validator.toDue(arg);
         } catch (MumboException e) {
             return new ParsedInput(Command.ERROR, e.getMessage());
         }
-        String[] by = arg.split("\\s*/from\\s*", 2);
-        String[] range = by[1].split("\\s*/to\\s*", 2);
-        assert by.length == 2 : "Event must contain /from";
-        assert range.length == 2 : "Event must contain /to";
-        assert !by[0].trim().isEmpty() && !range[0].trim().isEmpty() && !range[1].trim().isEmpty()
-                : "Event parts must be non-blank";
-        return new ParsedInput(Command.EVENT, by[0].trim(), range[0].trim(), range[1].trim());
+    }
+
+    private static ParsedInput parseBetween(String arg) {
+        try {
+            return Validator.toBetween(arg);
+        } catch (MumboException e) {
+            return new ParsedInput(Command.ERROR, e.getMessage());
+        }
+    }
+
+    private static ParsedInput parseUpcoming(String arg) {
+        if (arg == null) {
+            return new ParsedInput(Command.UPCOMING);
+        }
+        return parseIntCommand(Command.UPCOMING, arg);
     }
 
     private static ParsedInput parseIntCommand(Command cmd, String arg) {
         try {
-            Validator.validateInt(arg);
+            int n = Validator.toPositiveInt(arg);
+            return new ParsedInput(cmd, new int[] {n}, new LocalDateTime[0], arg);
+        } catch (MumboException e) {
+            return new ParsedInput(Command.ERROR, e.getMessage());
+        }
+    }
+
+    private static ParsedInput parseSelection(Command cmd, String arg) {
+        try {
+            return new ParsedInput(cmd, Validator.toSelection(arg), arg);
         } catch (MumboException e) {
             return new ParsedInput(Command.ERROR, e.getMessage());
         }
-        return new ParsedInput(cmd, arg);
     }
 
     private static ParsedInput parseFind(Command cmd, String arg) {
@@ -1,16 +1,24 @@
 package mumbo.userinput;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeParseException;
 
+import mumbo.command.Command;
 import mumbo.exception.MumboException;
+import mumbo.task.Selection;
+import mumbo.task.TaskList;
 
 /**
  * Validator class to validate user input after parsing.
  * Includes methods to validate integers, ranges, todo, deadline, event formats,
  * and yes/no responses.
+ *
+ * <p>The package-private {@code toX} methods validate a command's argument and convert it into a
+ * {@link ParsedInput} in the same pass, so the parser splits each argument and parses each number and
+ * date exactly once. The public {@code validateX} methods run the same checks and discard the result.</p>
  */
 public class Validator {
+    private static final int[] NO_NUMBERS = new int[0];
+    private static final LocalDateTime[] NO_DATE_TIMES = new LocalDateTime[0];
 
     /**
      * Validates that the input string represents a positive integer.
@@ -18,6 +26,16 @@ public class Validator {
      * @throws MumboException if the input is null, blank, not a number, or not a positive integer
      */
     public static void validateInt(String s) {
+        toPositiveInt(s);
+    }
+
+    /**
+     * Validates that the input string represents a positive integer and converts it.
+     * @param s the input string to validate
+     * @return its value
+     * @throws MumboException if the input is null, blank, not a number, or not a positive integer
+     */
+    static int toPositiveInt(String s) {
         if (s == null || s.isBlank()) {
             throw new MumboException("Do be so kind as to specify which task.");
         }
@@ -26,11 +44,60 @@ public class Validator {
             if (n <= 0) {
                 throw new MumboException("The index ought to be a positive integer (1, 2, 3, ...).");
             }
+            return n;
         } catch (NumberFormatException e) {
             throw new MumboException("That does not appear to be a number. For example: mark 2");
         }
     }
 
+    /**
+     * Validates the tasks named by a mark, unmark, delete or tag command and converts them into a selection.
+     * Accepted forms are a task number ({@code 7}), a range ({@code 3-40}), a list of either
+     * ({@code 1,5,9-12}), {@code done}, {@code undone}, {@code find:<keyword>} and {@code tag:<tag>}.
+     * @param s the selection typed by the user
+     * @return the selection
+     * @throws MumboException if the selection is missing or malformed
+     */
+    static Selection toSelection(String s) {
+        if (s == null || s.isBlank()) {
+            throw new MumboException("Do be so kind as to specify which task.");
+        }
+        String text = s.trim();
+        if (text.equalsIgnoreCase("done") || text.equalsIgnoreCase("undone")) {
+            return Selection.done(text.equalsIgnoreCase("done"));
+        }
+        if (text.regionMatches(true, 0, "find:", 0, 5)) {
+            validateFind(text.substring(5));
+            return Selection.matching(text.substring(5).trim());
+        }
+        if (text.regionMatches(true, 0, "tag:", 0, 4)) {
+            if (text.substring(4).isBlank()) {
+                throw new MumboException("Do kindly specify a tag to select by, for example: tag:work");
+            }
+            return Selection.tagged(text.substring(4).trim());
+        }
+
+        int parts = 1;
+        for (int i = 0; i < text.length(); i++) {
+            parts += text.charAt(i) == ',' ? 1 : 0;
+        }
+        int[] ranges = new int[parts * 2];
+        int start = 0;
+        for (int r = 0; r < ranges.length; r += 2) {
+            int end = text.indexOf(',', start);
+            String part = text.substring(start, end < 0 ? text.length() : end);
+            int dash = part.indexOf('-', 1); // A leading '-' is a sign, which toPositiveInt rejects
+            ranges[r] = toPositiveInt(dash < 0 ? part : part.substring(0, dash));
+            ranges[r + 1] = dash < 0 ? ranges[r] : toPositiveInt(part.substring(dash + 1));
+            if (ranges[r + 1] < ranges[r]) {
+                throw new MumboException("A range ought to run from the smaller number to the larger, "
+                        + "for example: delete 3-40");
+            }
+            start = end + 1;
+        }
+        return Selection.ofIds(ranges);
+    }
+
     /**
      * Validates that the integer s is within the range [min, max].
      * @param s the integer to validate
@@ -42,6 +109,19 @@ public class Validator {
         }
     }
 
+    /**
+     * Validates that a task with the given id is in the list.
+     * @param id the id typed by the user
+     * @param tasks the list the task should be in
+     * @throws MumboException if no task in the list has this id
+     */
+    public static void validateTaskId(int id, TaskList tasks) {
+        if (!tasks.contains(id)) {
+            throw new MumboException("I'm afraid there is no task numbered " + id
+                    + "; you may type 'list' to see the numbers of your tasks.");
+        }
+    }
+
     /**
      * Validates the format of a todo command.
      * @param s the description of the todo
@@ -57,13 +137,26 @@ public class Validator {
      * @param s the description and deadline string
      */
     public static void validateDeadline(String s) {
+        toDeadline(s);
+    }
+
+    /**
+     * Validates a deadline command and converts it, splitting the argument once.
+     * The deadline text is kept even if it is not a recognised date, in which case its value is null.
+     * @param s the description and deadline string
+     * @return the parsed deadline, with the description and deadline as arguments
+     */
+    static ParsedInput toDeadline(String s) {
         if (s == null || s.isBlank()) {
             throw new MumboException("I'm afraid the description cannot be empty.");
         }
-        String[] segments = s.split("\\s*/by\\s*", 2);
-        if (segments.length < 2 || segments[0].isBlank() || segments[1].isBlank()) {
+        String[] segments = Lexer.splitAt(s, "/by");
+        if (segments == null || segments[0].isEmpty() || segments[1].isEmpty()) {
             throw new MumboException("Pray specify its deadline with /by <deadline>.");
         }
+        DateParseResult by = DateTimeUtil.tryParse(segments[1]);
+        return new ParsedInput(Command.DEADLINE, NO_NUMBERS, new LocalDateTime[] {by.isValid() ? by.get() : null},
+                segments[0], segments[1]);
     }
 
     /**
@@ -71,30 +164,145 @@ public class Validator {
      * @param s the description and event time range string
      */
     public static void validateEvent(String s) {
+        toEvent(s);
+    }
+
+    /**
+     * Validates an event command and converts it, splitting the argument and parsing each date once.
+     * @param s the description and event time range string
+     * @return the parsed event, with the description, start and end as arguments
+     */
+    static ParsedInput toEvent(String s) {
         if (s == null || s.isBlank()) {
             throw new MumboException("I’m afraid the description cannot be empty.");
         }
-        String[] by = s.split("\\s*/from\\s*", 2);
-        if (by.length < 2 || by[0].isBlank()) {
+        String[] by = Lexer.splitAt(s, "/from");
+        if (by == null || by[0].isEmpty()) {
             throw new MumboException("Pray specify the event start with /from <start>.");
         }
-        String[] range = by[1].split("\\s*/to\\s*", 2);
-        if (range.length < 2 || range[0].isBlank() || range[1].isBlank()) {
+        String[] range = Lexer.splitAt(by[1], "/to");
+        if (range == null || range[0].isEmpty() || range[1].isEmpty()) {
             throw new MumboException("Pray specify the event end with /to <end>.");
         }
-        try {
-            LocalDateTime start = DateTimeUtil.parseDateTime(range[0]);
-            LocalDateTime end = DateTimeUtil.parseDateTime(range[1]);
-            if (end.isBefore(start)) {
-                throw new MumboException("The event cannot conclude before it begins, I'm afraid.");
-            }
-        } catch (DateTimeParseException e) {
+        LocalDateTime start = validateDate(range[0]);
+        LocalDateTime end = validateDate(range[1]);
+        if (end.isBefore(start)) {
+            throw new MumboException("The event cannot conclude before it begins, I'm afraid.");
+        }
+        return new ParsedInput(Command.EVENT, NO_NUMBERS, new LocalDateTime[] {start, end}, by[0], range[0], range[1]);
+    }
+
+    /**
+     * Validates the format of a due command.
+     * @param s the date to list tasks due by
+     * @throws MumboException if the date is missing or invalid
+     */
+    public static void validateDue(String s) {
+        toDue(s);
+    }
+
+    /**
+     * Validates a due command and converts its date.
+     * @param s the date to list tasks due by
+     * @return the parsed command, with the date as its argument
+     */
+    static ParsedInput toDue(String s) {
+        if (s == null || s.isBlank()) {
+            throw new MumboException("Pray specify a date, for example: due 2025/12/31");
+        }
+        return new ParsedInput(Command.DUE, NO_NUMBERS, new LocalDateTime[] {validateDate(s)}, s.trim());
+    }
+
+    /**
+     * Validates the format of a between command.
+     * @param s the period string, {@code <start> /to <end>}
+     * @throws MumboException if either date is missing or invalid, or the period ends before it starts
+     */
+    public static void validateBetween(String s) {
+        toBetween(s);
+    }
+
+    /**
+     * Validates a between command and converts both of its dates.
+     * @param s the period string, {@code <start> /to <end>}
+     * @return the parsed command, with the start and end as arguments
+     */
+    static ParsedInput toBetween(String s) {
+        if (s == null || s.isBlank()) {
+            throw new MumboException("Pray specify a period, for example: between 2025/12/01 /to 2025/12/07");
+        }
+        String[] range = Lexer.splitAt(s, "/to");
+        if (range == null || range[0].isEmpty() || range[1].isEmpty()) {
+            throw new MumboException("Pray specify the end of the period with /to <end>.");
+        }
+        LocalDateTime start = validateDate(range[0]);
+        LocalDateTime end = validateDate(range[1]);
+        if (end.isBefore(start)) {
+            throw new MumboException("The period cannot conclude before it begins, I'm afraid.");
+        }
+        return new ParsedInput(Command.BETWEEN, NO_NUMBERS, new LocalDateTime[] {start, end}, range[0], range[1]);
+    }
+
+    private static LocalDateTime validateDate(String s) {
+        DateParseResult result = DateTimeUtil.tryParse(s);
+        if (!result.isValid()) {
             throw new MumboException("That date appears to be invalid.\nPlease use one of the following formats:\n"
                     + "1) yyyy/MM/dd\n"
                     + "2) yyyy/MM/dd HH:mm\n"
                     + "3) dd/MM/yyyy\n"
                     + "4) dd/MM/yyyy HH:mm");
         }
+        return result.get();
+    }
+
+    /**
+     * Validates the options of a list command, {@code /page <number>} and {@code /size <number>} in any order.
+     * @param s the options string
+     * @throws MumboException if an option is unknown, repeated or not followed by a positive integer
+     */
+    public static void validateList(String s) {
+        toList(s, 1);
+    }
+
+    /**
+     * Validates list options and converts them into a page number and a page size.
+     * @param s the options string
+     * @param defaultPageSize the page size to use if none is given
+     * @return the parsed command, with the page and page size as its numbers and arguments
+     */
+    static ParsedInput toList(String s, int defaultPageSize) {
+        Lexer tokens = new Lexer(s == null ? "" : s);
+        if (tokens.countWords() % 2 != 0) {
+            throw new MumboException("Pray give each option a number, for example: list /page 2 /size 20");
+        }
+        int page = 0;
+        int size = 0;
+        while (tokens.hasNext()) {
+            String option = tokens.nextWord();
+            String value = tokens.nextWord();
+            boolean isPage = option.equals("/page");
+            if (!isPage && !option.equals("/size")) {
+                throw new MumboException("I only know the list options /page and /size, I'm afraid.");
+            }
+            if ((isPage ? page : size) != 0) {
+                throw new MumboException("Each list option may only be given once.");
+            }
+            int n;
+            try {
+                n = toPositiveInt(value);
+            } catch (MumboException e) {
+                throw new MumboException("The page and page size ought to be positive integers (1, 2, 3, ...).");
+            }
+            if (isPage) {
+                page = n;
+            } else {
+                size = n;
+            }
+        }
+        page = page == 0 ? 1 : page;
+        size = size == 0 ? defaultPageSize : size;
+        return new ParsedInput(Command.LIST, new int[] {page, size}, NO_DATE_TIMES,
+                String.valueOf(page), String.valueOf(size));
     }
 
     /**
@@ -129,17 +337,31 @@ public class Validator {
      * @throws MumboException if the format is incorrect or index is invalid
      */
     public static void validateTag(String s) {
+        toTag(s);
+    }
+
+    /**
+     * Validates a tag command and converts the tasks it names, which may be any selection without spaces.
+     * @param s the index and tag name string
+     * @return the parsed command, with its selection and the index and tags as arguments
+     */
+    static ParsedInput toTag(String s) {
         if (s == null || s.isBlank()) {
             throw new MumboException("Do be so kind as to specify the task index and the tag name.");
         }
-        String[] segments = s.split("\\s+", 2);
-        if (segments.length < 2 || segments[0].isBlank() || segments[1].isBlank()) {
+        Lexer words = new Lexer(s);
+        String index = words.nextWord();
+        String tags = words.rest();
+        if (tags == null) {
             throw new MumboException("Please specify both the task index and the tag name.");
         }
+        Selection selection;
         try {
-            validateInt(segments[0]);
+            selection = toSelection(index);
         } catch (MumboException e) {
-            throw new MumboException("The task index ought to be a positive integer (1, 2, 3, ...).");
+            throw new MumboException("The task index ought to be a positive integer (1, 2, 3, ...) "
+                    + "or a selection such as 3-40.");
         }
+        return new ParsedInput(Command.TAG, selection, index, tags);
     }
 }
@@ -0,0 +1,81 @@
+package mumbo.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import mumbo.command.CommandPlugin;
+import mumbo.task.TaskList;
+import mumbo.task.Todo;
+import mumbo.ui.Ui;
+
+/**
+ * Tests that changes made during a batch, whether by built-in commands or by plugins, are written only when
+ * the batch is committed.
+ */
+public class MumboBatchTest {
+    private static final String STORE = "batch-test.txt";
+    private static final Path FILE = Paths.get("./data", STORE);
+
+    /**
+     * Adds a todo for each word of its argument.
+     */
+    private static final CommandPlugin ADD_ALL = new CommandPlugin() {
+        @Override
+        public String getKeyword() {
+            return "addall";
+        }
+
+        @Override
+        public boolean isMutating() {
+            return true;
+        }
+
+        @Override
+        public String execute(String argument, TaskList tasks, Ui ui) {
+            for (String word : argument.split(" ")) {
+                tasks.add(new Todo(word));
+            }
+            return "Added them all.";
+        }
+    };
+
+    @BeforeEach
+    @AfterEach
+    void deleteStore() throws IOException {
+        for (String suffix : new String[] {"", ".journal", ".journal.old", ".tmp"}) {
+            Files.deleteIfExists(Paths.get("./data", STORE + suffix));
+        }
+    }
+
+    @Test
+    void testPluginChangesWaitForCommit() throws IOException {
+        Mumbo mumbo = new Mumbo(STORE, false, List.of(ADD_ALL));
+        mumbo.beginBatch();
+
+        assertEquals("Added them all.", mumbo.getResponse("addall apples pears"));
+        mumbo.getResponse("todo plums");
+
+        assertFalse(Files.readString(FILE).contains("apples"), "Plugin change written before the commit");
+        assertTrue(mumbo.commitBatch());
+        String saved = Files.readString(FILE);
+        assertTrue(saved.contains("apples") && saved.contains("pears") && saved.contains("plums"), saved);
+        assertFalse(mumbo.commitBatch());
+
+        mumbo.getResponse("addall figs");
+        assertTrue(mumbo.endBatch());
+        mumbo.getResponse("addall dates"); // Saved at once again
+        assertTrue(Files.readString(FILE).contains("dates"));
+        mumbo.shutdown();
+    }
+}
@@ -0,0 +1,127 @@
+package mumbo.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Stress tests for {@link Mumbo#getResponse(String)} called from many threads at once.
+ *
+ * <p>Each writer adds its own tasks one after another and marks each one after adding it, so every state
+ * the list passes through holds, for each writer, a prefix of its tasks of which all but at most the last
+ * are marked. Readers check that every list they are shown is such a state, and that no reader ever sees a
+ * writer's progress go backwards. Writers check that they see their own changes as soon as they are made.</p>
+ */
+public class MumboConcurrencyTest {
+    private static final String STORE = "concurrency-test.txt";
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int TASKS_PER_WRITER = 150;
+    private static final Pattern TASK = Pattern.compile("\\[T]\\[([ X])] w(\\d+)-(\\d+)x");
+
+    @BeforeEach
+    @AfterEach
+    void deleteStore() throws IOException {
+        for (String suffix : new String[] {"", ".journal", ".journal.old", ".tmp"}) {
+            Files.deleteIfExists(Paths.get("./data", STORE + suffix));
+        }
+    }
+
+    @Test
+    void testConcurrentReadsAndWrites() throws Exception {
+        Mumbo mumbo = new Mumbo(STORE, true);
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(pool.submit(() -> write(mumbo, writer)));
+        }
+        for (int r = 0; r < READERS; r++) {
+            readers.add(pool.submit(() -> {
+                read(mumbo, isWriting);
+                return null;
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(60, TimeUnit.SECONDS);
+        }
+        isWriting.set(false);
+        for (Future<?> reader : readers) {
+            reader.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        int[][] last = observe(mumbo.getResponse("list /page 1 /size 100000"));
+        for (int w = 0; w < WRITERS; w++) {
+            assertEquals(TASKS_PER_WRITER, last[w][0], "Tasks added by writer " + w);
+            assertEquals(TASKS_PER_WRITER, last[w][1], "Tasks marked by writer " + w);
+        }
+        int[][] reloaded = observe(new Mumbo(STORE, true).getResponse("list /page 1 /size 100000"));
+        for (int w = 0; w < WRITERS; w++) {
+            assertEquals(TASKS_PER_WRITER, reloaded[w][1], "Tasks saved by writer " + w);
+        }
+    }
+
+    private static Void write(Mumbo mumbo, int writer) {
+        for (int i = 0; i < TASKS_PER_WRITER; i++) {
+            String name = String.format("w%d-%03dx", writer, i);
+            mumbo.getResponse("todo " + name);
+            assertTrue(mumbo.getResponse("find " + name).contains("[ ] " + name), "Own add not seen: " + name);
+            mumbo.getResponse("mark find:" + name);
+            assertTrue(mumbo.getResponse("find " + name).contains("[X] " + name), "Own mark not seen: " + name);
+        }
+        return null;
+    }
+
+    private static void read(Mumbo mumbo, AtomicBoolean isWriting) {
+        int[][] previous = new int[WRITERS][2];
+        while (isWriting.get()) {
+            int[][] seen = observe(mumbo.getResponse("list /page 1 /size 100000"));
+            for (int w = 0; w < WRITERS; w++) {
+                assertTrue(seen[w][0] >= previous[w][0] && seen[w][1] >= previous[w][1],
+                        "Writer " + w + " went backwards");
+            }
+            previous = seen;
+        }
+    }
+
+    /**
+     * Reads a listing into, for each writer, how many of its tasks are present and how many are marked,
+     * failing if the listing is not a state the writers could have left the list in.
+     */
+    private static int[][] observe(String listing) {
+        int[][] counts = new int[WRITERS][2];
+        Matcher m = TASK.matcher(listing);
+        while (m.find()) {
+            int writer = Integer.parseInt(m.group(2));
+            int index = Integer.parseInt(m.group(3));
+            boolean isDone = m.group(1).equals("X");
+            assertEquals(counts[writer][0], index, "Tasks of writer " + writer + " out of order or missing");
+            assertTrue(!isDone || counts[writer][1] == index, "Marks of writer " + writer + " not a prefix");
+            counts[writer][0]++;
+            counts[writer][1] += isDone ? 1 : 0;
+        }
+        for (int w = 0; w < WRITERS; w++) {
+            assertTrue(counts[w][0] - counts[w][1] <= 1, "Writer " + w + " has more than one unmarked task");
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,79 @@
+package mumbo.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import mumbo.command.CommandPlugin;
+import mumbo.task.TaskList;
+import mumbo.ui.Ui;
+
+/**
+ * Tests that a mutating plugin which changes tasks directly, rather than through the list, has its changes
+ * saved and searched, while snapshots taken before it ran go on seeing the tasks as they were.
+ */
+public class MumboPluginTest {
+    private static final String STORE = "plugin-test.txt";
+
+    /**
+     * Marks every task done and tags it, directly on the tasks.
+     */
+    private static final CommandPlugin FINISH_ALL = new CommandPlugin() {
+        @Override
+        public String getKeyword() {
+            return "finishall";
+        }
+
+        @Override
+        public boolean isMutating() {
+            return true;
+        }
+
+        @Override
+        public String execute(String argument, TaskList tasks, Ui ui) {
+            for (int i = 0; i < tasks.size(); i++) {
+                tasks.get(i).tag("finished").mark(true);
+            }
+            return "Finished them all.";
+        }
+    };
+
+    @BeforeEach
+    @AfterEach
+    void deleteStore() throws IOException {
+        for (String suffix : new String[] {"", ".journal", ".journal.old", ".tmp"}) {
+            Files.deleteIfExists(Paths.get("./data", STORE + suffix));
+        }
+    }
+
+    @Test
+    void testDirectChangesAreSavedAndIndexedButNotShared() {
+        Mumbo mumbo = new Mumbo(STORE, true, List.of(FINISH_ALL));
+        mumbo.getResponse("todo water plants");
+        mumbo.getResponse("todo feed cat");
+        mumbo.getResponse("findtag finished"); // Builds the tag index before the plugin runs
+        TaskList before = mumbo.snapshot();
+
+        assertEquals("Finished them all.", mumbo.getResponse("finishall"));
+
+        assertFalse(before.get(0).isDone(), "A snapshot taken earlier saw the plugin's change");
+        assertTrue(before.get(1).getTags().isEmpty(), "A snapshot taken earlier saw the plugin's change");
+        TaskList after = mumbo.snapshot();
+        assertTrue(after.getVersion() > before.getVersion());
+        assertTrue(after.get(0).isDone() && after.get(1).isDone());
+        assertTrue(mumbo.getResponse("findtag finished").contains("feed cat"));
+        mumbo.shutdown();
+
+        TaskList reloaded = new Mumbo(STORE, true, List.of()).snapshot();
+        assertTrue(reloaded.get(0).isDone() && reloaded.get(1).hasTag("finished"), "Direct changes were not saved");
+    }
+}
@@ -0,0 +1,79 @@
+package mumbo.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import mumbo.metrics.Metrics;
+import mumbo.task.Task;
+import mumbo.task.TaskList;
+
+/**
+ * Tests that searches made right after a change use the list's up-to-date indexes instead of building new
+ * ones, and still see the change.
+ */
+public class MumboSearchTest {
+    private static final String STORE = "search-test.txt";
+    private static final int TASKS = 200;
+
+    @BeforeEach
+    @AfterEach
+    void deleteStore() throws IOException {
+        for (String suffix : new String[] {"", ".journal", ".journal.old", ".tmp"}) {
+            Files.deleteIfExists(Paths.get("./data", STORE + suffix));
+        }
+    }
+
+    @Test
+    void testSearchAfterChangeDoesNotRebuildIndexes() {
+        Mumbo mumbo = new Mumbo(STORE, true);
+        for (int i = 0; i < TASKS; i++) {
+            mumbo.getResponse("deadline report " + i + " /by 2030/01/" + String.format("%02d", i % 28 + 1));
+        }
+        mumbo.getResponse("tag 1-10 urgent");
+        search(mumbo);
+        long builds = Metrics.global().getIndexBuilds();
+
+        mumbo.getResponse("mark 6");
+        assertTrue(mumbo.getResponse("find report 5").contains("[X] report 5 "));
+        mumbo.getResponse("deadline memo /by 2030/01/01");
+        assertTrue(mumbo.getResponse("find memo").contains("memo"));
+        assertTrue(mumbo.getResponse("due 2030/01/01").contains("memo"));
+        mumbo.getResponse("tag 11 urgent");
+        assertTrue(mumbo.getResponse("findtag urgent").contains("report 10 "));
+        mumbo.getResponse("delete 1");
+        assertFalse(mumbo.getResponse("findtag urgent").contains("report 0 "));
+        search(mumbo);
+
+        assertEquals(builds, Metrics.global().getIndexBuilds(), "Indexes built again after a change");
+    }
+
+    @Test
+    void testFoundTasksAreNotChangedLater() {
+        Mumbo mumbo = new Mumbo(STORE, true);
+        mumbo.getResponse("todo write report");
+        TaskList found = mumbo.find("report");
+        mumbo.markTask(1, true);
+
+        Task task = found.get(0);
+        assertEquals(1, task.getId());
+        assertFalse(task.isDone());
+        assertTrue(mumbo.find("report").get(0).isDone());
+    }
+
+    private static void search(Mumbo mumbo) {
+        mumbo.getResponse("find report");
+        mumbo.getResponse("findtag urgent");
+        mumbo.getResponse("due 2030/01/15");
+        mumbo.getResponse("between 2030/01/02 /to 2030/01/03");
+        mumbo.getResponse("upcoming 3");
+    }
+}
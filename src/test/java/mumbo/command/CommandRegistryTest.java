@@ -0,0 +1,62 @@
+package mumbo.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that keywords and aliases are looked up ignoring case, and that a registration with any word that
+ * cannot be registered leaves none of its words behind.
+ */
+public class CommandRegistryTest {
+    @Test
+    void testKeywordsAndAliasesAreFoundIgnoringCase() {
+        CommandRegistry<String> registry = new CommandRegistry<>();
+        registry.register("report", "Report", "sum", "summary");
+        registry.register("remind", "remind");
+
+        assertEquals("report", registry.lookup("REPORT"));
+        assertEquals("report", registry.lookup("Sum"));
+        assertEquals("report", registry.lookup("summary"));
+        assertEquals("remind", registry.lookup("say remind me", 4, 10));
+        assertNull(registry.lookup("re"));
+        assertNull(registry.lookup("summaries"));
+        assertEquals(List.of("report", "remind"), registry.keywords());
+    }
+
+    @Test
+    void testClashingAliasRegistersNothing() {
+        CommandRegistry<String> registry = new CommandRegistry<>();
+        registry.register("report", "report", "sum");
+
+        assertThrows(IllegalArgumentException.class, () -> registry.register("total", "total", "SUM"));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("stats", "stats", "Stats"));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("count", "count", "tally", "tally"));
+
+        assertNull(registry.lookup("total"));
+        assertNull(registry.lookup("stats"));
+        assertNull(registry.lookup("count"));
+        assertNull(registry.lookup("tally"));
+        assertEquals("report", registry.lookup("sum"));
+        assertEquals(List.of("report"), registry.keywords());
+    }
+
+    @Test
+    void testWordsThatAreNotSingleWordsRegisterNothing() {
+        CommandRegistry<String> registry = new CommandRegistry<>();
+
+        assertThrows(IllegalArgumentException.class, () -> registry.register("plan", "plan", "make plan"));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("plan", "plan", " "));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("plan", "plan", (String) null));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("plan", ""));
+
+        assertNull(registry.lookup("plan"));
+        assertEquals(List.of(), registry.keywords());
+        registry.register("plan", "plan", "schedule"); // Nothing was left behind to clash with
+        assertEquals("plan", registry.lookup("schedule"));
+    }
+}
@@ -0,0 +1,86 @@
+package mumbo.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that percentiles read back from a {@link LatencyHistogram} are exact for short durations, round up to
+ * the end of their bucket for longer ones, and stay within the stated precision.
+ */
+public class LatencyHistogramTest {
+    @Test
+    void testEmptyHistogramReadsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileNanos(0.5));
+        assertEquals(0, histogram.getMaxNanos());
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    void testShortDurationsAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int nanos = 0; nanos < 128; nanos++) {
+            histogram.record(nanos);
+        }
+        assertEquals(0, histogram.getPercentileNanos(0));
+        assertEquals(0, histogram.getPercentileNanos(1.0 / 128));
+        assertEquals(1, histogram.getPercentileNanos(1.5 / 128)); // Nearest rank rounds up
+        assertEquals(63, histogram.getPercentileNanos(0.5));
+        assertEquals(126, histogram.getPercentileNanos(0.99));
+        assertEquals(127, histogram.getPercentileNanos(1));
+        assertEquals(128, histogram.getCount());
+        assertEquals(127 * 128 / 2, histogram.getTotalNanos());
+    }
+
+    @Test
+    void testPercentilesRoundUpToBucketEnds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(127); // The last bucket one nanosecond wide
+        histogram.record(128); // The first two wide: 128 and 129
+        histogram.record(255); // The last two wide: 254 and 255
+        histogram.record(256); // The first four wide: 256 to 259
+        histogram.record(1_000);
+
+        assertEquals(127, histogram.getPercentileNanos(0.2));
+        assertEquals(129, histogram.getPercentileNanos(0.4));
+        assertEquals(255, histogram.getPercentileNanos(0.6));
+        assertEquals(259, histogram.getPercentileNanos(0.8));
+        assertEquals(1_000, histogram.getPercentileNanos(1)); // Capped at the longest duration recorded
+    }
+
+    @Test
+    void testOutOfRangeDurationsAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.getPercentileNanos(0.5));
+        assertEquals(LatencyHistogram.MAX_NANOS, histogram.getPercentileNanos(1));
+        assertEquals(LatencyHistogram.MAX_NANOS, histogram.getMaxNanos());
+    }
+
+    @Test
+    void testRandomDurationsAreWithinPrecision() {
+        Random random = new Random(25);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] durations = new long[100_000];
+        for (int i = 0; i < durations.length; i++) {
+            durations[i] = (long) Math.exp(random.nextDouble() * Math.log(LatencyHistogram.MAX_NANOS));
+            histogram.record(durations[i]);
+        }
+        Arrays.sort(durations);
+
+        for (double fraction : new double[] {0.001, 0.1, 0.5, 0.9, 0.99, 0.999, 1}) {
+            long exact = durations[(int) Math.ceil(fraction * durations.length) - 1];
+            long read = histogram.getPercentileNanos(fraction);
+            assertTrue(read >= exact, () -> "p" + fraction + " read " + read + " below " + exact);
+            assertTrue(read - exact <= exact * LatencyHistogram.PRECISION_PERCENT / 100,
+                    () -> "p" + fraction + " read " + read + " for " + exact);
+        }
+        assertEquals(durations[durations.length - 1], histogram.getMaxNanos());
+    }
+}
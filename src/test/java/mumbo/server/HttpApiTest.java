@@ -0,0 +1,155 @@
+package mumbo.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import mumbo.app.Mumbo;
+
+/**
+ * Tests the HTTP API over the loopback interface: the routes, their error replies, and caching by ETag.
+ */
+public class HttpApiTest {
+    private static final String STORE = "http-test.txt";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private Mumbo mumbo;
+    private HttpApi api;
+
+    @BeforeEach
+    void start() throws IOException {
+        deleteStore();
+        mumbo = new Mumbo(STORE, true);
+        api = new HttpApi(mumbo, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        api.start();
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        api.close();
+        mumbo.shutdown();
+        deleteStore();
+    }
+
+    private static void deleteStore() throws IOException {
+        for (String suffix : new String[] {"", ".journal", ".journal.old", ".tmp"}) {
+            Files.deleteIfExists(Paths.get("./data", STORE + suffix));
+        }
+    }
+
+    @Test
+    void testAddedTaskIsListedAndCachedUntilChanged() throws Exception {
+        HttpResponse<String> empty = send(request("").GET());
+        assertEquals(200, empty.statusCode());
+        assertTrue(empty.body().contains("\"count\":0"), empty.body());
+        String emptyTag = empty.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> added = send(request("").POST(HttpRequest.BodyPublishers.ofString(
+                "{\"type\": \"deadline\", \"description\": \"file taxes\", \"by\": \"2030-04-15T23:59\"}")));
+        assertEquals(201, added.statusCode());
+        assertEquals("/tasks/1", added.headers().firstValue("Location").orElseThrow());
+        assertTrue(added.body().contains("\"description\":\"file taxes\""), added.body());
+        assertTrue(added.body().contains("\"by\":\"2030-04-15T23:59"), added.body());
+
+        HttpResponse<String> changed = send(request("").header("If-None-Match", emptyTag).GET());
+        assertEquals(200, changed.statusCode());
+        assertTrue(changed.body().contains("\"count\":1"), changed.body());
+        String tag = changed.headers().firstValue("ETag").orElseThrow();
+        assertNotEquals(emptyTag, tag);
+
+        HttpResponse<String> unchanged = send(request("").header("If-None-Match", tag).GET());
+        assertEquals(304, unchanged.statusCode());
+        assertEquals("", unchanged.body());
+        assertEquals(304, send(request("/1").header("If-None-Match", tag).GET()).statusCode());
+
+        HttpResponse<String> one = send(request("/1").GET());
+        assertEquals(200, one.statusCode());
+        assertTrue(one.body().startsWith("{\"id\":1,\"type\":\"deadline\""), one.body());
+    }
+
+    @Test
+    void testFindPatchAndDelete() throws Exception {
+        mumbo.getResponse("todo buy milk");
+        mumbo.getResponse("todo sell bread");
+
+        HttpResponse<String> found = send(request("?find=milk").GET());
+        assertTrue(found.body().contains("\"count\":1") && found.body().contains("buy milk"), found.body());
+        String version = found.body().substring("{\"version\":".length(), found.body().indexOf(','));
+        assertTrue(found.headers().firstValue("ETag").orElseThrow().endsWith("-" + version + "\""),
+                "The ETag names the version the search saw");
+
+        HttpResponse<String> marked = send(request("/2").method("PATCH",
+                HttpRequest.BodyPublishers.ofString("{\"done\": true}")));
+        assertEquals(200, marked.statusCode());
+        assertTrue(marked.body().contains("\"done\":true"), marked.body());
+        assertTrue(mumbo.snapshot().getById(2).isDone());
+
+        assertEquals(200, send(request("/1").DELETE()).statusCode());
+        assertEquals(1, mumbo.getTaskCount());
+    }
+
+    @Test
+    void testUnknownPathsAndTasksAreNotFound() throws Exception {
+        assertEquals(404, send(request("/99").GET()).statusCode());
+        assertEquals(404, send(request("/99").DELETE()).statusCode());
+        assertEquals(404, send(request("/99").method("PATCH",
+                HttpRequest.BodyPublishers.ofString("{\"done\": false}"))).statusCode());
+        HttpResponse<String> notFound = send(request("/first").GET());
+        assertEquals(404, notFound.statusCode());
+        assertTrue(notFound.body().startsWith("{\"error\":"), notFound.body());
+    }
+
+    @Test
+    void testWrongMethodsAreNotAllowed() throws Exception {
+        HttpResponse<String> onList = send(request("").DELETE());
+        assertEquals(405, onList.statusCode());
+        assertEquals("GET, POST", onList.headers().firstValue("Allow").orElseThrow());
+
+        HttpResponse<String> onTask = send(request("/1").POST(HttpRequest.BodyPublishers.ofString("{}")));
+        assertEquals(405, onTask.statusCode());
+        assertEquals("GET, PATCH, DELETE", onTask.headers().firstValue("Allow").orElseThrow());
+    }
+
+    @Test
+    void testBadRequestsAreRejected() throws Exception {
+        assertEquals(400, send(request("").POST(HttpRequest.BodyPublishers.ofString(
+                "{\"type\": \"chore\", \"description\": \"sweep\"}"))).statusCode());
+        assertEquals(400, send(request("").POST(HttpRequest.BodyPublishers.ofString("not json"))).statusCode());
+        assertEquals(400, send(request("?page=0").GET()).statusCode());
+        assertEquals(0, mumbo.getTaskCount());
+    }
+
+    @Test
+    void testOversizedBodyIsTooLarge() throws Exception {
+        String padding = " ".repeat(64 * 1024);
+        HttpResponse<String> tooLarge = send(request("").POST(HttpRequest.BodyPublishers.ofString(
+                "{\"type\": \"todo\", \"description\": \"sweep\"}" + padding)));
+        assertEquals(413, tooLarge.statusCode());
+        assertTrue(tooLarge.body().startsWith("{\"error\":"), tooLarge.body());
+        assertEquals(0, mumbo.getTaskCount());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        InetSocketAddress address = api.getAddress();
+        return HttpRequest.newBuilder(URI.create("http://" + address.getAddress().getHostAddress() + ":"
+                + address.getPort() + HttpApi.CONTEXT + path));
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
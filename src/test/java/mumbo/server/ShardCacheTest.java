@@ -0,0 +1,156 @@
+package mumbo.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import mumbo.app.Mumbo;
+
+/**
+ * Tests that shards are evicted in least recently used order, save their changes as they go, and load again
+ * with them; and that a shard which fails to load fails every lease waiting for it.
+ */
+public class ShardCacheTest {
+    private static final String PREFIX = "shard-test-";
+    private static final String[] USERS = {"ann", "bob", "cat"};
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    @AfterEach
+    void deleteStores() throws IOException {
+        for (String user : USERS) {
+            for (String suffix : new String[] {"", ".journal", ".journal.old", ".tmp"}) {
+                Files.deleteIfExists(Paths.get("./data", PREFIX + user + ".txt" + suffix));
+            }
+        }
+    }
+
+    /**
+     * Opens a shard whose changes are only saved by its write-behind saver, which never runs during a test.
+     */
+    private Mumbo open(String user) {
+        loads.incrementAndGet();
+        Mumbo mumbo = new Mumbo(PREFIX + user + ".txt", false);
+        mumbo.startWriteBehind(TimeUnit.HOURS.toMillis(1));
+        return mumbo;
+    }
+
+    @Test
+    void testEvictedShardIsSavedAndLoadedAgain() {
+        try (ShardCache cache = new ShardCache(this::open, 2, 1_000)) {
+            run(cache, "ann", "todo water plants");
+            run(cache, "bob", "todo feed cat");
+            run(cache, "ann", "todo call mum"); // Ann is now the most recently used
+            assertEquals(2, cache.getShardCount());
+            assertEquals(3, cache.getTaskCount());
+
+            run(cache, "cat", "list"); // Evicts Bob, who has unsaved changes
+
+            assertEquals(2, cache.getShardCount());
+            assertEquals(1, cache.getEvictions());
+            assertEquals(1, cache.getDirtyEvictions());
+            assertEquals(1, new Mumbo(PREFIX + "bob.txt", false).getTaskCount());
+
+            try (ShardCache.Lease lease = cache.acquire("bob")) { // Evicts Ann
+                assertEquals(1, lease.getMumbo().getTaskCount());
+            }
+            assertEquals(2, cache.getEvictions());
+            assertEquals(2, cache.getDirtyEvictions());
+            assertEquals(4, cache.getMisses());
+            assertEquals(1, cache.getHits());
+            assertEquals(4, loads.get());
+        }
+        assertEquals(2, new Mumbo(PREFIX + "ann.txt", false).getTaskCount());
+    }
+
+    @Test
+    void testTaskLimitEvictsAroundLeasedShard() {
+        try (ShardCache cache = new ShardCache(this::open, 10, 3)) {
+            run(cache, "ann", "todo task 1");
+            run(cache, "ann", "todo task 2");
+            run(cache, "ann", "todo task 3");
+            assertEquals(3, cache.getTaskCount());
+
+            try (ShardCache.Lease ann = cache.acquire("ann")) {
+                run(cache, "bob", "todo one too many"); // Ann is the eldest, but leased
+                assertEquals(1, cache.getShardCount());
+                assertEquals(1, cache.getEvictions());
+                assertEquals(3, ann.getMumbo().getTaskCount());
+            }
+            run(cache, "cat", "todo one too many again"); // Now Ann can go
+            assertEquals(2, cache.getEvictions());
+            assertEquals(1, cache.getShardCount());
+            assertEquals(1, cache.getTaskCount());
+        }
+        assertEquals(3, new Mumbo(PREFIX + "ann.txt", false).getTaskCount());
+        assertEquals(1, new Mumbo(PREFIX + "bob.txt", false).getTaskCount());
+    }
+
+    @Test
+    void testFailedLoadFailsWaitingLeases() throws Exception {
+        CountDownLatch failing = new CountDownLatch(1);
+        CountDownLatch mayFail = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        ShardCache cache = new ShardCache(user -> {
+            if (attempts.incrementAndGet() == 1) {
+                failing.countDown();
+                await(mayFail);
+                throw new IllegalStateException("Disk unplugged");
+            }
+            return open(user);
+        }, 2, 1_000);
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = threads.submit(() -> cache.acquire("ann"));
+            await(failing);
+            Future<?> second = threads.submit(() -> cache.acquire("ann")); // Waits for the first load
+            while (cache.getHits() == 0) {
+                Thread.onSpinWait();
+            }
+            mayFail.countDown();
+
+            assertThrows(ExecutionException.class, () -> first.get(10, TimeUnit.SECONDS));
+            assertThrows(ExecutionException.class, () -> second.get(10, TimeUnit.SECONDS));
+            assertEquals(1, attempts.get());
+            assertEquals(0, cache.getShardCount());
+
+            try (ShardCache.Lease lease = cache.acquire("ann")) { // A new shard, loaded afresh
+                assertEquals(0, lease.getMumbo().getTaskCount());
+            }
+            assertEquals(2, attempts.get());
+        } finally {
+            threads.shutdownNow();
+            cache.close();
+        }
+    }
+
+    private static void run(ShardCache cache, String user, String command) {
+        try (ShardCache.Lease lease = cache.acquire(user)) {
+            lease.getMumbo().getResponse(command);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS), "Timed out");
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package mumbo.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that a file replaced through {@link AtomicFile} ends up with all of its new contents, or keeps all of
+ * its old ones.
+ */
+public class AtomicFileTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void testWriteReplacesContents() throws IOException {
+        Path target = dir.resolve("tasks.txt");
+        Files.writeString(target, "old contents that are longer than the new ones");
+
+        AtomicFile.write(target, out -> out.write("new".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("new", Files.readString(target));
+        assertFalse(Files.exists(AtomicFile.tempOf(target)), "Temporary file left behind");
+    }
+
+    @Test
+    void testWriteCreatesMissingFile() throws IOException {
+        Path target = dir.resolve("new.txt");
+        AtomicFile.write(target, out -> out.write(new byte[] {'a', 'b'}));
+        assertEquals("ab", Files.readString(target));
+    }
+
+    @Test
+    void testFailedWriteKeepsOldContents() throws IOException {
+        Path target = dir.resolve("tasks.txt");
+        Files.writeString(target, "old");
+
+        IOException thrown = assertThrows(IOException.class, () -> AtomicFile.write(target, out -> {
+            out.write("half of the new".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("Disk full");
+        }));
+
+        assertEquals("Disk full", thrown.getMessage());
+        assertEquals("old", Files.readString(target));
+        assertFalse(Files.exists(AtomicFile.tempOf(target)), "Temporary file left behind");
+    }
+
+    @Test
+    void testStaleTemporaryFileIsOverwritten() throws IOException {
+        Path target = dir.resolve("tasks.txt");
+        Files.writeString(AtomicFile.tempOf(target), "left by an earlier crash, and longer than the new contents");
+
+        AtomicFile.write(target, out -> out.write("new".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("new", Files.readString(target));
+    }
+}
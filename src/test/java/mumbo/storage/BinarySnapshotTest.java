@@ -0,0 +1,165 @@
+package mumbo.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import mumbo.task.Deadline;
+import mumbo.task.Event;
+import mumbo.task.TaskList;
+import mumbo.task.Todo;
+
+/**
+ * Tests for binary snapshots: what they hold, how damage is detected, and that a list survives a round trip
+ * between the binary and text formats.
+ */
+public class BinarySnapshotTest {
+    private static final String STORE = "snapshot-test";
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    @AfterEach
+    void deleteStore() throws IOException {
+        for (String name : new String[] {STORE + ".bin", STORE + ".txt", STORE + "-export.txt"}) {
+            for (String suffix : new String[] {"", ".journal", ".journal.old", ".tmp", ".damaged"}) {
+                Files.deleteIfExists(Paths.get("./data", name + suffix));
+            }
+        }
+    }
+
+    @Test
+    void testSnapshotHoldsWhatWasWritten() throws IOException {
+        TaskList tasks = sampleTasks();
+        Path file = write(tasks, 42);
+
+        BinarySnapshot snapshot = BinarySnapshot.open(file);
+
+        assertTrue(BinarySnapshot.isBinary(file));
+        assertTrue(snapshot.verify());
+        assertTrue(snapshot.hasIds());
+        assertEquals(tasks.size(), snapshot.size());
+        assertEquals(tasks.getNextId(), snapshot.getNextId());
+        assertEquals(42, snapshot.getJournalSeq());
+        for (int i = tasks.size() - 1; i >= 0; i--) { // Any task can be decoded on its own
+            assertEquals(tasks.get(i).getId(), snapshot.idAt(i));
+            assertEquals(tasks.get(i).toFormattedString(), snapshot.materialize(i).toFormattedString());
+        }
+    }
+
+    @Test
+    void testSnapshotOutlivesReplacedFile() throws IOException {
+        TaskList tasks = sampleTasks();
+        Path file = write(tasks, 0);
+        BinarySnapshot snapshot = BinarySnapshot.open(file);
+
+        Files.write(file, new byte[] {1, 2, 3}); // As a save replacing the file while tasks are still unloaded
+
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toFormattedString(), snapshot.materialize(i).toFormattedString());
+        }
+    }
+
+    @Test
+    void testChangedByteFailsVerification() throws IOException {
+        Path file = write(sampleTasks(), 0);
+        byte[] data = Files.readAllBytes(file);
+        data[data.length - BinarySnapshot.TRAILER_BYTES - 1] ^= 1; // Last byte of the string pool
+        Files.write(file, data);
+
+        assertFalse(BinarySnapshot.open(file).verify());
+    }
+
+    @Test
+    void testTruncatedSnapshotIsReportedDamaged() throws IOException {
+        Path file = write(sampleTasks(), 0);
+        byte[] data = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(data, BinarySnapshot.HEADER_BYTES + BinarySnapshot.RECORD_BYTES));
+
+        assertThrows(DamagedFileException.class, () -> BinarySnapshot.open(file));
+        Files.write(file, Arrays.copyOf(data, BinarySnapshot.HEADER_BYTES - 1));
+        assertThrows(DamagedFileException.class, () -> BinarySnapshot.open(file));
+    }
+
+    @Test
+    void testTextFileIsNotASnapshot() throws IOException {
+        Path file = dir.resolve("tasks.txt");
+        Files.writeString(file, "1 | T | 0 | read ".repeat(4));
+
+        assertFalse(BinarySnapshot.isBinary(file));
+        assertThrows(IOException.class, () -> BinarySnapshot.open(file));
+    }
+
+    @Test
+    void testBinaryStoreRoundTrip() {
+        TaskList tasks = sampleTasks();
+        Storage storage = new Storage(STORE + ".bin");
+        storage.save(tasks);
+
+        assertTrue(BinarySnapshot.isBinary(Paths.get("./data", STORE + ".bin")));
+        assertSameTasks(tasks, new Storage(STORE + ".bin").load());
+    }
+
+    @Test
+    void testTextAndBinaryRoundTrip() throws IOException {
+        TaskList tasks = sampleTasks();
+        Storage binary = new Storage(STORE + ".bin");
+        binary.exportText(tasks, STORE + ".txt"); // Imported the first time the empty binary store loads
+
+        TaskList imported = new Storage(STORE + ".bin").load();
+        assertSameTasks(tasks, imported);
+        assertTrue(BinarySnapshot.isBinary(Paths.get("./data", STORE + ".bin")));
+
+        TaskList reloaded = new Storage(STORE + ".bin").load();
+        binary.exportText(reloaded, STORE + "-export.txt");
+        assertSameTasks(tasks, binary.importText(STORE + "-export.txt"));
+    }
+
+    private Path write(TaskList tasks, long journalSeq) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinarySnapshot.write(out, tasks.asList(), tasks.getNextId(), journalSeq);
+        return Files.write(dir.resolve("tasks.bin"), out.toByteArray());
+    }
+
+    /**
+     * Builds a list with every kind of task, done and tagged ones, text that needs escaping and a gap in the ids.
+     */
+    private static TaskList sampleTasks() {
+        TaskList tasks = new TaskList(new ArrayList<>());
+        tasks.add(new Todo("read book"));
+        tasks.add(new Deadline("return | book \\ now", LocalDateTime.of(2030, 1, 2, 18, 0)));
+        tasks.add(new Event("project\nmeeting", LocalDateTime.of(2030, 1, 3, 9, 0),
+                LocalDateTime.of(2030, 1, 3, 11, 30)));
+        tasks.add(new Todo("café run"));
+        tasks.mark(2, true);
+        tasks.tag(3, "work");
+        tasks.tag(3, "urgent");
+        tasks.delete(1);
+        return tasks;
+    }
+
+    private static void assertSameTasks(TaskList expected, TaskList actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.getNextId(), actual.getNextId());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).toFormattedString(), actual.get(i).toFormattedString());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package mumbo.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import mumbo.task.Task;
+import mumbo.task.TaskList;
+import mumbo.task.Todo;
+
+/**
+ * Tests that parsing text in chunks gives exactly the tasks a line-by-line read does, wherever the chunks
+ * are cut.
+ */
+public class ChunkedTextParserTest {
+    private static final int CHUNK = ChunkedTextParser.CHUNK_BYTES;
+    private static final String STORE = "chunked-test.txt";
+
+    @BeforeEach
+    @AfterEach
+    void deleteStore() throws IOException {
+        for (String suffix : new String[] {"", ".journal", ".journal.old", ".tmp", ".damaged"}) {
+            Files.deleteIfExists(Paths.get("./data", STORE + suffix));
+        }
+    }
+
+    @Test
+    void testCutBetweenCarriageReturnAndLineFeed() {
+        byte[] data = textWithLineEndingAt(CHUNK, "\r\n"); // The chunk would end right after the '\r'
+        assertEquals('\r', data[CHUNK - 1]);
+        assertEquals('\n', data[CHUNK]);
+        assertParsesLikeLines(data);
+    }
+
+    @Test
+    void testCutRightAfterLineFeed() {
+        byte[] data = textWithLineEndingAt(CHUNK - 1, "\n");
+        assertEquals('\n', data[CHUNK - 1]);
+        assertParsesLikeLines(data);
+    }
+
+    @Test
+    void testCutInsideMultiByteCharacter() {
+        String line = "1 | T | 0 | " + "é".repeat(CHUNK / 2) + "\n2 | T | 0 | after\n";
+        byte[] data = line.getBytes(StandardCharsets.UTF_8);
+        assertTrue((data[CHUNK - 1] & 0xC0) == 0x80 || (data[CHUNK - 1] & 0xE0) == 0xC0, "Not inside a character");
+        assertParsesLikeLines(data);
+    }
+
+    @Test
+    void testTextJustOverOneChunk() {
+        byte[] data = textWithLineEndingAt(CHUNK - 1, "\n");
+        byte[] longer = new byte[CHUNK + 1];
+        System.arraycopy(data, 0, longer, 0, CHUNK);
+        longer[CHUNK] = 'T'; // A last line of one byte, which holds no task
+        List<ChunkedTextParser.Chunk> chunks = ChunkedTextParser.parse(longer, 0, longer.length, 1);
+        assertEquals(2, chunks.size());
+        assertEquals(List.of("T"), chunks.get(1).getUnreadable());
+        assertParsesLikeLines(longer);
+    }
+
+    @Test
+    void testTextOfOneChunkIsOneChunk() {
+        byte[] data = textWithLineEndingAt(CHUNK - 1, "\n");
+        assertEquals(1, ChunkedTextParser.parse(data, 0, CHUNK, 1).size());
+        assertParsesLikeLines(Arrays.copyOf(data, CHUNK));
+    }
+
+    @Test
+    void testLargeFileLoadsInOrder() {
+        TaskList tasks = new TaskList(new ArrayList<>());
+        for (int i = 0; i < 3 * CHUNK / 40; i++) {
+            tasks.add(new Todo("task " + i + (i % 7 == 0 ? " with | bar" : "")));
+        }
+        tasks.delete(2);
+        new Storage(STORE).save(tasks);
+
+        TaskList loaded = new Storage(STORE).load();
+
+        assertEquals(tasks.size(), loaded.size());
+        assertEquals(tasks.getNextId(), loaded.getNextId());
+        for (int i = 0; i < tasks.size(); i += 97) {
+            assertEquals(tasks.get(i).getId(), loaded.get(i).getId());
+            assertEquals(tasks.get(i).getDescription(), loaded.get(i).getDescription());
+        }
+        assertEquals(tasks.get(tasks.size() - 1).getId(), loaded.get(loaded.size() - 1).getId());
+    }
+
+    /**
+     * Builds task lines, with a comment and a blank line among them, padded so that one line ends with its
+     * last byte at {@code end} and one more line follows it.
+     */
+    private static byte[] textWithLineEndingAt(int end, String lineEnding) {
+        StringBuilder text = new StringBuilder("# comment" + lineEnding + lineEnding);
+        int id = 1;
+        while (text.length() < end - 200) {
+            text.append(id).append(" | T | ").append(id % 2).append(" | task ").append(id).append(lineEnding);
+            id++;
+        }
+        String head = id + " | T | 0 | padded ";
+        int padding = end + 1 - text.length() - head.length() - lineEnding.length();
+        text.append(head).append("x".repeat(padding)).append(lineEnding);
+        text.append(id + 1).append(" | T | 1 | last").append(lineEnding);
+        return text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static void assertParsesLikeLines(byte[] data) {
+        List<Task> expected = new ArrayList<>();
+        List<Integer> expectedIds = new ArrayList<>();
+        TaskLineParser parser = new TaskLineParser(TaskLineParser.CURRENT_VERSION);
+        for (String line : new String(data, StandardCharsets.UTF_8).split("\r?\n")) {
+            Task task = parser.parse(line, 0, line.length());
+            if (task != null) {
+                expected.add(task);
+                expectedIds.add(parser.getId());
+            }
+        }
+
+        List<ChunkedTextParser.Chunk> chunks = ChunkedTextParser.parse(data, 0, data.length, 1);
+
+        assertEquals(data.length > CHUNK ? 2 : 1, chunks.size());
+        int n = 0;
+        for (ChunkedTextParser.Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.size(); i++, n++) {
+                assertEquals((int) expectedIds.get(n), chunk.idAt(i));
+                assertEquals(expected.get(n).toFormattedString(), chunk.taskAt(i).toFormattedString());
+            }
+        }
+        assertEquals(expected.size(), n);
+    }
+}
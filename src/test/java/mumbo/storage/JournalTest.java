@@ -0,0 +1,244 @@
+package mumbo.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import mumbo.task.Deadline;
+import mumbo.task.Task;
+import mumbo.task.TaskList;
+import mumbo.task.Todo;
+
+/**
+ * Tests for journaled storage: what the journal records, how it is replayed, and how it is folded into the
+ * storage file.
+ */
+public class JournalTest {
+    private static final String STORE = "journal-test.txt";
+    private static final Path ACTIVE = Paths.get("./data", STORE + ".journal");
+    private static final Path ROTATED = Paths.get("./data", STORE + ".journal.old");
+    private static final int ADDS_PAST_THRESHOLD = 1200; // Of about 1 KB each, so one compaction runs
+    private static final int ADDS_RACING_FLUSH = 500;
+
+    @BeforeEach
+    @AfterEach
+    void deleteStore() throws IOException {
+        for (String suffix : new String[] {"", ".journal", ".journal.old", ".tmp"}) {
+            Files.deleteIfExists(Paths.get("./data", STORE + suffix));
+        }
+    }
+
+    @Test
+    void testRecordsReadBackAsWritten() {
+        TaskList tasks = new TaskList(new ArrayList<>());
+        Task added = tasks.add(new Todo("pay | rent \\ now"));
+        List<JournalEntry> written = List.of(JournalEntry.add(added), JournalEntry.mark(4, true),
+                JournalEntry.mark(4, false), JournalEntry.delete(5), JournalEntry.tag(6, "work"),
+                JournalEntry.clear());
+
+        for (int i = 0; i < written.size(); i++) {
+            JournalEntry entry = written.get(i);
+            JournalEntry read = JournalEntry.parse(entry.toRecord(i + 1));
+            assertEquals(i + 1, read.getSeq());
+            assertEquals(entry.getOp(), read.getOp());
+            assertEquals(entry.getTaskId(), read.getTaskId());
+            assertEquals(entry.getPayload(), read.getPayload());
+        }
+        assertEquals("pay | rent \\ now", new Storage(STORE).parseTask(written.get(0).getPayload())
+                .getDescription());
+    }
+
+    @Test
+    void testMalformedRecordsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> JournalEntry.parse("garbage"));
+        assertThrows(IllegalArgumentException.class, () -> JournalEntry.parse("x | MARK | 1 | "));
+        assertThrows(IllegalArgumentException.class, () -> JournalEntry.parse("1 | RENAME | 1 | "));
+    }
+
+    @Test
+    void testReadSinceSkipsCoveredEntriesAndReadsRotatedFirst() throws IOException {
+        Journal journal = new Journal(Paths.get("./data", STORE));
+        journal.append(JournalEntry.mark(1, true));
+        journal.appendAll(List.of(JournalEntry.mark(2, true), JournalEntry.delete(3)));
+        journal.rotate();
+        journal.append(JournalEntry.clear());
+
+        List<JournalEntry> entries = journal.readSince(1);
+
+        assertEquals(3, entries.size());
+        assertEquals(2, entries.get(0).getSeq());
+        assertEquals(JournalEntry.Op.DELETE, entries.get(1).getOp());
+        assertEquals(JournalEntry.Op.CLEAR, entries.get(2).getOp());
+        assertEquals(4, journal.lastSeq());
+        assertEquals(4, new Journal(Paths.get("./data", STORE)).readSince(0).size());
+    }
+
+    @Test
+    void testTornTrailingRecordEndsReplay() throws IOException {
+        Journal journal = new Journal(Paths.get("./data", STORE));
+        journal.append(JournalEntry.mark(1, true));
+        Files.writeString(ACTIVE, "2 | DEL", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        List<JournalEntry> entries = new Journal(Paths.get("./data", STORE)).readSince(0);
+
+        assertEquals(1, entries.size());
+        assertEquals(JournalEntry.Op.MARK, entries.get(0).getOp());
+    }
+
+    @Test
+    void testLoadReplaysEveryKindOfEntry() {
+        new Storage(STORE, true).load(); // Writes an empty storage file
+        Storage storage = new Storage(STORE, true);
+        TaskList tasks = storage.load();
+        for (String description : new String[] {"first", "second", "third"}) {
+            storage.save(tasks, JournalEntry.add(tasks.add(new Todo(description))));
+        }
+        storage.save(tasks, JournalEntry.add(tasks.add(new Deadline("fourth", LocalDateTime.of(2030, 1, 2, 3, 4)))));
+        tasks.mark(2, true);
+        storage.save(tasks, JournalEntry.mark(2, true));
+        tasks.mark(2, false);
+        storage.save(tasks, JournalEntry.mark(2, false));
+        tasks.mark(3, true);
+        storage.save(tasks, JournalEntry.mark(3, true));
+        tasks.tag(3, "work");
+        storage.save(tasks, JournalEntry.tag(3, "work"));
+        tasks.delete(1);
+        storage.save(tasks, JournalEntry.delete(1));
+        assertTrue(Files.exists(ACTIVE), "Changes were not journaled");
+
+        TaskList loaded = new Storage(STORE, true).load();
+
+        assertEquals(tasks.size(), loaded.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).getId(), loaded.get(i).getId());
+            assertEquals(tasks.get(i).toFormattedString(), loaded.get(i).toFormattedString());
+        }
+        assertEquals(tasks.getNextId(), loaded.getNextId());
+    }
+
+    @Test
+    void testLoadReplaysClearAndKeepsIdsIncreasing() {
+        new Storage(STORE, true).load(); // Writes an empty storage file
+        Storage storage = new Storage(STORE, true);
+        TaskList tasks = storage.load();
+        storage.save(tasks, JournalEntry.add(tasks.add(new Todo("old"))));
+        storage.save(tasks, JournalEntry.add(tasks.add(new Todo("older"))));
+        tasks.clear();
+        storage.save(tasks, JournalEntry.clear());
+        storage.save(tasks, JournalEntry.add(tasks.add(new Todo("new"))));
+
+        TaskList loaded = new Storage(STORE, true).load();
+
+        assertEquals(1, loaded.size());
+        assertEquals("new", loaded.get(0).getDescription());
+        assertEquals(3, loaded.get(0).getId());
+    }
+
+    @Test
+    void testRotatingAgainKeepsEntriesUntilCovered() throws IOException {
+        Journal journal = new Journal(Paths.get("./data", STORE));
+        journal.append(JournalEntry.mark(1, true));
+        journal.rotate(); // As a compaction does, covering entry 1
+        journal.append(JournalEntry.mark(2, true));
+        journal.rotate(); // As a save does, covering entry 2, while the compaction is still writing
+        journal.append(JournalEntry.mark(3, true));
+
+        journal.dropRotated(1); // The compaction finishes; entry 2 is not covered yet
+        assertEquals(3, journal.readSince(0).size());
+        journal.dropRotated(2);
+        assertFalse(Files.exists(ROTATED));
+        assertEquals(3, journal.readSince(0).get(0).getTaskId());
+    }
+
+    @Test
+    void testEntriesInBothFilesAreReadOnce() throws IOException {
+        String records = JournalEntry.mark(1, true).toRecord(1) + "\n" + JournalEntry.mark(2, true).toRecord(2) + "\n";
+        Files.writeString(ROTATED, records, StandardCharsets.UTF_8);
+        Files.writeString(ACTIVE, records + JournalEntry.mark(3, true).toRecord(3) + "\n", StandardCharsets.UTF_8);
+        // As if the app stopped after adding the active entries to the rotated file, but before deleting them
+
+        List<JournalEntry> entries = new Journal(Paths.get("./data", STORE)).readSince(0);
+
+        assertEquals(3, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(i + 1, entries.get(i).getSeq());
+        }
+    }
+
+    @Test
+    void testAppendsRacingFlushAreKept() throws InterruptedException {
+        Storage storage = new Storage(STORE, true);
+        TaskList tasks = storage.load();
+        AtomicBoolean isAdding = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (isAdding.get()) {
+                storage.flush(tasks); // Locks the list only while rendering it, as stopping write-behind does
+            }
+        });
+        flusher.start();
+        for (int i = 0; i < ADDS_RACING_FLUSH; i++) {
+            synchronized (tasks) {
+                storage.save(tasks, JournalEntry.add(tasks.add(new Todo("task " + i))));
+            }
+        }
+        isAdding.set(false);
+        flusher.join();
+
+        assertEquals(ADDS_RACING_FLUSH, new Storage(STORE, true).load().size());
+    }
+
+    @Test
+    void testLoadFoldsLeftoverRotatedJournal() throws IOException {
+        TaskList written = new TaskList(new ArrayList<>());
+        written.add(new Todo("rotated aside"));
+        written.add(new Todo("added while compacting"));
+        new Storage(STORE, true).load(); // Writes an empty storage file
+        Files.writeString(ROTATED, JournalEntry.add(written.get(0)).toRecord(1) + "\n", StandardCharsets.UTF_8);
+        Files.writeString(ACTIVE, JournalEntry.add(written.get(1)).toRecord(2) + "\n", StandardCharsets.UTF_8);
+        // As if the app stopped before the compaction wrote its snapshot
+
+        TaskList loaded = new Storage(STORE, true).load();
+
+        assertEquals(2, loaded.size());
+        assertEquals("rotated aside", loaded.get(0).getDescription());
+        assertEquals("added while compacting", loaded.get(1).getDescription());
+        assertFalse(Files.exists(ROTATED), "Rotated journal kept after load");
+        assertFalse(Files.exists(ACTIVE), "Active journal kept after load");
+        assertEquals(2, new Storage(STORE, true).load().size());
+    }
+
+    @Test
+    void testEmptyLeftoverRotatedJournalDoesNotStopCompaction() throws IOException {
+        new Storage(STORE, true).load(); // Writes an empty storage file
+        Files.createFile(ROTATED);
+        Storage storage = new Storage(STORE, true);
+        TaskList tasks = storage.load();
+        assertFalse(Files.exists(ROTATED));
+
+        String description = "x".repeat(1000);
+        for (int i = 0; i < ADDS_PAST_THRESHOLD; i++) {
+            storage.save(tasks, JournalEntry.add(tasks.add(new Todo(description))));
+        }
+        storage.close(tasks); // Waits for the compaction
+
+        assertTrue(Files.size(ACTIVE) < Storage.COMPACT_THRESHOLD_BYTES, "Journal was never compacted");
+        assertFalse(Files.exists(ROTATED));
+        assertEquals(tasks.size(), new Storage(STORE, true).load().size());
+    }
+}
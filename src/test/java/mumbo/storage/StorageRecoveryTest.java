@@ -0,0 +1,131 @@
+package mumbo.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import mumbo.task.TaskList;
+import mumbo.task.Todo;
+
+/**
+ * Tests that a storage file which does not match its checksum is kept aside and the list recovered, from an
+ * unfinished save if one is complete and otherwise from whatever tasks can still be read.
+ */
+public class StorageRecoveryTest {
+    private static final String TEXT_STORE = "recovery-test.txt";
+    private static final String BINARY_STORE = "recovery-test.bin";
+
+    @BeforeEach
+    @AfterEach
+    void deleteStore() throws IOException {
+        for (String name : new String[] {TEXT_STORE, BINARY_STORE}) {
+            for (String suffix : new String[] {"", ".journal", ".journal.old", ".tmp", ".damaged"}) {
+                Files.deleteIfExists(Paths.get("./data", name + suffix));
+            }
+        }
+    }
+
+    @Test
+    void testChangedTextFileIsKeptAsideAndReadAsFarAsPossible() throws IOException {
+        save(TEXT_STORE, "water plants", "feed cat", "call mum");
+        Path file = Paths.get("./data", TEXT_STORE);
+        byte[] changed = Files.readString(file).replace("feed cat", "feed dog").getBytes(StandardCharsets.UTF_8);
+        Files.write(file, changed);
+
+        TaskList loaded = new Storage(TEXT_STORE).load();
+
+        assertEquals(Arrays.asList("water plants", "feed dog", "call mum"), descriptions(loaded));
+        assertArrayEquals(changed, Files.readAllBytes(Paths.get("./data", TEXT_STORE + ".damaged")));
+        assertFalse(Arrays.equals(changed, Files.readAllBytes(file)), "Damaged file was not rewritten");
+        Files.delete(Paths.get("./data", TEXT_STORE + ".damaged"));
+        assertEquals(3, new Storage(TEXT_STORE).load().size());
+        assertFalse(Files.exists(Paths.get("./data", TEXT_STORE + ".damaged")), "Rewritten file is damaged");
+    }
+
+    @Test
+    void testTornTextFileKeepsCompleteLines() throws IOException {
+        save(TEXT_STORE, "water plants", "feed cat", "call mum");
+        Path file = Paths.get("./data", TEXT_STORE);
+        String saved = Files.readString(file);
+        Files.writeString(file, saved.substring(0, saved.indexOf("call mum") + 4)); // Cut inside the last task
+
+        TaskList loaded = new Storage(TEXT_STORE).load();
+
+        assertEquals(Arrays.asList("water plants", "feed cat", "call"), descriptions(loaded));
+        assertTrue(Files.exists(Paths.get("./data", TEXT_STORE + ".damaged")));
+    }
+
+    @Test
+    void testCompleteTemporaryFileIsPreferred() throws IOException {
+        for (String store : new String[] {TEXT_STORE, BINARY_STORE}) {
+            save(store, "water plants", "feed cat", "call mum");
+            Path file = Paths.get("./data", store);
+            byte[] saved = Files.readAllBytes(file);
+            Files.write(AtomicFile.tempOf(file), saved); // As if the save stopped just before its rename
+            Files.write(file, Arrays.copyOf(saved, saved.length / 2));
+
+            TaskList loaded = new Storage(store).load();
+
+            assertEquals(Arrays.asList("water plants", "feed cat", "call mum"), descriptions(loaded));
+            assertTrue(Files.exists(Paths.get("./data", store + ".damaged")), store);
+            assertArrayEquals(saved, Files.readAllBytes(file));
+        }
+    }
+
+    @Test
+    void testDamagedTemporaryFileIsIgnored() throws IOException {
+        save(TEXT_STORE, "water plants", "feed cat");
+        Path file = Paths.get("./data", TEXT_STORE);
+        String saved = Files.readString(file);
+        Files.writeString(AtomicFile.tempOf(file), saved.substring(0, saved.length() - 4));
+        Files.writeString(file, saved.replace("feed", "fed"));
+
+        TaskList loaded = new Storage(TEXT_STORE).load();
+
+        assertEquals(Arrays.asList("water plants", "fed cat"), descriptions(loaded));
+    }
+
+    @Test
+    void testDamagedBinaryFileWithoutTemporaryFileStartsEmpty() throws IOException {
+        save(BINARY_STORE, "water plants", "feed cat");
+        Path file = Paths.get("./data", BINARY_STORE);
+        byte[] data = Files.readAllBytes(file);
+        data[data.length - 5] ^= 1;
+        Files.write(file, data);
+
+        TaskList loaded = new Storage(BINARY_STORE).load();
+
+        assertEquals(0, loaded.size());
+        assertArrayEquals(data, Files.readAllBytes(Paths.get("./data", BINARY_STORE + ".damaged")));
+    }
+
+    private static void save(String store, String... descriptions) {
+        TaskList tasks = new TaskList(new ArrayList<>());
+        for (String description : descriptions) {
+            tasks.add(new Todo(description));
+        }
+        new Storage(store).save(tasks);
+    }
+
+    private static List<String> descriptions(TaskList tasks) {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            out.add(tasks.get(i).getDescription());
+        }
+        return out;
+    }
+}
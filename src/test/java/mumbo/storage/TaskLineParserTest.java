@@ -0,0 +1,138 @@
+package mumbo.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import mumbo.task.Deadline;
+import mumbo.task.Event;
+import mumbo.task.Task;
+import mumbo.task.TaskList;
+import mumbo.task.Todo;
+
+/**
+ * Tests for the text storage format: escaping, reading each version of it, and migrating old files.
+ */
+public class TaskLineParserTest {
+    private static final String STORE = "format-test.txt";
+
+    @BeforeEach
+    @AfterEach
+    void deleteStore() throws IOException {
+        for (String suffix : new String[] {"", ".journal", ".journal.old", ".tmp", ".damaged"}) {
+            Files.deleteIfExists(Paths.get("./data", STORE + suffix));
+        }
+    }
+
+    @Test
+    void testEscapedTextReadsBackUnchanged() {
+        String[] descriptions = {"a | b", "C:\\tasks\\", "two\nlines", "windows\r\nbreak", "\\|\\n", "plain"};
+        TaskLineParser parser = new TaskLineParser(TaskLineParser.CURRENT_VERSION);
+        for (String description : descriptions) {
+            List<Task> tasks = List.of(new Todo(description),
+                    new Deadline(description, LocalDateTime.of(2030, 1, 2, 18, 0)),
+                    new Event(description, LocalDateTime.of(2030, 1, 3, 9, 0), LocalDateTime.of(2030, 1, 3, 10, 0)));
+            for (Task task : tasks) {
+                task.tag("work");
+                task.tag("x|y");
+                String line = task.toFormattedString();
+                assertFalse(line.contains("\n") || line.contains("\r"), "Line break left in " + line);
+
+                Task read = parser.parse(line, 0, line.length());
+
+                assertEquals(description, read.getDescription());
+                assertEquals(task.getTags(), read.getTags());
+                assertEquals(line, read.toFormattedString());
+            }
+        }
+    }
+
+    @Test
+    void testLeadingIdIsRead() {
+        TaskLineParser parser = new TaskLineParser(TaskLineParser.CURRENT_VERSION);
+        String line = "17 | T | 1 | read \\|book";
+        Task task = parser.parse(line, 0, line.length());
+        assertEquals(17, parser.getId());
+        assertEquals("read |book", task.getDescription());
+        assertTrue(task.isDone());
+    }
+
+    @Test
+    void testIncompleteLinesAreRejected() {
+        TaskLineParser parser = new TaskLineParser(TaskLineParser.CURRENT_VERSION);
+        for (String line : new String[] {"", "T", "T | 1", "T | 1 | ", "X | 0 | what", "D | 0 | essay",
+                "D | 0 | essay | 2030-01-0", "E | 0 | camp | 2030-01-02T09:00", "TT | 0 | long type"}) {
+            assertNull(parser.parse(line, 0, line.length()), line);
+        }
+    }
+
+    @Test
+    void testVersion0LinesHaveNoEscapesOrTags() {
+        TaskLineParser parser = new TaskLineParser(0);
+        String line = "T | 1 | back\\slash";
+        Task task = parser.parse(line, 0, line.length());
+        assertEquals("back\\slash", task.getDescription());
+        assertEquals(0, parser.getId());
+
+        line = "D | 0 | essay | 2030-01-02T18:00 | not a tag";
+        task = parser.parse(line, 0, line.length());
+        assertTrue(task.getTags().isEmpty());
+    }
+
+    @Test
+    void testVersion0FileIsMigrated() throws IOException {
+        Path file = Paths.get("./data", STORE);
+        Files.writeString(file, "T | 1 | C:\\notes\n"
+                + "D | 0 | essay | 2030-01-02T18:00\n"
+                + "E | 1 | camp | 2030-01-03T09:00 | 2030-01-05T17:00\n");
+
+        TaskList loaded = new Storage(STORE).load();
+
+        assertEquals(3, loaded.size());
+        assertEquals("C:\\notes", loaded.get(0).getDescription());
+        assertTrue(loaded.get(0).isDone());
+        assertFalse(loaded.get(1).isDone());
+        assertTrue(loaded.get(2).isDone());
+        assertEquals(3, loaded.get(2).getId());
+        String migrated = Files.readString(file);
+        assertTrue(migrated.startsWith("# mumbo-tasks v" + TaskLineParser.CURRENT_VERSION), migrated);
+        assertTrue(migrated.contains("1 | T | 1 | C:\\\\notes"), migrated);
+
+        TaskList reloaded = new Storage(STORE).load();
+        for (int i = 0; i < loaded.size(); i++) {
+            assertEquals(loaded.get(i).toFormattedString(), reloaded.get(i).toFormattedString());
+        }
+    }
+
+    @Test
+    void testDoneStatusAndTagsSurviveSave() {
+        TaskList tasks = new TaskList(new ArrayList<>());
+        tasks.add(new Todo("pay | rent\nnow"));
+        tasks.add(new Deadline("file taxes", LocalDateTime.of(2030, 4, 15, 23, 59)));
+        tasks.mark(1, true);
+        tasks.tag(1, "home");
+        tasks.tag(2, "money");
+        new Storage(STORE).save(tasks);
+
+        TaskList loaded = new Storage(STORE).load();
+
+        assertEquals(2, loaded.size());
+        assertEquals("pay | rent\nnow", loaded.get(0).getDescription());
+        assertTrue(loaded.get(0).isDone());
+        assertEquals(List.of("home"), loaded.get(0).getTags());
+        assertEquals(List.of("money"), loaded.get(1).getTags());
+    }
+}
@@ -0,0 +1,142 @@
+package mumbo.task;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks {@link CompactBitmap} against a {@link BitSet}, in particular as containers switch between sorted
+ * arrays and bitmaps at {@link CompactBitmap#ARRAY_LIMIT}.
+ */
+public class CompactBitmapTest {
+    private static final int LIMIT = CompactBitmap.ARRAY_LIMIT;
+
+    @Test
+    void testContainerConvertsAtArrayLimitAndBack() {
+        CompactBitmap bitmap = new CompactBitmap();
+        BitSet reference = new BitSet();
+        for (int i = 0; i < LIMIT; i++) {
+            add(bitmap, reference, i * 3); // All in the first container
+        }
+        assertMatches(reference, bitmap);
+
+        add(bitmap, reference, 1); // One past the limit: becomes a bitmap
+        add(bitmap, reference, 1); // Already present
+        assertEquals(LIMIT + 1, bitmap.cardinality());
+        assertMatches(reference, bitmap);
+
+        remove(bitmap, reference, 3); // Back to the limit: becomes an array again
+        assertEquals(LIMIT, bitmap.cardinality());
+        assertMatches(reference, bitmap);
+        add(bitmap, reference, 2);
+        remove(bitmap, reference, 5); // Never present
+        assertMatches(reference, bitmap);
+    }
+
+    @Test
+    void testEmptiedContainerIsDropped() {
+        CompactBitmap bitmap = new CompactBitmap();
+        bitmap.add(70_000);
+        bitmap.add(5);
+        bitmap.remove(70_000);
+        bitmap.remove(5);
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, bitmap.toIntArray().size());
+        bitmap.add(70_000);
+        assertTrue(bitmap.contains(70_000));
+        assertFalse(bitmap.contains(4_464)); // Same low bits, other container
+    }
+
+    @Test
+    void testAndOrAcrossContainerKinds() {
+        CompactBitmap sparse = new CompactBitmap();
+        CompactBitmap dense = new CompactBitmap();
+        BitSet sparseReference = new BitSet();
+        BitSet denseReference = new BitSet();
+        for (int i = 0; i < 3 * 65_536; i += 7) { // Three containers, each a bitmap
+            add(dense, denseReference, i);
+        }
+        for (int i = 0; i < 4 * 65_536; i += 91) { // A container beyond the dense ones, arrays throughout
+            add(sparse, sparseReference, i);
+        }
+
+        BitSet both = (BitSet) sparseReference.clone();
+        both.and(denseReference);
+        BitSet either = (BitSet) sparseReference.clone();
+        either.or(denseReference);
+        assertMatches(both, sparse.and(dense));
+        assertMatches(both, dense.and(sparse));
+        assertMatches(either, sparse.or(dense));
+        assertMatches(either, dense.or(sparse));
+        assertMatches(denseReference, dense.and(dense));
+        assertMatches(sparseReference, sparse); // The operands are left as they were
+        assertMatches(denseReference, dense);
+    }
+
+    @Test
+    void testAndOfLargeBitmapsCanShrinkToArray() {
+        CompactBitmap evens = new CompactBitmap();
+        CompactBitmap multiplesOfThree = new CompactBitmap();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 65_536; i++) {
+            if (i % 2 == 0) {
+                evens.add(i);
+            }
+            if (i % 3 == 0) {
+                multiplesOfThree.add(i);
+            }
+            if (i % 6 == 0) {
+                expected.set(i);
+            }
+        }
+        CompactBitmap sixes = evens.and(multiplesOfThree);
+        assertMatches(expected, sixes);
+        sixes.remove(0);
+        expected.clear(0);
+        assertMatches(expected, sixes);
+    }
+
+    @Test
+    void testRandomOperationsMatchBitSet() {
+        Random random = new Random(4);
+        CompactBitmap bitmap = new CompactBitmap();
+        BitSet reference = new BitSet();
+        for (int op = 0; op < 60_000; op++) {
+            int value = random.nextInt(3) == 0 ? random.nextInt(200_000) : random.nextInt(LIMIT + 200);
+            if (random.nextInt(3) == 0) {
+                remove(bitmap, reference, value);
+            } else {
+                add(bitmap, reference, value);
+            }
+            if (op % 10_000 == 0) {
+                assertMatches(reference, bitmap);
+            }
+        }
+        assertMatches(reference, bitmap);
+    }
+
+    private static void add(CompactBitmap bitmap, BitSet reference, int value) {
+        bitmap.add(value);
+        reference.set(value);
+    }
+
+    private static void remove(CompactBitmap bitmap, BitSet reference, int value) {
+        bitmap.remove(value);
+        reference.clear(value);
+    }
+
+    private static void assertMatches(BitSet reference, CompactBitmap bitmap) {
+        assertEquals(reference.cardinality(), bitmap.cardinality(), "cardinality");
+        assertEquals(reference.isEmpty(), bitmap.isEmpty());
+        assertArrayEquals(reference.stream().toArray(), bitmap.toIntArray().toArray());
+        for (int value = 0; value < reference.length() + 70_000; value += 13) {
+            assertEquals(reference.get(value), bitmap.contains(value), "contains " + value);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package mumbo.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks {@link IdMap} against a {@link HashMap} over long runs of random puts and removals.
+ */
+public class IdMapTest {
+    private static final int OPERATIONS = 20_000;
+
+    @Test
+    void testRandomOperationsMatchHashMap() {
+        for (int idRange : new int[] {16, 1_000, 1_000_000}) { // Dense ids collide, sparse ones resize
+            Random random = new Random(idRange);
+            IdMap map = new IdMap();
+            Map<Integer, Task> reference = new HashMap<>();
+            for (int op = 0; op < OPERATIONS; op++) {
+                int id = random.nextInt(idRange) + 1;
+                if (random.nextInt(3) == 0) {
+                    boolean present = reference.containsKey(id);
+                    reference.remove(id);
+                    assertEquals(present, map.remove(id), "remove " + id);
+                } else {
+                    Task t = random.nextInt(10) == 0 ? null : new Todo("task " + op); // Null: not loaded yet
+                    map.put(id, t);
+                    reference.put(id, t);
+                }
+                if (op % 1_000 == 0) {
+                    assertMatches(reference, map, idRange);
+                }
+            }
+            assertMatches(reference, map, idRange);
+        }
+    }
+
+    @Test
+    void testRemovalKeepsProbeRunsReachable() {
+        IdMap map = new IdMap();
+        for (int id = 1; id <= 64; id++) {
+            map.put(id, new Todo("task " + id));
+        }
+        for (int id = 1; id <= 64; id += 2) {
+            assertTrue(map.remove(id));
+        }
+        for (int id = 1; id <= 64; id++) {
+            assertEquals(id % 2 == 0, map.containsKey(id), "id " + id);
+        }
+        assertEquals(32, map.size());
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        IdMap map = new IdMap();
+        Todo first = new Todo("first");
+        map.put(1, first);
+        map.put(2, new Todo("second"));
+        IdMap copy = new IdMap(map);
+
+        map.remove(1);
+        map.put(3, new Todo("third"));
+        copy.put(4, new Todo("fourth"));
+
+        assertSame(first, copy.get(1));
+        assertFalse(copy.containsKey(3));
+        assertFalse(map.containsKey(4));
+        assertEquals(3, copy.size());
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void testClear() {
+        IdMap map = new IdMap();
+        for (int id = 1; id <= 100; id++) {
+            map.put(id, new Todo("task " + id));
+        }
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(50));
+        map.put(50, new Todo("again"));
+        assertEquals("again", map.get(50).getDescription());
+    }
+
+    private static void assertMatches(Map<Integer, Task> reference, IdMap map, int idRange) {
+        assertEquals(reference.size(), map.size(), "size");
+        for (int id = 1; id <= Math.min(idRange, 2_000); id++) {
+            assertEquals(reference.containsKey(id), map.containsKey(id), "containsKey " + id);
+            assertSame(reference.get(id), map.get(id));
+        }
+        for (Map.Entry<Integer, Task> e : reference.entrySet()) {
+            assertTrue(map.containsKey(e.getKey()), "containsKey " + e.getKey());
+            assertSame(e.getValue(), map.get(e.getKey()));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package mumbo.task;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks {@link OrderIndex} against a {@link TreeSet} of ids over long runs of random appends and removals.
+ */
+public class OrderIndexTest {
+    private static final int OPERATIONS = 20_000;
+
+    @Test
+    void testRandomOperationsMatchSortedSet() {
+        for (int maxGap : new int[] {1, 5, 5_000}) { // Large gaps move and widen the window
+            Random random = new Random(maxGap);
+            OrderIndex index = new OrderIndex();
+            TreeSet<Integer> reference = new TreeSet<>();
+            int nextId = 1;
+            for (int op = 0; op < OPERATIONS; op++) {
+                int choice = random.nextInt(10);
+                if (choice < 6 || reference.isEmpty()) {
+                    index.add(nextId);
+                    reference.add(nextId);
+                    nextId += 1 + random.nextInt(maxGap);
+                } else if (choice < 9) {
+                    int id = nth(reference, random.nextInt(reference.size()));
+                    index.remove(id);
+                    reference.remove(id);
+                } else {
+                    int[] ids = pick(reference, random, 1 + random.nextInt(reference.size()));
+                    index.removeAll(ids);
+                    for (int id : ids) {
+                        reference.remove(id);
+                    }
+                }
+                if (op % 500 == 0) {
+                    assertMatches(reference, index, nextId);
+                }
+            }
+            assertMatches(reference, index, nextId);
+        }
+    }
+
+    @Test
+    void testRemoveAllTakesBothPaths() {
+        for (int removed : new int[] {2, 900}) { // One by one, then in bulk with the tree rebuilt
+            OrderIndex index = new OrderIndex();
+            TreeSet<Integer> reference = new TreeSet<>();
+            for (int id = 1; id <= 1_000; id++) {
+                index.add(id);
+                reference.add(id);
+            }
+            int[] ids = pick(reference, new Random(removed), removed);
+            index.removeAll(ids);
+            for (int id : ids) {
+                reference.remove(id);
+            }
+            assertMatches(reference, index, 1_001);
+        }
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        OrderIndex index = new OrderIndex();
+        for (int id = 1; id <= 20; id++) {
+            index.add(id);
+        }
+        OrderIndex copy = new OrderIndex(index);
+
+        index.remove(5);
+        index.add(1_000); // Grows the original's window only
+        copy.add(21);
+
+        assertTrue(copy.contains(5));
+        assertFalse(copy.contains(1_000));
+        assertFalse(index.contains(21));
+        assertEquals(21, copy.size());
+        assertEquals(20, index.size());
+        assertEquals(1_000, index.idAt(19));
+    }
+
+    @Test
+    void testClear() {
+        OrderIndex index = new OrderIndex();
+        for (int id = 1; id <= 100; id++) {
+            index.add(id);
+        }
+        index.clear();
+        assertEquals(0, index.size());
+        assertFalse(index.contains(50));
+        index.add(101);
+        assertEquals(101, index.idAt(0));
+        assertEquals(0, index.rank(101));
+    }
+
+    private static void assertMatches(TreeSet<Integer> reference, OrderIndex index, int nextId) {
+        assertEquals(reference.size(), index.size(), "size");
+        int[] expected = reference.stream().mapToInt(Integer::intValue).toArray();
+        assertArrayEquals(expected, index.toArray());
+        for (int position = 0; position < expected.length; position++) {
+            assertEquals(expected[position], index.idAt(position), "idAt " + position);
+            assertEquals(position, index.rank(expected[position]), "rank " + expected[position]);
+        }
+        for (int id = 0; id <= nextId + 1; id += Math.max(1, nextId / 2_000)) {
+            assertEquals(reference.contains(id), index.contains(id), "contains " + id);
+            assertEquals(reference.headSet(id).size(), index.rank(id), "rank " + id);
+        }
+    }
+
+    private static int nth(TreeSet<Integer> set, int n) {
+        return set.stream().skip(n).findFirst().orElseThrow();
+    }
+
+    private static int[] pick(TreeSet<Integer> set, Random random, int count) {
+        List<Integer> ids = new ArrayList<>(set);
+        int[] picked = new int[count];
+        for (int i = 0; i < count; i++) {
+            picked[i] = ids.remove(random.nextInt(ids.size()));
+        }
+        return picked;
+    }
+}
@@ -0,0 +1,39 @@
+package mumbo.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that tags are shared case-insensitively, and that looking a tag up does not add it.
+ */
+public class TagDictionaryTest {
+    @Test
+    void testInternSharesOneLowercaseInstance() {
+        String tag = TagDictionary.intern("DictTestWork");
+        assertEquals("dicttestwork", tag);
+        assertSame(tag, TagDictionary.intern("dicttestWORK"));
+        assertSame(tag, TagDictionary.intern(" DictTestWork "));
+        assertSame(tag, TagDictionary.intern(new String("dicttestwork")));
+        assertSame(tag, TagDictionary.lookup("DICTTESTWORK"));
+    }
+
+    @Test
+    void testLookupDoesNotAddTag() {
+        int size = TagDictionary.size();
+        assertNull(TagDictionary.lookup("dict-test-never-used"));
+        assertEquals(size, TagDictionary.size());
+        TagDictionary.intern("dict-test-used");
+        TagDictionary.intern("Dict-Test-Used");
+        assertEquals(size + 1, TagDictionary.size());
+    }
+
+    @Test
+    void testTasksShareTagInstances() {
+        Task first = new Todo("first").tag("DictTestHome");
+        Task second = new Todo("second").tag("dicttesthome");
+        assertSame(first.getTags().get(0), second.getTags().get(0));
+    }
+}
@@ -0,0 +1,127 @@
+package mumbo.task;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks {@link TimeIndex} against a scan of the indexed tasks, including the latest end time each subtree
+ * records once tasks are removed.
+ */
+public class TimeIndexTest {
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void testLatestEndFollowsRemovals() {
+        TimeIndex index = new TimeIndex();
+        Event longest = new Event("conference", at(0), at(1_000));
+        Event shorter = new Event("workshop", at(10), at(500));
+        Deadline due = new Deadline("report", at(200));
+        index.add(1, longest);
+        index.add(2, shorter);
+        index.add(3, due);
+        index.add(4, new Todo("not timed"));
+        assertEquals(3, index.size());
+        assertEquals(seconds(1_000), index.latestEnd());
+
+        index.remove(1, longest);
+        assertEquals(seconds(500), index.latestEnd());
+        assertEquals(0, index.overlapping(seconds(600), seconds(2_000)).size());
+        assertArrayEquals(new int[] {2}, index.overlapping(seconds(400), seconds(2_000)).toArray());
+
+        index.remove(2, shorter);
+        assertEquals(seconds(200), index.latestEnd());
+        index.remove(3, due);
+        assertEquals(Long.MIN_VALUE, index.latestEnd());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testQueriesReturnIdsInTimeOrder() {
+        TimeIndex index = new TimeIndex();
+        index.add(1, new Deadline("later", at(50)));
+        index.add(2, new Event("spanning", at(10), at(60)));
+        index.add(3, new Deadline("same time, larger id", at(50)));
+        index.add(4, new Deadline("earliest", at(5)));
+
+        assertArrayEquals(new int[] {4, 2, 1, 3}, index.startingBy(seconds(50)).toArray());
+        assertArrayEquals(new int[] {2, 1, 3}, index.overlapping(seconds(40), seconds(55)).toArray());
+        assertArrayEquals(new int[] {1, 3}, index.upcoming(seconds(11), 2).toArray());
+        assertArrayEquals(new int[] {4, 2, 1}, index.upcoming(seconds(0), 3).toArray());
+    }
+
+    @Test
+    void testRandomOperationsMatchScan() {
+        Random random = new Random(5);
+        TimeIndex index = new TimeIndex();
+        List<Entry> live = new ArrayList<>();
+        int nextId = 1;
+        for (int op = 0; op < 5_000; op++) {
+            if (live.isEmpty() || random.nextInt(3) > 0) {
+                int start = random.nextInt(10_000);
+                Task t = random.nextBoolean()
+                        ? new Deadline("d" + nextId, at(start))
+                        : new Event("e" + nextId, at(start), at(start + random.nextInt(random.nextInt(10) == 0
+                                ? 5_000 : 50)));
+                index.add(nextId, t);
+                live.add(new Entry(nextId++, t));
+            } else {
+                Entry removed = live.remove(random.nextInt(live.size())); // Often a long interval holding maxEnd
+                index.remove(removed.id, removed.task);
+            }
+            if (op % 250 == 0) {
+                assertMatches(live, index, random);
+            }
+        }
+        assertMatches(live, index, random);
+    }
+
+    private static void assertMatches(List<Entry> live, TimeIndex index, Random random) {
+        assertEquals(live.size(), index.size());
+        long latest = live.stream().mapToLong(e -> e.end).max().orElse(Long.MIN_VALUE);
+        assertEquals(latest, index.latestEnd());
+        List<Entry> sorted = new ArrayList<>(live);
+        sorted.sort(Comparator.<Entry>comparingLong(e -> e.start).thenComparingInt(e -> e.id));
+        for (int q = 0; q < 20; q++) {
+            long from = seconds(random.nextInt(16_000) - 1_000);
+            long to = from + random.nextInt(300) * 60L;
+            assertArrayEquals(sorted.stream().filter(e -> e.start <= to).mapToInt(e -> e.id).toArray(),
+                    index.startingBy(to).toArray(), "startingBy");
+            assertArrayEquals(sorted.stream().filter(e -> e.start <= to && e.end >= from).mapToInt(e -> e.id)
+                    .toArray(), index.overlapping(from, to).toArray(), "overlapping");
+            assertArrayEquals(sorted.stream().filter(e -> e.start >= from).limit(7).mapToInt(e -> e.id).toArray(),
+                    index.upcoming(from, 7).toArray(), "upcoming");
+        }
+    }
+
+    private static LocalDateTime at(int minutes) {
+        return EPOCH.plusMinutes(minutes);
+    }
+
+    private static long seconds(int minutes) {
+        return TimeIndex.epochSecond(at(minutes));
+    }
+
+    private static final class Entry {
+        final int id;
+        final Task task;
+        final long start;
+        final long end;
+
+        Entry(int id, Task task) {
+            this.id = id;
+            this.task = task;
+            this.start = TimeIndex.epochSecond(task instanceof Event ? ((Event) task).getStart()
+                    : ((Deadline) task).getDeadline());
+            this.end = TimeIndex.epochSecond(task instanceof Event ? ((Event) task).getEnd()
+                    : ((Deadline) task).getDeadline());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package mumbo.task;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the trigram index never misses a task containing a keyword, and drops removed tasks.
+ */
+public class TokenIndexTest {
+    @Test
+    void testCandidatesIncludeEveryMatch() {
+        TokenIndex index = new TokenIndex();
+        index.add(1, "Buy milk");
+        index.add(2, "buy MILKSHAKE");
+        index.add(3, "sell silk");
+        index.add(5, "milk the cows, milk them");
+
+        assertArrayEquals(new int[] {1, 2, 5}, index.candidates("milk").toArray());
+        assertArrayEquals(new int[] {1, 2}, index.candidates("buy").toArray());
+        assertArrayEquals(new int[] {2}, index.candidates("shake").toArray());
+        assertEquals(0, index.candidates("bread").size());
+    }
+
+    @Test
+    void testShortKeywordIsNotIndexed() {
+        TokenIndex index = new TokenIndex();
+        index.add(1, "go");
+        assertNull(index.candidates("go"));
+        assertEquals(0, index.candidates("goo").size());
+    }
+
+    @Test
+    void testRemovedTaskIsNoLongerACandidate() {
+        TokenIndex index = new TokenIndex();
+        index.add(1, "write report");
+        index.add(2, "report bug");
+        index.remove(1, "write report");
+
+        assertArrayEquals(new int[] {2}, index.candidates("report").toArray());
+        assertEquals(0, index.candidates("write").size());
+        index.clear();
+        assertEquals(0, index.candidates("bug").size());
+    }
+
+    @Test
+    void testRandomDescriptionsMatchScan() {
+        Random random = new Random(3);
+        TokenIndex index = new TokenIndex();
+        List<String> descriptions = new ArrayList<>();
+        descriptions.add(null); // Ids start from 1
+        for (int id = 1; id <= 2_000; id++) {
+            String description = randomText(random, 4 + random.nextInt(20));
+            descriptions.add(description);
+            index.add(id, description);
+        }
+        for (int id = 1; id <= 2_000; id += 3) {
+            index.remove(id, descriptions.get(id));
+            descriptions.set(id, null);
+        }
+
+        for (int q = 0; q < 200; q++) {
+            String keyword = randomText(random, 3 + random.nextInt(2)).toLowerCase();
+            int[] candidates = index.candidates(keyword).toArray();
+            int[] sorted = candidates.clone();
+            Arrays.sort(sorted);
+            assertArrayEquals(sorted, candidates);
+            for (int id = 1; id < descriptions.size(); id++) {
+                String description = descriptions.get(id);
+                boolean isCandidate = Arrays.binarySearch(candidates, id) >= 0;
+                if (description == null) {
+                    assertFalse(isCandidate, "Removed task " + id + " is a candidate");
+                } else if (description.toLowerCase().contains(keyword)) {
+                    assertTrue(isCandidate, "Task " + id + " contains '" + keyword + "' but was missed");
+                }
+            }
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append("abcAB ".charAt(random.nextInt(6)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,119 @@
+package mumbo.userinput;
+
+import java.lang.management.ManagementFactory;
+
+import mumbo.command.Command;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test suite for the Lexer class.
+ * Covers command recognition, word scanning and marker splitting, and checks that parsing
+ * typical commands stays within a small allocation budget.
+ */
+public class LexerTest {
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 50_000;
+
+    /** Bytes allocated per parse of a short command; the old regex split alone took about 750-950. */
+    private static final long MAX_BYTES_PER_PARSE = 400;
+
+    @Test
+    void testCommandIsCaseInsensitive() {
+        assertEquals(Command.TODO, new Lexer("todo x").command());
+        assertEquals(Command.TODO, new Lexer("ToDo x").command());
+        assertEquals(Command.DEADLINE, new Lexer("  DEADLINE essay /by today").command());
+    }
+
+    @Test
+    void testCommandMustMatchWholeWord() {
+        assertEquals(Command.UNKNOWN, new Lexer("todos x").command());
+        assertEquals(Command.UNKNOWN, new Lexer("tod x").command());
+        assertEquals(Command.UNKNOWN, new Lexer("gibberish").command());
+    }
+
+    @Test
+    void testInternalResultsAreNotCommands() {
+        assertEquals(Command.UNKNOWN, new Lexer("unknown").command());
+        assertEquals(Command.UNKNOWN, new Lexer("error").command());
+    }
+
+    @Test
+    void testRestIsTrimmed() {
+        Lexer lexer = new Lexer("  todo \t buy   milk \n");
+        assertEquals(Command.TODO, lexer.command());
+        assertEquals("buy   milk", lexer.rest());
+        assertFalse(lexer.hasNext());
+        assertNull(lexer.rest());
+    }
+
+    @Test
+    void testRestIsNullWithoutArguments() {
+        Lexer lexer = new Lexer("list   ");
+        assertEquals(Command.LIST, lexer.command());
+        assertNull(lexer.rest());
+    }
+
+    @Test
+    void testBlankInput() {
+        Lexer lexer = new Lexer(" \t ");
+        assertFalse(lexer.hasNext());
+        assertEquals(Command.UNKNOWN, lexer.command());
+        assertNull(lexer.nextWord());
+    }
+
+    @Test
+    void testWords() {
+        Lexer lexer = new Lexer("2  work\turgent ");
+        assertEquals(3, lexer.countWords());
+        assertEquals("2", lexer.nextWord());
+        assertEquals(2, lexer.countWords());
+        assertEquals("work", lexer.nextWord());
+        assertEquals("urgent", lexer.nextWord());
+        assertNull(lexer.nextWord());
+        assertEquals(0, lexer.countWords());
+    }
+
+    @Test
+    void testSplitAtTrimsBothSides() {
+        assertArrayEquals(new String[] {"essay", "2025/10/10"}, Lexer.splitAt("essay  /by  2025/10/10 ", "/by"));
+        assertArrayEquals(new String[] {"", ""}, Lexer.splitAt("/by", "/by"));
+        assertArrayEquals(new String[] {"a", "b /by c"}, Lexer.splitAt("a /by b /by c", "/by"));
+        assertNull(Lexer.splitAt("essay by tomorrow", "/by"));
+    }
+
+    @Test
+    void testParseAllocatesLittle() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return; // Allocation counters are not available on this JVM
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return;
+        }
+        String[] inputs = {"todo buy milk", "mark 3", "list", "find book", "tag 2 work urgent", "gibberish"};
+        for (String input : inputs) {
+            parseRepeatedly(input, WARMUP_ROUNDS);
+            long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            parseRepeatedly(input, MEASURED_ROUNDS);
+            long after = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            long perParse = (after - before) / MEASURED_ROUNDS;
+            assertTrue(perParse <= MAX_BYTES_PER_PARSE,
+                    "Parsing \"" + input + "\" allocated " + perParse + " bytes per call");
+        }
+    }
+
+    private static void parseRepeatedly(String input, int rounds) {
+        Command last = null;
+        for (int i = 0; i < rounds; i++) {
+            last = Parser.parse(input).getCommand();
+        }
+        assertTrue(last != null);
+    }
+}
@@ -1,6 +1,13 @@
 package mumbo.userinput;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
 import mumbo.command.Command;
+import mumbo.task.Task;
+import mumbo.task.TaskList;
+import mumbo.task.Todo;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -68,6 +75,17 @@ public class ParserTest {
         assertEquals("06/06/2025 23:59", input.getArgX(3));
     }
 
+    @Test
+    void testTypedValues() {
+        ParsedInput event = Parser.parse("event concert /from 06/06/2025 20:00 /to 06/06/2025 23:59");
+        assertEquals("concert", event.getDescription());
+        assertEquals(LocalDateTime.of(2025, 6, 6, 20, 0), event.getDateTimeX(1));
+        assertEquals(LocalDateTime.of(2025, 6, 6, 23, 59), event.getDateTimeX(2));
+        assertEquals(7, Parser.parse("delete 7").getIndex());
+        assertEquals(4, Parser.parse("tag 4 work").getIndex());
+        assertNull(Parser.parse("deadline essay /by someday").getDateTimeX(1));
+    }
+
     @Test
     void testEventInvalid() {
         ParsedInput input = Parser.parse("event party /from today"); // missing /to
@@ -115,6 +133,23 @@ public class ParserTest {
         assertNull(input.getArgX(1));
     }
 
+    @Test
+    void testListPaging() {
+        ParsedInput input = Parser.parse("list /size 20 /page 3");
+        assertEquals(Command.LIST, input.getCommand());
+        assertEquals("3", input.getArgX(1));
+        assertEquals("20", input.getArgX(2));
+        assertEquals(String.valueOf(Parser.DEFAULT_PAGE_SIZE), Parser.parse("list /page 2").getArgX(2));
+    }
+
+    @Test
+    void testListPagingInvalid() {
+        assertEquals(Command.ERROR, Parser.parse("list /page").getCommand());
+        assertEquals(Command.ERROR, Parser.parse("list /page 0").getCommand());
+        assertEquals(Command.ERROR, Parser.parse("list /page 1 /page 2").getCommand());
+        assertEquals(Command.ERROR, Parser.parse("list /pages 1").getCommand());
+    }
+
     @Test
     void testClearCommand() {
         ParsedInput input = Parser.parse("clear");
@@ -236,6 +271,102 @@ public class ParserTest {
         }
     }
 
+    @Test
+    void testDueValid() {
+        ParsedInput input = Parser.parse("due 2025/12/31");
+        assertEquals(Command.DUE, input.getCommand());
+        assertEquals("2025/12/31", input.getArgX(1));
+    }
+
+    @Test
+    void testDueInvalidDate() {
+        ParsedInput input = Parser.parse("due someday");
+        assertEquals(Command.ERROR, input.getCommand());
+        assertNotNull(input.getArgX(1));
+    }
+
+    @Test
+    void testBetweenValid() {
+        ParsedInput input = Parser.parse("between 2025/12/01  /to  2025/12/07 18:00");
+        assertEquals(Command.BETWEEN, input.getCommand());
+        assertEquals("2025/12/01", input.getArgX(1));
+        assertEquals("2025/12/07 18:00", input.getArgX(2));
+    }
+
+    @Test
+    void testBetweenEndBeforeStart() {
+        ParsedInput input = Parser.parse("between 2025/12/07 /to 2025/12/01");
+        assertEquals(Command.ERROR, input.getCommand());
+    }
+
+    @Test
+    void testUpcomingOptionalCount() {
+        assertEquals(0, Parser.parse("upcoming").args.length);
+        assertEquals("3", Parser.parse("upcoming 3").getArgX(1));
+        assertEquals(Command.ERROR, Parser.parse("upcoming soon").getCommand());
+    }
+
+    @Test
+    void testAliases() {
+        assertEquals(Command.LIST, Parser.parse("ls").getCommand());
+        assertEquals(Command.DELETE, Parser.parse("RM 2").getCommand());
+        assertEquals(2, Parser.parse("rm 2").getIndex());
+        assertEquals(Command.BYE, Parser.parse("exit").getCommand());
+        assertEquals(Command.BYE, Parser.parse("Quit").getCommand());
+        assertEquals(Command.DELETE, Command.from("rm"));
+    }
+
+    @Test
+    void testUnknownKeepsCommandWord() {
+        ParsedInput input = Parser.parse("  Report  last week ");
+        assertEquals(Command.UNKNOWN, input.getCommand());
+        assertEquals("Report", input.getArgX(1));
+        assertEquals("last week", input.getArgX(2));
+        assertEquals("", Parser.parse("report").getArgX(2));
+    }
+
+    @Test
+    void testSelections() {
+        List<Task> todos = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            todos.add(new Todo(i % 10 == 0 ? "write report " + i : "task " + i));
+        }
+        TaskList tasks = new TaskList(todos);
+        tasks.mark(2, true);
+        tasks.mark(45, true);
+        tasks.tag(7, "work");
+        tasks.delete(5);
+
+        ParsedInput range = Parser.parse("delete 3-8");
+        assertEquals(Command.DELETE, range.getCommand());
+        assertFalse(range.getSelection().isSingle());
+        assertArrayEquals(new int[] {3, 4, 6, 7, 8}, tasks.select(range.getSelection()));
+        assertArrayEquals(new int[] {1, 9, 10, 11, 49, 50},
+                tasks.select(Parser.parse("mark 9-11, 1,10, 49-60").getSelection()));
+        assertArrayEquals(new int[] {2, 45}, tasks.select(Parser.parse("unmark DONE").getSelection()));
+        assertEquals(47, tasks.select(Parser.parse("mark undone").getSelection()).length);
+        assertArrayEquals(new int[] {10, 20, 30, 40, 50},
+                tasks.select(Parser.parse("delete find:report").getSelection()));
+
+        ParsedInput tag = Parser.parse("tag tag:work urgent");
+        assertEquals(Command.TAG, tag.getCommand());
+        assertArrayEquals(new int[] {7}, tasks.select(tag.getSelection()));
+        assertEquals("urgent", tag.getArgX(2));
+
+        assertEquals(3, Parser.parse("mark 3").getIndex());
+        assertTrue(Parser.parse("mark 3").getSelection().isSingle());
+    }
+
+    @Test
+    void testSelectionInvalid() {
+        assertEquals(Command.ERROR, Parser.parse("delete 40-3").getCommand());
+        assertEquals(Command.ERROR, Parser.parse("delete 1,,2").getCommand());
+        assertEquals(Command.ERROR, Parser.parse("mark 0-4").getCommand());
+        assertEquals(Command.ERROR, Parser.parse("mark -4").getCommand());
+        assertEquals(Command.ERROR, Parser.parse("mark find:").getCommand());
+        assertEquals(Command.ERROR, Parser.parse("tag 3-a urgent").getCommand());
+    }
+
     // Defensive: ensure ERROR carries message non-null
     @Test
     void testErrorCarriesMessage() {